@@ -5,173 +5,649 @@ import com.example.factory.ConverterFactory;
 import com.example.strategy.TextConverter;
 import com.example.strategy.Type1TextConverter;
 import com.example.strategy.Type2TextConverter;
+import com.example.strategy.Type34Converter;
 import com.example.strategy.Type3TextConverter;
 import com.example.strategy.Type4TextConverter;
+import com.example.util.BatchConverter;
+import com.example.util.EntityCatalog;
+import com.example.util.GeneratedCodeWriter;
+import com.example.util.LogicalLineReader;
+import com.example.util.MethodSplitter;
+import com.example.util.OrderedParallelConverter;
+import com.example.util.RowSource;
+import com.example.util.SpecWatcher;
+import com.example.util.StreamingPipeline;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.*;
 import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 public class TextToJavaConverter {
     private static final Logger logger = LoggerFactory.getLogger(TextToJavaConverter.class);
     
+    /** --gzip：所有输出文件用 gzip 压缩，文件名加上 .gz */
+    private static boolean compressOutput;
+    
     public static void main(String[] args) {
         try {
             // 解析参数，忽略以 -D 开头的系统属性
-            String converterType = "type1"; // 默认值
-            for (String arg : args) {
-                if (!arg.startsWith("-D")) {
-                    converterType = arg;
-                    break;
+            List<String> params = new ArrayList<>();
+            int parallelism = 1;
+            boolean streaming = false;
+            String outputRoot = null;
+            for (int i = 0; i < args.length; i++) {
+                if ("--parallel".equals(args[i]) && i + 1 < args.length) {
+                    parallelism = Integer.parseInt(args[++i]);
+                } else if ("--out".equals(args[i]) && i + 1 < args.length) {
+                    outputRoot = args[++i];
+                } else if ("--stream".equals(args[i])) {
+                    streaming = true;
+                } else if ("--gzip".equals(args[i])) {
+                    compressOutput = true;
+                } else if (!args[i].startsWith("-D")) {
+                    params.add(args[i]);
                 }
             }
             
+            // catalog build [type1|type2]：预编译实体目录快照
+            if (!params.isEmpty() && "catalog".equals(params.get(0))) {
+                buildCatalog(params);
+                return;
+            }
+            
+            // batch <type1|type2> <目录|glob>：一个进程内批量转换多个文件
+            if (!params.isEmpty() && "batch".equals(params.get(0))) {
+                processBatch(params, outputRoot, parallelism, streaming);
+                return;
+            }
+            
+            // watch <type1|type2> <目录>：常驻进程，规格文件变化时增量重新转换
+            if (!params.isEmpty() && "watch".equals(params.get(0))) {
+                processWatch(params, outputRoot);
+                return;
+            }
+            
+            // type34 [文件]：一次读取同时生成 Type3 和 Type4 的代码
+            if (!params.isEmpty() && "type34".equals(params.get(0))) {
+                processType34(params);
+                return;
+            }
+            
+            String converterType = params.isEmpty() ? "type1" : params.get(0); // 默认值 type1
+            
             logger.info("Using converter type: {}", converterType);
             ConverterConfig config = new ConverterConfig(converterType);
             
             // Type3 和 Type4 使用独立的处理流程
             if ("type3".equals(converterType.toLowerCase())) {
-                processType3(config);
+                processType3(config, streaming);
                 return;
             } else if ("type4".equals(converterType.toLowerCase())) {
-                processType4(config);
+                String inputPath = params.size() > 1 ? params.get(1) : config.getType4().getInputDir();
+                if (inputPath != null) {
+                    processType4Workbooks(config, inputPath, outputRoot, parallelism);
+                } else {
+                    processType4(config);
+                }
                 return;
             }
             
-            // 其他类型的处理保持不变
-            TextConverter converter = ConverterFactory.getConverter(config.getConverterType());
-            if (converter instanceof Type2TextConverter) {
-                Type2TextConverter type2Converter = (Type2TextConverter) converter;
-                type2Converter.setEntityFiles(config.getEntityFiles());
-                type2Converter.setEntityInstances(config.getEntityInstances());
-                type2Converter.setEnableLogicConversion(config.isEnableLogicConversion());
-                type2Converter.setDefineFile(config.getDefineFile());
-            } else if (converter instanceof Type1TextConverter) {
-                Type1TextConverter type1Converter = (Type1TextConverter) converter;
-                type1Converter.setEntityFiles(config.getEntityFiles());
-                type1Converter.setEntityInstances(config.getEntityInstances());
-            }
+            loadCatalog(config);
             
             // 处理 Type1 和 Type2
-            processType1And2(converter, config);
+            TextConverter converter = createConverter(config);
+            if (streaming) {
+                processStreaming(config, converter, config.getInputFile(), config.getOutputFile(), parallelism);
+            } else {
+                processType1And2(config, converter, config.getInputFile(), config.getOutputFile(), parallelism);
+            }
             
-        } catch (IOException e) {
+        } catch (IOException | UncheckedIOException e) {
             logger.error("Error during conversion", e);
         }
     }
 
-    private static void processType3(ConverterConfig config) {
+    /**
+     * 加载实体目录：有快照时先加载快照，再并行预加载所有实体文件，转换过程中不再按行解析
+     */
+    private static void loadCatalog(ConverterConfig config) {
+        loadCatalogSnapshot(config);
+        EntityCatalog.getInstance().loadAll(config.getEntityFiles(), Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * 批量转换 Type1/Type2 文件：实体目录只加载一次，所有文件共享同一个转换器和变量定义，
+     * 文件之间并行处理（默认并行度为 CPU 数），每个文件内部顺序转换
+     */
+    private static void processBatch(List<String> params, String outputRoot, int parallelism, boolean streaming)
+            throws IOException {
+        if (params.size() < 3 || !("type1".equals(params.get(1)) || "type2".equals(params.get(1)))) {
+            logger.error("Usage: batch <type1|type2> <directory|glob> [--out DIR] [--parallel N] [--stream]");
+            return;
+        }
+        ConverterConfig config = new ConverterConfig(params.get(1));
+        if (outputRoot != null) {
+            config.setOutputRoot(outputRoot);
+        }
+        loadCatalog(config);
+        TextConverter converter = createConverter(config);
+        
+        int workers = parallelism > 1 ? parallelism : Runtime.getRuntime().availableProcessors();
+        int failed = new BatchConverter(workers).run(params.get(2), Paths.get(config.getOutputRoot()),
+            (input, output) -> {
+                if (streaming) {
+                    processStreaming(config, converter, input.toString(), output.toString(), 1);
+                } else {
+                    processType1And2(config, converter, input.toString(), output.toString(), 1);
+                }
+            });
+        if (failed > 0) {
+            logger.error("{} files failed to convert", failed);
+        }
+    }
+
+    /**
+     * 监视模式：先转换目录下的所有规格文件，之后常驻监视，只重新转换发生变化的文件；
+     * Type2 文件按块缓存上次的结果，只转换内容变化的块。实体文件或变量定义文件变化时
+     * 重新加载并重新转换所有文件。JVM、实体目录和转换器在整个过程中保持加载状态。
+     */
+    private static void processWatch(List<String> params, String outputRoot) throws IOException {
+        if (params.size() < 3 || !("type1".equals(params.get(1)) || "type2".equals(params.get(1)))
+                || !Files.isDirectory(Paths.get(params.get(2)))) {
+            logger.error("Usage: watch <type1|type2> <directory> [--out DIR]");
+            return;
+        }
+        ConverterConfig config = new ConverterConfig(params.get(1));
+        if (outputRoot != null) {
+            config.setOutputRoot(outputRoot);
+        }
+        loadCatalog(config);
+        TextConverter converter = createConverter(config);
+        Path specRoot = Paths.get(params.get(2)).toAbsolutePath().normalize();
+        Path outputDir = Paths.get(config.getOutputRoot());
+        
+        // 规格文件 -> 块缓存（块文本 -> 生成的代码）
+        Map<Path, Map<String, String>> blockCaches = new ConcurrentHashMap<>();
+        BatchConverter.FileConverter fileConverter = (input, output) -> {
+            if (converter instanceof Type2TextConverter) {
+                Map<String, String> blockCache = blockCaches.computeIfAbsent(
+                    input.toAbsolutePath().normalize(), key -> new HashMap<>());
+                Type2TextConverter.IncrementalResult result = processType2Incremental(config,
+                    (Type2TextConverter) converter, input.toString(), output.toString(), blockCache);
+                logger.info("Reused {} of {} blocks for {}", result.getReused(), result.getBlocks(), input);
+            } else {
+                processType1And2(config, converter, input.toString(), output.toString(), 1);
+            }
+        };
+        BatchConverter batch = new BatchConverter(Runtime.getRuntime().availableProcessors());
+        batch.run(specRoot.toString(), outputDir, fileConverter);
+        
+        List<String> dependencies = new ArrayList<>(config.getEntityFiles().values());
+        dependencies.add(config.getDefineFile());
+        Path defineFile = config.getDefineFile() != null
+            ? Paths.get(config.getDefineFile()).toAbsolutePath().normalize() : null;
+        try (SpecWatcher watcher = new SpecWatcher(specRoot, dependencies)) {
+            watcher.run((changedDependencies, changedSpecs, deleted) -> {
+                long start = System.nanoTime();
+                for (Path removed : deleted) {
+                    removeOutputs(specRoot, removed, outputDir, blockCaches);
+                }
+                if (!changedDependencies.isEmpty()) {
+                    for (Path dependency : changedDependencies) {
+                        logger.info("Dependency changed: {}", dependency);
+                        if (dependency.equals(defineFile)) {
+                            if (converter instanceof Type2TextConverter) {
+                                ((Type2TextConverter) converter).setDefineFile(dependency.toString());
+                            }
+                        } else {
+                            EntityCatalog.getInstance().invalidate(dependency.toString());
+                        }
+                    }
+                    if (converter instanceof Type2TextConverter) {
+                        ((Type2TextConverter) converter).reloadEntities();
+                    }
+                    // 所有规格文件都可能引用变化的实体或变量
+                    blockCaches.clear();
+                    batch.run(specRoot.toString(), outputDir, fileConverter);
+                } else {
+                    for (Path spec : changedSpecs) {
+                        Path output = BatchConverter.outputPathFor(specRoot, spec, outputDir);
+                        Files.createDirectories(output.getParent());
+                        try {
+                            fileConverter.convert(spec, output);
+                        } catch (IOException | RuntimeException e) {
+                            logger.error("Failed to convert {}", spec, e);
+                        }
+                    }
+                }
+                logger.info("Reconverted after change in {} ms", (System.nanoTime() - start) / 1_000_000);
+            });
+        }
+    }
+
+    /**
+     * 规格文件或目录被删除（或移出）时，删除对应的输出文件和块缓存
+     */
+    private static void removeOutputs(Path specRoot, Path removed, Path outputDir,
+            Map<Path, Map<String, String>> blockCaches) throws IOException {
+        blockCaches.keySet().removeIf(spec -> spec.startsWith(removed));
+        if (removed.getFileName().toString().endsWith(".txt")) {
+            Path output = outputPath(BatchConverter.outputPathFor(specRoot, removed, outputDir));
+            if (Files.deleteIfExists(output)) {
+                logger.info("Spec removed: {}, deleted {}", removed, output);
+            } else {
+                logger.info("Spec removed: {}", removed);
+            }
+        } else {
+            // 不确定输出目录中的文件都是由这个目录生成的，保留
+            logger.warn("Spec directory removed: {}, generated files under {} are kept", removed,
+                outputDir.resolve(specRoot.relativize(removed)));
+        }
+    }
+
+    /**
+     * 根据配置创建并初始化 Type1/Type2 转换器
+     */
+    private static TextConverter createConverter(ConverterConfig config) {
+        TextConverter converter = ConverterFactory.getConverter(config.getConverterType());
+        if (converter instanceof Type2TextConverter) {
+            Type2TextConverter type2Converter = (Type2TextConverter) converter;
+            type2Converter.setEntityFiles(config.getEntityFiles());
+            type2Converter.setEntityInstances(config.getEntityInstances());
+            type2Converter.setEnableLogicConversion(config.isEnableLogicConversion());
+            type2Converter.setDefineFile(config.getDefineFile());
+        } else if (converter instanceof Type1TextConverter) {
+            Type1TextConverter type1Converter = (Type1TextConverter) converter;
+            type1Converter.setEntityFiles(config.getEntityFiles());
+            type1Converter.setEntityInstances(config.getEntityInstances());
+        }
+        return converter;
+    }
+
+    private static void buildCatalog(List<String> params) throws IOException {
+        if (params.size() < 2 || !"build".equals(params.get(1))) {
+            logger.error("Usage: catalog build [type1|type2]");
+            return;
+        }
+        String converterType = params.size() > 2 ? params.get(2) : "type1";
+        ConverterConfig config = new ConverterConfig(converterType);
+        if (config.getCatalogFile() == null) {
+            logger.error("catalogFile is not configured for {}", converterType);
+            return;
+        }
+        
+        EntityCatalog catalog = EntityCatalog.getInstance();
+        catalog.loadAll(config.getEntityFiles(), Runtime.getRuntime().availableProcessors());
+        catalog.saveSnapshot(config.getCatalogFile());
+        logger.info("Entity catalog snapshot written: {}", config.getCatalogFile());
+    }
+
+    private static void loadCatalogSnapshot(ConverterConfig config) {
+        String catalogFile = config.getCatalogFile();
+        if (catalogFile == null || !new File(catalogFile).exists()) {
+            return;
+        }
+        try {
+            EntityCatalog.getInstance().loadSnapshot(catalogFile);
+        } catch (IOException | RuntimeException e) {
+            logger.warn("Failed to load entity catalog snapshot {}, parsing entity files instead", catalogFile, e);
+        }
+    }
+
+    private static void processType3(ConverterConfig config, boolean streaming) {
         logger.info("Processing Type3 conversion");
         try {
-            Type3TextConverter converter = new Type3TextConverter();
-            List<String> generatedCode = converter.convertExcelFile(config.getType3().getInputFile());
-            
-            // 创建输出目录
-            File outputFile = new File("output/GeneratedCode3.java");
-            outputFile.getParentFile().mkdirs();
+            Type3TextConverter converter = createType3Converter(config);
+            // --stream 或配置 streaming: true 时使用 SAX 流式读取，内存占用与行数无关
+            converter.setStreaming(streaming || config.getType3().isStreaming());
             
             // 写入生成的代码
-            try (PrintWriter writer = new PrintWriter(
-                new OutputStreamWriter(
-                    new FileOutputStream(outputFile), "UTF-8"))) {
-                
-                // 写入文件头注释
-                writer.println("/**");
-                writer.println(" * Generated code from " + config.getType3().getInputFile());
-                writer.println(" */");
-                writer.println();
+            Path outputFile = outputPath(Paths.get("output/GeneratedCode3.java"));
+            try (GeneratedCodeWriter writer = openOutput(outputFile)) {
+                writeHeader(writer, config.getType3().getInputFile());
                 
-                for (String code : generatedCode) {
-                    writer.println(code);
-                }
+                // 每个数组的代码生成后直接写出
+                converter.convertExcelFile(config.getType3().getInputFile(), writer.lines());
+                writer.commit();
             }
             
-            logger.info("Type3 code generation completed. Output file: {}", outputFile.getPath());
-        } catch (IOException e) {
+            logger.info("Type3 code generation completed. Output file: {}", outputFile);
+        } catch (IOException | UncheckedIOException e) {
             logger.error("Error in Type3 processing", e);
         }
     }
 
+    private static Type3TextConverter createType3Converter(ConverterConfig config) {
+        Type3TextConverter converter = new Type3TextConverter();
+        config.getType3().getColumns().forEach(converter::setColumns);
+        // 不可变数组生成为 static final，每个实例不再各自创建
+        converter.setSharedConstants(config.getType3().isSharedConstants());
+        // 大数组按元素数分块初始化或外部化到资源文件，避免超过方法 64KB 的上限
+        converter.setChunkThreshold(config.getType3().getChunkThreshold());
+        converter.setExternalThreshold(config.getType3().getExternalThreshold(),
+            Paths.get(config.getType3().getResourceDir()));
+        return converter;
+    }
+
+    /**
+     * 一次读取同时生成 Type3 的数组和 Type4 的变量声明：输入文件默认为 type3.inputFile，
+     * 转换选项使用 type3 的配置，输出与单独转换时相同（GeneratedCode3.java 和 GeneratedCode4.java）
+     */
+    private static void processType34(List<String> params) {
+        logger.info("Processing combined Type3/Type4 conversion");
+        ConverterConfig config = new ConverterConfig("type3");
+        String inputFile = params.size() > 1 ? params.get(1) : config.getType3().getInputFile();
+        Path arrayOutput = outputPath(Paths.get("output/GeneratedCode3.java"));
+        Path scalarOutput = outputPath(Paths.get("output/GeneratedCode4.java"));
+        try (GeneratedCodeWriter arrayWriter = openOutput(arrayOutput);
+             GeneratedCodeWriter scalarWriter = openOutput(scalarOutput)) {
+            writeHeader(arrayWriter, inputFile);
+            writeHeader(scalarWriter, inputFile);
+            
+            new Type34Converter(createType3Converter(config), new Type4TextConverter())
+                .convert(inputFile, arrayWriter.lines(), scalarWriter.lines());
+            arrayWriter.commit();
+            scalarWriter.commit();
+            
+            logger.info("Type3/Type4 code generation completed. Output files: {}, {}", arrayOutput, scalarOutput);
+        } catch (IOException | UncheckedIOException e) {
+            logger.error("Error in combined Type3/Type4 processing", e);
+        }
+    }
+
     private static void processType4(ConverterConfig config) {
         logger.info("Processing Type4 conversion");
         try {
             Type4TextConverter converter = new Type4TextConverter();
+            config.getType4().getColumns().forEach(converter::setColumns);
             List<String> generatedCode = converter.convertExcelFile(config.getType4().getInputFile());
             
-            // 创建输出目录
-            File outputFile = new File("output/GeneratedCode4.java");
-            outputFile.getParentFile().mkdirs();
-            
             // 写入生成的代码
-            try (PrintWriter writer = new PrintWriter(
-                new OutputStreamWriter(
-                    new FileOutputStream(outputFile), "UTF-8"))) {
-                
-                // 写入文件头注释
-                writer.println("/**");
-                writer.println(" * Generated code from " + config.getType4().getInputFile());
-                writer.println(" */");
-                writer.println();
+            Path outputFile = outputPath(Paths.get("output/GeneratedCode4.java"));
+            try (GeneratedCodeWriter writer = openOutput(outputFile)) {
+                writeHeader(writer, config.getType4().getInputFile());
                 
                 for (String code : generatedCode) {
                     writer.println(code);
                 }
+                writer.commit();
             }
             
-            logger.info("Type4 code generation completed. Output file: {}", outputFile.getPath());
+            logger.info("Type4 code generation completed. Output file: {}", outputFile);
         } catch (IOException e) {
             logger.error("Error in Type4 processing", e);
         }
     }
 
-    private static void processType1And2(TextConverter converter, ConverterConfig config) throws IOException {
-        // 读取输入文本
-        List<String> inputLines = readFile(config.getInputFile());
+    /**
+     * 转换目录下所有工作簿和 CSV/TSV 文件（或一个文件）的所有工作表
+     * 工作表之间并行转换（默认并行度为 CPU 数），按工作簿路径、工作表顺序输出：
+     * 每个工作簿一个文件（outputMode: workbook），或每个工作表一个文件（outputMode: sheet，
+     * 放在以工作簿命名的目录下）
+     */
+    private static void processType4Workbooks(ConverterConfig config, String inputPath, String outputRoot,
+            int parallelism) throws IOException {
+        Path input = Paths.get(inputPath);
+        Path baseDir = Files.isDirectory(input) ? input : input.toAbsolutePath().getParent();
+        List<File> workbooks = new ArrayList<>();
+        if (Files.isDirectory(input)) {
+            try (Stream<Path> paths = Files.walk(input)) {
+                paths.filter(Files::isRegularFile)
+                    .filter(path -> RowSource.isSupported(path.toFile()))
+                    // Excel 打开文件时产生的锁文件
+                    .filter(path -> !path.getFileName().toString().startsWith("~$"))
+                    .sorted()
+                    .forEach(path -> workbooks.add(path.toFile()));
+            }
+        } else {
+            workbooks.add(input.toAbsolutePath().toFile());
+        }
+        Path root = Paths.get(outputRoot != null ? outputRoot : config.getType4().getOutputRoot());
+        boolean perSheet = config.getType4().isPerSheet();
+        int workers = parallelism > 1 ? parallelism : Runtime.getRuntime().availableProcessors();
+        logger.info("Processing Type4 conversion of {} workbooks from {} into {} (per {})",
+            workbooks.size(), inputPath, root, perSheet ? "sheet" : "workbook");
         
-        // 创建输出目录
-        new File(config.getOutputFile()).getParentFile().mkdirs();
+        Type4TextConverter converter = new Type4TextConverter();
+        config.getType4().getColumns().forEach(converter::setColumns);
+        
+        // 按工作簿输出时，结果按顺序到达，同一工作簿的工作表写入同一个文件
+        GeneratedCodeWriter[] current = new GeneratedCodeWriter[1];
+        File[] currentWorkbook = new File[1];
+        int failed;
+        try {
+            failed = converter.convertWorkbooks(workbooks, workers, result -> {
+                Path workbookOutput = BatchConverter.outputPathFor(baseDir, result.getWorkbook().toPath(), root);
+                if (perSheet) {
+                    String dirName = workbookOutput.getFileName().toString().replaceFirst("\\.java$", "");
+                    Path sheetOutput = workbookOutput.resolveSibling(dirName)
+                        .resolve(result.getSheetName().replaceAll("[\\\\/:*?\"<>|]", "_") + ".java");
+                    try (GeneratedCodeWriter writer = openOutput(outputPath(sheetOutput))) {
+                        writeHeader(writer, result.getWorkbook() + " [" + result.getSheetName() + "]");
+                        for (String code : result.getCode()) {
+                            writer.println(code);
+                        }
+                        writer.commit();
+                    }
+                    return;
+                }
+                if (!result.getWorkbook().equals(currentWorkbook[0])) {
+                    if (current[0] != null) {
+                        current[0].commit();
+                    }
+                    current[0] = openOutput(outputPath(workbookOutput));
+                    currentWorkbook[0] = result.getWorkbook();
+                    writeHeader(current[0], result.getWorkbook().getPath());
+                }
+                current[0].println("    // Sheet: " + result.getSheetName());
+                for (String code : result.getCode()) {
+                    current[0].println(code);
+                }
+            });
+            if (current[0] != null) {
+                current[0].commit();
+            }
+        } finally {
+            // 出错时没有 commit 的输出被丢弃
+            if (current[0] != null) {
+                current[0].close();
+            }
+        }
+        logger.info("Type4 code generation completed. Output root: {} ({} failed)", root, failed);
+    }
+
+    /**
+     * 打开输出文件（父目录不存在时创建），--gzip 时压缩输出
+     */
+    private static GeneratedCodeWriter openOutput(Path outputFile) throws IOException {
+        return GeneratedCodeWriter.open(outputFile, compressOutput);
+    }
+
+    /**
+     * --gzip 时输出文件名加上 .gz
+     */
+    private static Path outputPath(Path outputFile) {
+        return compressOutput ? outputFile.resolveSibling(outputFile.getFileName() + ".gz") : outputFile;
+    }
+
+    static void processType1And2(ConverterConfig config, TextConverter converter, String inputFile,
+            String outputFile, int parallelism) throws IOException {
+        // 读取输入文本
+        List<String> inputLines = readFile(inputFile);
         
         // 写入生成的代码
-        try (PrintWriter writer = new PrintWriter(
-            new OutputStreamWriter(
-                new FileOutputStream(config.getOutputFile()), "UTF-8"))) {
+        Path outputPath = outputPath(Paths.get(outputFile));
+        try (GeneratedCodeWriter writer = openOutput(outputPath)) {
             
-            // 写入文件头注释
-            writer.println("/**");
-            writer.println(" * Generated code from " + config.getInputFile());
-            writer.println(" */");
-            writer.println();
+            writeHeader(writer, inputFile);
+            // outputMode: methods 时代码经过 splitter 分割到多个方法
+            MethodSplitter splitter = newMethodSplitter(config, writer, outputPath);
+            OrderedParallelConverter.ResultWriter out = splitter != null ? splitter::add : writer::println;
 
-            if (converter instanceof Type2TextConverter) {
-                List<String> results = ((Type2TextConverter) converter).convertFile(inputLines);
-                for (String code : results) {
-                    writer.println(code);
-                }
+            if (converter instanceof Type2TextConverter && parallelism > 1) {
+                // Type2 按条件块并行转换，结果按源顺序写出
+                Type2TextConverter type2Converter = (Type2TextConverter) converter;
+                new OrderedParallelConverter(parallelism).convert(
+                    Type2TextConverter.splitBlocks(inputLines.iterator()),
+                    type2Converter::convertBlock, out);
+            } else if (converter instanceof Type2TextConverter) {
+                // 每个条件块结束时直接写出
+                ((Type2TextConverter) converter).convertFile(inputLines, lines(out));
+            } else if (parallelism > 1) {
+                // Type1 并行转换，结果按输入顺序写出，与顺序转换的输出完全一致
+                new OrderedParallelConverter(parallelism).convert(inputLines.iterator(),
+                    line -> converter.convertLine(line, null),
+                    code -> writeType1Code(out, code));
             } else {
                 // Type1 转换器处理
                 for (String line : inputLines) {
                     String code = converter.convertLine(line, null);
                     if (code != null) {
-                        writer.println(code);
-                        if (!code.startsWith("//TODO:")) {
-                            writer.println();
-                        }
+                        writeType1Code(out, code);
                     }
                 }
             }
+            if (splitter != null) {
+                splitter.finish();
+            }
+            writer.commit();
+        }
+        
+        logger.info("Code generation completed. Output file: {}", outputPath);
+    }
+
+    /**
+     * 增量转换一个 Type2 文件，内容没有变化的块复用 blockCache 中上次的结果
+     * @return 块数和复用的块数
+     */
+    private static Type2TextConverter.IncrementalResult processType2Incremental(ConverterConfig config, Type2TextConverter converter,
+            String inputFile, String outputFile, Map<String, String> blockCache) throws IOException {
+        List<String> inputLines = readFile(inputFile);
+        Type2TextConverter.IncrementalResult result;
+        Path outputPath = outputPath(Paths.get(outputFile));
+        try (GeneratedCodeWriter writer = openOutput(outputPath)) {
+            writeHeader(writer, inputFile);
+            MethodSplitter splitter = newMethodSplitter(config, writer, outputPath);
+            OrderedParallelConverter.ResultWriter out = splitter != null ? splitter::add : writer::println;
+            result = converter.convertIncrementally(inputLines, blockCache, lines(out));
+            if (splitter != null) {
+                splitter.finish();
+            }
+            writer.commit();
+        }
+        return result;
+    }
+
+    /**
+     * 流式处理 Type1 和 Type2：不把整个输入读入内存，边读边转换边写出
+     */
+    static void processStreaming(ConverterConfig config, TextConverter converter, String inputFile,
+            String outputFile, int parallelism) throws IOException {
+        Path outputPath = outputPath(Paths.get(outputFile));
+        try (BufferedReader reader = new BufferedReader(
+                new InputStreamReader(new FileInputStream(inputFile), "UTF-8"));
+             GeneratedCodeWriter writer = openOutput(outputPath)) {
+            
+            writeHeader(writer, inputFile);
+            // outputMode: methods 时代码经过 splitter 分割到多个方法
+            MethodSplitter splitter = newMethodSplitter(config, writer, outputPath);
+            OrderedParallelConverter.ResultWriter out = splitter != null ? splitter::add : writer::println;
+
+            if (converter instanceof Type2TextConverter && parallelism > 1) {
+                // 边读边切分条件块并行转换，在途块数有上限
+                Type2TextConverter type2Converter = (Type2TextConverter) converter;
+                new OrderedParallelConverter(parallelism).convert(
+                    Type2TextConverter.splitBlocks(new LogicalLineReader(reader)),
+                    type2Converter::convertBlock, out);
+            } else if (converter instanceof Type2TextConverter) {
+                new StreamingPipeline().run(reader,
+                    ((Type2TextConverter) converter).newStreamingStage(),
+                    out::write);
+            } else if (parallelism > 1) {
+                // 逻辑行边读边分块提交，在途块数有上限
+                new OrderedParallelConverter(parallelism).convert(new LogicalLineReader(reader),
+                    line -> converter.convertLine(line, null),
+                    code -> writeType1Code(out, code));
+            } else {
+                new StreamingPipeline().run(reader, (line, stageOut) -> {
+                    String code = converter.convertLine(line, null);
+                    if (code != null) {
+                        stageOut.accept(code);
+                    }
+                }, code -> writeType1Code(out, code));
+            }
+            if (splitter != null) {
+                splitter.finish();
+            }
+            writer.commit();
         }
         
-        logger.info("Code generation completed. Output file: {}", config.getOutputFile());
+        logger.info("Streaming code generation completed. Output file: {}", outputPath);
+    }
+
+    /**
+     * 写入文件头注释
+     */
+    private static void writeHeader(GeneratedCodeWriter writer, String inputFile) throws IOException {
+        writer.println("/**");
+        writer.println(" * Generated code from " + inputFile);
+        writer.println(" */");
+        writer.println();
+    }
+
+    private static void writeType1Code(OrderedParallelConverter.ResultWriter out, String code) throws IOException {
+        out.write(code);
+        if (!code.startsWith("//TODO:")) {
+            out.write("");
+        }
     }
 
+    /**
+     * outputMode: methods 时写出类的开始并返回 splitter，类名取自输出文件名；否则返回 null
+     */
+    private static MethodSplitter newMethodSplitter(ConverterConfig config, GeneratedCodeWriter writer,
+            Path outputPath) throws IOException {
+        if (!config.isSplitMethods()) {
+            return null;
+        }
+        String className = outputPath.getFileName().toString().replaceFirst("(\\.java)?(\\.gz)?$", "")
+            .replaceAll("[^\\p{javaJavaIdentifierPart}]", "_");
+        if (className.isEmpty() || !Character.isJavaIdentifierStart(className.charAt(0))) {
+            className = "_" + className;
+        }
+        return new MethodSplitter(writer, className, config.getMethodName(), config.getMaxMethodBytes());
+    }
+
+    /**
+     * 作为 Consumer 使用的输出，I/O 错误包装为 UncheckedIOException
+     */
+    private static Consumer<String> lines(OrderedParallelConverter.ResultWriter out) {
+        return code -> {
+            try {
+                out.write(code);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        };
+    }
+
+    /**
+     * 读取输入文件的逻辑行，与流式处理相同：引号内跨行的单元格拼接为一行
+     */
     private static List<String> readFile(String filename) throws IOException {
         List<String> lines = new ArrayList<>();
-        try (BufferedReader reader = new BufferedReader(
-            new InputStreamReader(new FileInputStream(filename), "UTF-8"))) {
+        try (LogicalLineReader reader = new LogicalLineReader(new BufferedReader(
+            new InputStreamReader(new FileInputStream(filename), "UTF-8")))) {
             String line;
             while ((line = reader.readLine()) != null) {
                 lines.add(line);
@@ -1,5 +1,6 @@
 package com.example.config;
 
+import com.example.model.ColumnLayout;
 import org.yaml.snakeyaml.Yaml;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -26,6 +27,11 @@ public class ConverterConfig {
     private final String baseDir;
     private boolean enableLogicConversion;  // 添加这行
     private String defineFile;  // 添加字段
+    private String catalogFile;  // 实体目录快照文件
+    private String outputRoot;   // 批量转换的输出根目录
+    private boolean splitMethods;  // outputMode: methods 时生成类，代码按字节码大小分割到多个方法
+    private String methodName;     // 分割模式下按顺序调用各个方法的入口方法名
+    private int maxMethodBytes;    // 分割模式下每个方法的字节码大小上限（估算值）
     private Type3Config type3;  // 添加 type3 配置
     private Type4Config type4;  // 添加 type4 配置
 
@@ -69,12 +75,29 @@ public class ConverterConfig {
                 // Type3 配置加载
                 this.type3 = new Type3Config();
                 this.type3.setInputFile(resolvePath((String) converterConfig.get("inputFile")));
+                Object streaming = converterConfig.get("streaming");
+                this.type3.setStreaming(streaming != null && (Boolean) streaming);
+                Object sharedConstants = converterConfig.get("sharedConstants");
+                this.type3.setSharedConstants(sharedConstants != null && (Boolean) sharedConstants);
+                Object chunkThreshold = converterConfig.get("chunkThreshold");
+                this.type3.setChunkThreshold(chunkThreshold != null ? (Integer) chunkThreshold : 0);
+                Object externalThreshold = converterConfig.get("externalThreshold");
+                this.type3.setExternalThreshold(externalThreshold != null ? (Integer) externalThreshold : 0);
+                String resourceDir = (String) converterConfig.get("resourceDir");
+                this.type3.setResourceDir(resolvePath(resourceDir != null ? resourceDir : "output/resources"));
+                this.type3.setColumns(loadColumns(converterConfig));
                 logger.info("Loaded Type3 config with input file: {}", this.type3.getInputFile());
                 return;
             } else if ("type4".equals(converterType)) {
                 // Type4 配置加载
                 this.type4 = new Type4Config();
                 this.type4.setInputFile(resolvePath((String) converterConfig.get("inputFile")));
+                this.type4.setInputDir(resolvePath((String) converterConfig.get("inputDir")));
+                String type4OutputRoot = (String) converterConfig.get("outputRoot");
+                this.type4.setOutputRoot(resolvePath(type4OutputRoot != null ? type4OutputRoot : "output/type4"));
+                String outputMode = (String) converterConfig.get("outputMode");
+                this.type4.setPerSheet("sheet".equalsIgnoreCase(outputMode));
+                this.type4.setColumns(loadColumns(converterConfig));
                 logger.info("Loaded Type4 config with input file: {}", this.type4.getInputFile());
                 return;
             }
@@ -112,6 +135,20 @@ public class ConverterConfig {
             // 加载 defineFile 配置
             this.defineFile = resolvePath((String) converterConfig.get("defineFile"));
             
+            // 加载实体目录快照配置（可选）
+            this.catalogFile = resolvePath((String) converterConfig.get("catalogFile"));
+            
+            // 加载批量转换的输出根目录（可选，默认为 output）
+            String configuredOutputRoot = (String) converterConfig.get("outputRoot");
+            this.outputRoot = resolvePath(configuredOutputRoot != null ? configuredOutputRoot : "output");
+            
+            // 加载方法分割模式（可选，默认 8000 字节，即 HotSpot 的 HugeMethodLimit）
+            this.splitMethods = "methods".equalsIgnoreCase((String) converterConfig.get("outputMode"));
+            String configuredMethodName = (String) converterConfig.get("methodName");
+            this.methodName = configuredMethodName != null ? configuredMethodName : "execute";
+            Object configuredMaxMethodBytes = converterConfig.get("maxMethodBytes");
+            this.maxMethodBytes = configuredMaxMethodBytes != null ? (Integer) configuredMaxMethodBytes : 8000;
+            
             logger.info("Configuration loaded successfully for {}", converterType);
         } catch (IOException e) {
             throw new RuntimeException("Failed to load config file", e);
@@ -126,6 +163,21 @@ public class ConverterConfig {
         }
     }
 
+    /**
+     * 按格式配置的列号，如 columns: {tsv: {varName: 0, defaultValue: 3}}，未指定的列使用默认值
+     */
+    @SuppressWarnings("unchecked")
+    private Map<String, ColumnLayout> loadColumns(Map<String, Object> converterConfig) {
+        Map<String, ColumnLayout> columns = new HashMap<>();
+        Map<String, Map<String, Integer>> configured = (Map<String, Map<String, Integer>>) converterConfig.get("columns");
+        if (configured != null) {
+            for (Map.Entry<String, Map<String, Integer>> entry : configured.entrySet()) {
+                columns.put(entry.getKey().toLowerCase(), ColumnLayout.of(entry.getValue()));
+            }
+        }
+        return columns;
+    }
+
     private String resolvePath(String path) {
         if (path == null) return null;
         return Paths.get(path).isAbsolute() ? path : 
@@ -143,6 +195,24 @@ public class ConverterConfig {
     public String getDefineFile() {
         return defineFile;
     }
+    public String getCatalogFile() {
+        return catalogFile;
+    }
+    public String getOutputRoot() {
+        return outputRoot;
+    }
+    public void setOutputRoot(String outputRoot) {
+        this.outputRoot = resolvePath(outputRoot);
+    }
+    public boolean isSplitMethods() {
+        return splitMethods;
+    }
+    public String getMethodName() {
+        return methodName;
+    }
+    public int getMaxMethodBytes() {
+        return maxMethodBytes;
+    }
 
     public Type3Config getType3() {
         return type3;
@@ -163,6 +233,12 @@ public class ConverterConfig {
     // 添加内部类
     public static class Type3Config {
         private String inputFile;
+        private boolean streaming;  // 使用 SAX 流式读取 Excel
+        private boolean sharedConstants;  // 不可变数组生成为 static final，所有实例共用
+        private int chunkThreshold;     // 超过该元素数的数组分块初始化，0 表示不分块
+        private int externalThreshold;  // 超过该元素数的数组写到资源文件，0 表示不外部化
+        private String resourceDir;     // 外部化数组的资源文件目录
+        private Map<String, ColumnLayout> columns = new HashMap<>();  // 按格式（xlsx、csv、tsv）的列号
 
         public String getInputFile() {
             return inputFile;
@@ -171,10 +247,62 @@ public class ConverterConfig {
         public void setInputFile(String inputFile) {
             this.inputFile = inputFile;
         }
+
+        public boolean isStreaming() {
+            return streaming;
+        }
+
+        public void setStreaming(boolean streaming) {
+            this.streaming = streaming;
+        }
+
+        public boolean isSharedConstants() {
+            return sharedConstants;
+        }
+
+        public void setSharedConstants(boolean sharedConstants) {
+            this.sharedConstants = sharedConstants;
+        }
+
+        public int getChunkThreshold() {
+            return chunkThreshold;
+        }
+
+        public void setChunkThreshold(int chunkThreshold) {
+            this.chunkThreshold = chunkThreshold;
+        }
+
+        public int getExternalThreshold() {
+            return externalThreshold;
+        }
+
+        public void setExternalThreshold(int externalThreshold) {
+            this.externalThreshold = externalThreshold;
+        }
+
+        public String getResourceDir() {
+            return resourceDir;
+        }
+
+        public void setResourceDir(String resourceDir) {
+            this.resourceDir = resourceDir;
+        }
+
+        public Map<String, ColumnLayout> getColumns() {
+            return columns;
+        }
+
+        public void setColumns(Map<String, ColumnLayout> columns) {
+            this.columns = columns;
+        }
     }
 
     public static class Type4Config {
         private String inputFile;
+        private String inputDir;    // 工作簿目录，设置后转换目录下所有工作簿的所有工作表
+        private String outputRoot;  // 目录模式的输出根目录
+        private boolean perSheet;   // outputMode: sheet 时每个工作表输出一个文件，否则每个工作簿一个文件
+        private Map<String, ColumnLayout> columns = new HashMap<>();  // 按格式（xlsx、csv、tsv）的列号
 
         public String getInputFile() {
             return inputFile;
@@ -183,5 +311,37 @@ public class ConverterConfig {
         public void setInputFile(String inputFile) {
             this.inputFile = inputFile;
         }
+
+        public String getInputDir() {
+            return inputDir;
+        }
+
+        public void setInputDir(String inputDir) {
+            this.inputDir = inputDir;
+        }
+
+        public String getOutputRoot() {
+            return outputRoot;
+        }
+
+        public void setOutputRoot(String outputRoot) {
+            this.outputRoot = outputRoot;
+        }
+
+        public boolean isPerSheet() {
+            return perSheet;
+        }
+
+        public void setPerSheet(boolean perSheet) {
+            this.perSheet = perSheet;
+        }
+
+        public Map<String, ColumnLayout> getColumns() {
+            return columns;
+        }
+
+        public void setColumns(Map<String, ColumnLayout> columns) {
+            this.columns = columns;
+        }
     }
 } 
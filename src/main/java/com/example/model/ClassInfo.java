@@ -1,16 +1,25 @@
 package com.example.model;
 
 import com.example.util.StringCompareUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 public class ClassInfo {
+    private static final Logger logger = LoggerFactory.getLogger(ClassInfo.class);
     private String className;
     private String classComment;
     private List<FieldInfo> fields;
+    private Map<String, FieldInfo> commentIndex;  // 标准化注释 -> 字段
+    private boolean frozen;  // 冻结后不可再修改，可在多个转换器/线程间共享
 
     public ClassInfo() {
         this.fields = new ArrayList<>();
+        this.commentIndex = new HashMap<>();
     }
 
     public String getClassName() {
@@ -18,6 +27,7 @@ public class ClassInfo {
     }
 
     public void setClassName(String className) {
+        checkNotFrozen();
         this.className = className;
     }
 
@@ -26,6 +36,7 @@ public class ClassInfo {
     }
 
     public void setClassComment(String classComment) {
+        checkNotFrozen();
         this.classComment = classComment;
     }
 
@@ -34,14 +45,48 @@ public class ClassInfo {
     }
 
     public void addField(FieldInfo field) {
+        checkNotFrozen();
         this.fields.add(field);
+        String key = field.getNormalizedComment();
+        if (key == null) {
+            return;
+        }
+        // 注释重复时保留先添加的字段，与按顺序查找第一个匹配的行为一致
+        FieldInfo existing = commentIndex.putIfAbsent(key, field);
+        if (existing != null) {
+            logger.warn("Duplicate field comment in {}: [{}] used by {} and {}, keeping {}",
+                className, field.getFieldComment(), existing.getTableFieldName(),
+                field.getTableFieldName(), existing.getTableFieldName());
+        }
+    }
+
+    /**
+     * 冻结当前实例及其所有字段，之后的任何修改都会抛出 IllegalStateException
+     * @return 当前实例
+     */
+    public ClassInfo freeze() {
+        if (!frozen) {
+            for (FieldInfo field : fields) {
+                field.freeze();
+            }
+            this.fields = Collections.unmodifiableList(fields);
+            this.frozen = true;
+        }
+        return this;
+    }
+
+    public boolean isFrozen() {
+        return frozen;
+    }
+
+    private void checkNotFrozen() {
+        if (frozen) {
+            throw new IllegalStateException("ClassInfo is frozen: " + className);
+        }
     }
 
     public FieldInfo findFieldByComment(String comment) {
-        return fields.stream()
-            .filter(field -> StringCompareUtil.compareJapaneseString(
-                field.getFieldComment(), comment))
-            .findFirst()
-            .orElse(null);
+        String key = StringCompareUtil.normalizeJapaneseString(comment);
+        return key == null ? null : commentIndex.get(key);
     }
 } 
\ No newline at end of file
@@ -0,0 +1,49 @@
+package com.example.model;
+
+import java.util.Map;
+
+/**
+ * Type3/Type4 定义表的列号（从 0 开始）
+ * 默认值与 Excel 定义表相同，导出的 CSV/TSV 列顺序不同时可以按格式分别配置。
+ * Type4 只使用变量名、注释、数据类型三列。
+ */
+public class ColumnLayout {
+    private int varName = 0;        // 变量名列
+    private int comment = 1;        // 注释列
+    private int type = 2;           // 数据类型列
+    private int arrayLength = 5;    // 数组长度列
+    private int defaultValue = 7;   // 默认值列
+    private int mutable = 8;        // 可变标记列
+
+    /**
+     * 默认列号，map 中指定的列覆盖默认值（键为 varName、comment、type、arrayLength、defaultValue、mutable）
+     */
+    public static ColumnLayout of(Map<String, Integer> columns) {
+        ColumnLayout layout = new ColumnLayout();
+        if (columns == null) {
+            return layout;
+        }
+        layout.varName = columns.getOrDefault("varName", layout.varName);
+        layout.comment = columns.getOrDefault("comment", layout.comment);
+        layout.type = columns.getOrDefault("type", layout.type);
+        layout.arrayLength = columns.getOrDefault("arrayLength", layout.arrayLength);
+        layout.defaultValue = columns.getOrDefault("defaultValue", layout.defaultValue);
+        layout.mutable = columns.getOrDefault("mutable", layout.mutable);
+        return layout;
+    }
+
+    public int getVarName() { return varName; }
+    public int getComment() { return comment; }
+    public int getType() { return type; }
+    public int getArrayLength() { return arrayLength; }
+    public int getDefaultValue() { return defaultValue; }
+    public int getMutable() { return mutable; }
+
+    /**
+     * 最大的列号，读取行时只需要这些列
+     */
+    public int getMaxColumn() {
+        return Math.max(Math.max(Math.max(varName, comment), Math.max(type, arrayLength)),
+            Math.max(defaultValue, mutable));
+    }
+}
@@ -0,0 +1,80 @@
+package com.example.model;
+
+/**
+ * 定义表中分类后的一行
+ * 同一个工作表中可以同时有标量变量和数组：有变量名、没有数组长度的行是标量（Type4），
+ * 有变量名和数组长度的行是数组的开始（Type3），只有默认值列有值的行是上一个数组的默认值续行。
+ */
+public class DefinitionRow {
+
+    public enum Kind {
+        SCALAR,         // 标量变量
+        ARRAY_HEAD,     // 数组的开始
+        CONTINUATION    // 上一个数组的默认值续行
+    }
+
+    private final Kind kind;
+    private final int rowIndex;
+    private final String varName;
+    private final String comment;
+    private final String type;
+    private final String defaultValues;
+    private final String mutable;
+
+    private DefinitionRow(Kind kind, int rowIndex, String varName, String comment, String type,
+                          String defaultValues, String mutable) {
+        this.kind = kind;
+        this.rowIndex = rowIndex;
+        this.varName = varName;
+        this.comment = comment;
+        this.type = type;
+        this.defaultValues = defaultValues;
+        this.mutable = mutable;
+    }
+
+    /**
+     * 按列号读取并分类一行
+     * @return 分类后的行，空行、没有变量名也不是续行的行返回 null
+     */
+    public static DefinitionRow parse(String[] cells, int rowIndex, ColumnLayout columns) {
+        String varName = cell(cells, columns.getVarName());
+        String comment = cell(cells, columns.getComment());
+        String type = cell(cells, columns.getType());
+        String arrayLength = cell(cells, columns.getArrayLength());
+        String defaultValues = cell(cells, columns.getDefaultValue());
+        String mutable = cell(cells, columns.getMutable());
+
+        if (!isBlank(varName)) {
+            Kind kind = isBlank(arrayLength) ? Kind.SCALAR : Kind.ARRAY_HEAD;
+            return new DefinitionRow(kind, rowIndex, varName, comment, type, defaultValues, mutable);
+        }
+        // 除了默认值列以外的列都为空
+        if (varName == null && comment == null && type == null && arrayLength == null && !isBlank(defaultValues)) {
+            return new DefinitionRow(Kind.CONTINUATION, rowIndex, null, null, null, defaultValues, null);
+        }
+        return null;
+    }
+
+    private static String cell(String[] cells, int col) {
+        return col < cells.length ? cells[col] : null;
+    }
+
+    private static boolean isBlank(String value) {
+        return value == null || value.trim().isEmpty();
+    }
+
+    public Kind getKind() { return kind; }
+    public int getRowIndex() { return rowIndex; }
+    public String getVarName() { return varName; }
+    public String getComment() { return comment; }
+    public String getType() { return type; }
+    public String getDefaultValues() { return defaultValues; }
+    public String getMutable() { return mutable; }
+
+    /**
+     * 默认值列按空白分隔的值
+     */
+    public String[] splitDefaultValues() {
+        return isBlank(defaultValues) ? new String[0] : defaultValues.trim().split("\\s+");
+    }
+}
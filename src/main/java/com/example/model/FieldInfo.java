@@ -1,21 +1,40 @@
 package com.example.model;
 
+import com.example.util.StringCompareUtil;
+
 public class FieldInfo {
     private String tableFieldName;  // 表字段名 test_field_9
     private String fieldName;       // Java字段名 testField9
     private String fieldComment;    // 字段注释 常務コード
+    private String normalizedComment; // 标准化后的注释，用于按注释查找字段
     private String setMethod;       // setter方法名 setTestField9
     private String getMethod;       // getter方法名 getTestField9
     private String fieldType;       // 字段类型 String, Integer等
+    private boolean frozen;         // 冻结后不可再修改
 
     public FieldInfo(String tableFieldName, String fieldComment) {
         this.tableFieldName = tableFieldName;
         this.fieldComment = fieldComment;
+        this.normalizedComment = StringCompareUtil.normalizeJapaneseString(fieldComment);
         this.fieldName = convertToFieldName(tableFieldName);
         this.setMethod = "set" + capitalize(fieldName);
         this.getMethod = "get" + capitalize(fieldName);
     }
 
+    /**
+     * 从实体目录快照恢复字段，派生的字段名、方法名和标准化注释直接使用快照中的值
+     */
+    public FieldInfo(String tableFieldName, String fieldName, String fieldComment, String normalizedComment,
+                     String setMethod, String getMethod, String fieldType) {
+        this.tableFieldName = tableFieldName;
+        this.fieldName = fieldName;
+        this.fieldComment = fieldComment;
+        this.normalizedComment = normalizedComment;
+        this.setMethod = setMethod;
+        this.getMethod = getMethod;
+        this.fieldType = fieldType;
+    }
+
     private String convertToFieldName(String tableFieldName) {
         // 将表字段名转换为驼峰命名
         StringBuilder result = new StringBuilder();
@@ -35,10 +54,18 @@ public class FieldInfo {
     public String getTableFieldName() { return tableFieldName; }
     public String getFieldName() { return fieldName; }
     public String getFieldComment() { return fieldComment; }
+    public String getNormalizedComment() { return normalizedComment; }
     public String getSetMethod() { return setMethod; }
     public String getGetMethod() { return getMethod; }
     public String getFieldType() { return fieldType; }
-    public void setFieldType(String fieldType) { this.fieldType = fieldType; }
+    public void setFieldType(String fieldType) {
+        if (frozen) {
+            throw new IllegalStateException("FieldInfo is frozen: " + tableFieldName);
+        }
+        this.fieldType = fieldType;
+    }
+
+    void freeze() { this.frozen = true; }
 
     public boolean isNumericType() {
         return fieldType != null && (
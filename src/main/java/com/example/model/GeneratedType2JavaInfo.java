@@ -44,6 +44,13 @@ public class GeneratedType2JavaInfo {
         ));
     }
 
+    /**
+     * 条件部分的代码生成方式，由 generateCode(ConditionEmitter) 在生成代码时逐个调用
+     */
+    public interface ConditionEmitter {
+        String emit(ConditionPart part);
+    }
+
     public static class Condition {
         private List<ConditionPart> parts = new ArrayList<>();
         private String logicalOperator; // "または" 或 "かつ"
@@ -56,59 +63,155 @@ public class GeneratedType2JavaInfo {
             this.logicalOperator = operator;
         }
 
+        public boolean isEmpty() {
+            return parts.isEmpty();
+        }
+
+        public boolean hasError() {
+            return parts.stream().anyMatch(ConditionPart::isError);
+        }
+
         public String generateCode() {
+            return generateCode(ConditionPart::generateCode);
+        }
+
+        public String generateCode(ConditionEmitter emitter) {
             StringBuilder code = new StringBuilder("if(");
             for (int i = 0; i < parts.size(); i++) {
                 if (i > 0) {
                     code.append(logicalOperator.equals("または") ? " || " : " && ");
                 }
-                code.append(parts.get(i).generateCode());
+                ConditionPart part = parts.get(i);
+                code.append(part.isError() ? part.generateCode() : emitter.emit(part));
             }
             code.append(")");
             return code.toString();
         }
     }
 
+    /**
+     * 比较运算的操作数，保留转换时识别出的种类，生成代码时不再需要从文本中重新解析
+     */
+    public static class Operand {
+        public enum Kind {
+            ENTITY_GETTER,    // 实体字段的 getter 调用，带字段信息
+            DEFINE_VARIABLE,  // 定义文件中的变量（D\XXXX、*INXX）
+            BLANK,            // ブランク，即 ""
+            NUMBER,           // 半角数字
+            LITERAL,          // 带引号的字符串
+            EXPRESSION        // 其他无法识别的文本，原样输出
+        }
+
+        private static final Operand BLANK_OPERAND = new Operand(Kind.BLANK, "\"\"", null, null);
+
+        private final Kind kind;
+        private final String code;
+        private final String variableName;
+        private final FieldInfo field;
+
+        private Operand(Kind kind, String code, String variableName, FieldInfo field) {
+            this.kind = kind;
+            this.code = code;
+            this.variableName = variableName;
+            this.field = field;
+        }
+
+        public static Operand entityGetter(String instanceName, FieldInfo field) {
+            return new Operand(Kind.ENTITY_GETTER, instanceName + "." + field.getGetMethod() + "()", null, field);
+        }
+
+        public static Operand defineVariable(String variableName) {
+            return new Operand(Kind.DEFINE_VARIABLE, "this." + variableName, variableName, null);
+        }
+
+        public static Operand blank() {
+            return BLANK_OPERAND;
+        }
+
+        /**
+         * 按文本内容识别数字、字符串和 "" ，其余作为表达式原样保留
+         */
+        public static Operand of(String text) {
+            if (text.equals("\"\"")) {
+                return BLANK_OPERAND;
+            }
+            if (isAsciiDigits(text)) {
+                return new Operand(Kind.NUMBER, text, null, null);
+            }
+            if (text.length() >= 2 && text.startsWith("\"") && text.endsWith("\"")) {
+                return new Operand(Kind.LITERAL, text, null, null);
+            }
+            return new Operand(Kind.EXPRESSION, text, null, null);
+        }
+
+        private static boolean isAsciiDigits(String text) {
+            if (text.isEmpty()) {
+                return false;
+            }
+            for (int i = 0; i < text.length(); i++) {
+                char c = text.charAt(i);
+                if (c < '0' || c > '9') {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        public Kind getKind() { return kind; }
+        public String getCode() { return code; }
+        public String getVariableName() { return variableName; }
+        public FieldInfo getField() { return field; }
+
+        @Override
+        public String toString() {
+            return code;
+        }
+    }
+
     public static class ConditionPart {
-        private String leftSide;
+        private Operand left;
+        private Operand right;
         private String operator;
+        private String leftSide;   // 出错时的原始文本
         private String rightSide;
         private boolean isError;
 
-        public ConditionPart(String leftSide, String operator, String rightSide, boolean isError) {
-            this.leftSide = leftSide;
+        public ConditionPart(Operand left, String operator, Operand right) {
+            this.left = left;
             this.operator = operator;
-            this.rightSide = rightSide;
-            this.isError = isError;
+            this.right = right;
         }
 
-        public String generateCode() {
-            if (isError) {
-                return String.format("//IFのERROR: [%s %s %s]", 
-                    leftSide, operator, rightSide);
-            }
-            return String.format("%s %s %s", 
-                convertValue(leftSide),
-                convertOperator(operator),
-                convertValue(rightSide));
+        /**
+         * 无法解析的条件，保留原始文本
+         */
+        public static ConditionPart error(String leftSide, String operator, String rightSide) {
+            ConditionPart part = new ConditionPart(null, operator, null);
+            part.leftSide = leftSide;
+            part.rightSide = rightSide;
+            part.isError = true;
+            return part;
         }
 
-        private String convertOperator(String op) {
-            if ("≠".equals(op)) return "!=";
-            if ("＝".equals(op)) return "==";
-            return op;
+        public Operand getLeft() { return left; }
+        public Operand getRight() { return right; }
+        public boolean isError() { return isError; }
+
+        /**
+         * Java 比较运算符（＝ → ==，≠ → !=）
+         */
+        public String getJavaOperator() {
+            if ("≠".equals(operator)) return "!=";
+            if ("＝".equals(operator)) return "==";
+            return operator;
         }
 
-        private String convertValue(String value) {
-            if (value.startsWith("D\\")) {
-                return "this." + value.substring(2);
-            } else if (value.startsWith("*IN")) {
-                return "this." + value.substring(1);
-            } else if (value.equals("ブランク") || value.equals("ﾌﾞﾗﾝｸ")) {
-                return "\"\"";
-            } else {
-                return value;
+        public String generateCode() {
+            if (isError) {
+                return String.format("//IFのERROR: [%s %s %s]", 
+                    leftSide, operator, rightSide);
             }
+            return String.format("%s %s %s", left.getCode(), getJavaOperator(), right.getCode());
         }
     }
 
@@ -166,8 +269,15 @@ public class GeneratedType2JavaInfo {
     }
 
     public String generateCode() {
+        return generateCode(ConditionPart::generateCode);
+    }
+
+    /**
+     * 生成代码，条件部分由 emitter 生成（如按操作数类型选择 StrUtil/NumUtil/DateUtil）
+     */
+    public String generateCode(ConditionEmitter emitter) {
         StringBuilder code = new StringBuilder();
-        code.append(condition.generateCode()).append(" {\n");
+        code.append(condition.generateCode(emitter)).append(" {\n");
         for (Assignment assignment : assignments) {
             code.append("    ").append(assignment.generateCode()).append("\n");
         }
@@ -2,12 +2,17 @@ package com.example.strategy;
 
 import com.example.model.ClassInfo;
 import com.example.model.FieldInfo;
-import com.example.util.JavaFileReader;
+import com.example.util.EntityCatalog;
+import com.example.util.ItemReferenceLexer;
+import com.example.util.KeywordAutomaton;
+import com.example.util.LinePreprocessor;
+import com.example.util.ItemReferenceLexer.Token;
+import com.example.util.ItemReferenceLexer.TokenType;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import com.example.model.GeneratedType1JavaInfo;
 
-import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
@@ -16,17 +21,34 @@ import java.io.IOException;
 
 public class Type1TextConverter implements TextConverter {
     private static final Logger logger = LoggerFactory.getLogger(Type1TextConverter.class);
-    private static final Pattern COMMENT_PATTERN = Pattern.compile("「([^」]*)\\.(\\(([^)]+)\\))」");
-    private static final Pattern VALUE_PATTERN = Pattern.compile("(ブランク|０|[0-9]+)(?=[^０-９]*[。．])");
-    private static final Pattern ENTITY_PATTERN = 
-        Pattern.compile("項目「[^(]*?\\(([^()]*(?:\\([^()]*\\)[^()]*)*?)\\)[^.]*\\.(\\(([^)]+)\\))」");
     private static final Pattern STRING_PATTERN = Pattern.compile("\"([^\"]*)\"");
-    private static final Pattern DATE_PATTERN = Pattern.compile("システム日付|����付");
-    private static final Pattern SPACE_PATTERN = Pattern.compile("スペース|空白");
-    private static final Pattern BLANK_PATTERN = Pattern.compile(
-        "項目「([^」]*)\\.(\\(([^)]+)\\))」に[　\\s]*(ブランク|ﾌﾞﾗﾝｸ)[　\\s]*を代入します[。]?");
-    private static final Pattern ENTITY_TO_ENTITY_PATTERN = 
-        Pattern.compile("項目「[^」]*?\\(([^」]*?(?:\\([^」]*?\\)[^」]*?)*)\\)[^」]*?\\.(\\(([^)]+)\\))\\s*」");
+    private static final Pattern SPACE_COUNT_PATTERN = Pattern.compile("(\\d+)\\s*(?:個|つ)?(?:の)?(?:スペース|空白)");
+    private static final Pattern DIGIT_COUNT_PATTERN = Pattern.compile("(\\d+)桁で");
+    private static final Pattern SUBSTRING_RANGE_PATTERN = Pattern.compile("(\\d+)文字目から(\\d+)文字を");
+
+    /**
+     * 行分类关键字，位掩码的第 i 位对应 ordinal() 为 i 的关键字
+     */
+    private enum LineKeyword {
+        BLANK("ブランク"), BLANK_HALF("ﾌﾞﾗﾝｸ"), EQUALS("＝"), TRUE("'1'"), FALSE("'0'"),
+        SYSTEM_DATE("システム日付"), SPACE("スペース"), SPACE_ALT("空白"),
+        SUBSTRING_FROM("文字目から"), SUBSTRING_LENGTH("文字を"), PADDING("桁で"),
+        RIGHT_ALIGN("右詰で"), LEFT_ALIGN("左詰"),
+        TARGET("」に"), SOURCE("」を"), ASSIGN("代入します");
+
+        private final String text;
+
+        LineKeyword(String text) {
+            this.text = text;
+        }
+
+        boolean in(long mask) {
+            return KeywordAutomaton.contains(mask, ordinal());
+        }
+    }
+
+    private static final KeywordAutomaton LINE_CLASSIFIER = new KeywordAutomaton(
+        Arrays.stream(LineKeyword.values()).map(keyword -> keyword.text).toArray(String[]::new));
     
     private Map<String, String> entityInstances;  // 添加实例名映射
     private Map<String, String> entityFiles;  // 添加实体文件映射
@@ -46,7 +68,7 @@ public class Type1TextConverter implements TextConverter {
         GeneratedType1JavaInfo result = new GeneratedType1JavaInfo();
         
         // 先去除双引号和句号
-        line = removeQuotes(line);
+        line = LinePreprocessor.get().stripQuotes(line);
         if (line == null || line.trim().isEmpty()) {
             return null;
         }
@@ -54,19 +76,9 @@ public class Type1TextConverter implements TextConverter {
         logger.info("Processing line: {}", line);
         
         try {
-            // 尝试各种处理方式
-            if (tryProcessBlankAssignment(line, result) ||
-                tryProcessNumberAssignment(line, result) ||
-                tryProcessBooleanAssignment(line, result) ||
-                tryProcessEntityToEntityAssignment(line, result) ||
-                tryProcessStringAssignment(line, result)) {
-                return result.getCode();
-            }
-            
-            // 如所有处理方式都失败了
-            result.setFailure(line, "No matching pattern found");
+            // 扫描一次得到关键字集合，直接分派到对应的处理方法；項目「…」内的字段注释不参与分类
+            dispatch(line, LINE_CLASSIFIER.scan(textOutsideItems(line)), result);
             return result.getCode();
-            
         } catch (Exception e) {
             logger.error("Error converting line: {}", line, e);
             result.setFailure(line, "Exception: " + e.getMessage());
@@ -74,21 +86,74 @@ public class Type1TextConverter implements TextConverter {
         }
     }
 
-    private boolean tryProcessBlankAssignment(String line, GeneratedType1JavaInfo result) {
-        // 检查全角和半角的空值表示
-        if (!line.contains("ブランク") && !line.contains("ﾌﾞﾗﾝｸ")) {
-            return false;
+    /**
+     * 把每个項目「…」引用替换为空的 項目「」：字段注释中的 空白、右詰で 等文字不会被当作关键字，
+     * 引用后面的 」に、」を 仍然可以识别
+     */
+    private static String textOutsideItems(String line) {
+        StringBuilder text = new StringBuilder(line.length());
+        int pos = 0;
+        for (Token token : ItemReferenceLexer.tokenize(line)) {
+            if (isItemReference(token)) {
+                text.append(line, pos, token.getStart()).append("項目「」");
+                pos = token.getEnd();
+            }
+        }
+        return text.append(line, pos, line.length()).toString();
+    }
+
+    private static boolean isItemReference(Token token) {
+        switch (token.getType()) {
+            case ENTITY_REF:
+            case DIRECT_REF:
+            case INDICATOR:
+                return true;
+            case TEXT:
+                // 格式无法识别的 項目「…」
+                return token.getText().startsWith("項目「") && token.getText().endsWith("」");
+            default:
+                return false;
+        }
+    }
+
+    private void dispatch(String line, long keywords, GeneratedType1JavaInfo result) {
+        if (LineKeyword.BLANK.in(keywords) || LineKeyword.BLANK_HALF.in(keywords)) {
+            processBlankAssignment(line, result);
+        } else if (LineKeyword.EQUALS.in(keywords)) {
+            processNumberAssignment(line, result);
+        } else if (LineKeyword.TRUE.in(keywords) || LineKeyword.FALSE.in(keywords)) {
+            processBooleanAssignment(line, LineKeyword.TRUE.in(keywords), result);
+        } else if (LineKeyword.SYSTEM_DATE.in(keywords)) {
+            processSystemDateAssignment(line, result);
+        } else if (LineKeyword.SPACE.in(keywords) || LineKeyword.SPACE_ALT.in(keywords)) {
+            processSpaceAssignment(line, result);
+        } else if (LineKeyword.SUBSTRING_FROM.in(keywords) && LineKeyword.SUBSTRING_LENGTH.in(keywords)) {
+            processSubstringAssignment(line, result);
+        } else if (LineKeyword.PADDING.in(keywords)) {
+            processPaddingAssignment(line, result);
+        } else if (LineKeyword.RIGHT_ALIGN.in(keywords)) {
+            processAlignedAssignment(line, "rightAlign", result);
+        } else if (LineKeyword.LEFT_ALIGN.in(keywords)) {
+            processAlignedAssignment(line, "leftAlign", result);
+        } else if (LineKeyword.TARGET.in(keywords) && LineKeyword.SOURCE.in(keywords)
+                && LineKeyword.ASSIGN.in(keywords)) {
+            processEntityToEntityAssignment(line, result);
+        } else {
+            processStringAssignment(line, result);
         }
+    }
 
-        Matcher matcher = ENTITY_PATTERN.matcher(line);
-        if (!matcher.find()) {
+    private void processBlankAssignment(String line, GeneratedType1JavaInfo result) {
+        List<Token> tokens = ItemReferenceLexer.tokenize(line);
+        int ref = ItemReferenceLexer.indexOf(tokens, TokenType.ENTITY_REF, 0);
+        if (ref < 0) {
             logger.debug("Line '{}' doesn't match entity pattern", line);
             result.setFailure(line, "No entity pattern found");
-            return true;
+            return;
         }
 
-        String entityId = matcher.group(1);  // 提取第一个小括号内的完整内容作为实体ID
-        String comment = matcher.group(3).trim();
+        String entityId = tokens.get(ref).getValue();  // 第一个小括号内的完整内容作为实体ID
+        String comment = tokens.get(ref + 1).getValue();
         
         logger.debug("Found blank assignment - entityId: [{}], comment: [{}]", entityId, comment);
         
@@ -97,119 +162,108 @@ public class Type1TextConverter implements TextConverter {
         
         if (entityInfo == null) {
             result.setFailure(line, "Entity info not found for " + entityId);
-            return true;
+            return;
         }
         
         FieldInfo fieldInfo = entityInfo.findFieldByComment(comment);
         if (fieldInfo == null) {
             result.setFailure(line, "Field not found for comment: " + comment);
-            return true;
+            return;
         }
 
         String setterMethod = fieldInfo.getSetMethod();
         result.setSuccessCode(String.format("%s.%s(\"\");", instanceName, setterMethod));
-        return true;
     }
 
-    private boolean tryProcessSpaceAssignment(String line, GeneratedType1JavaInfo result) {
-        if (!SPACE_PATTERN.matcher(line).find()) {
-            return false;
-        }
-
-        Matcher commentMatcher = COMMENT_PATTERN.matcher(line);
-        if (!commentMatcher.find()) {
+    private void processSpaceAssignment(String line, GeneratedType1JavaInfo result) {
+        List<Token> tokens = ItemReferenceLexer.tokenize(line);
+        int ref = ItemReferenceLexer.indexOf(tokens, TokenType.ENTITY_REF, 0);
+        if (ref < 0) {
             result.setFailure(line, "No comment pattern found");
-            return true;
+            return;
         }
 
-        String entityId = commentMatcher.group(1);
-        String comment = commentMatcher.group(3).trim();
+        String entityId = tokens.get(ref).getValue();
+        String comment = tokens.get(ref + 1).getValue();
         
         String instanceName = getInstanceName(entityId);
         ClassInfo entityInfo = getEntityInfo(entityId);
         
         if (entityInfo == null) {
             result.setFailure(line, "Entity info not found for " + entityId);
-            return true;
+            return;
         }
         
         FieldInfo fieldInfo = entityInfo.findFieldByComment(comment);
         if (fieldInfo == null) {
             result.setFailure(line, "Field not found for comment: " + comment);
-            return true;
+            return;
         }
 
         String setterMethod = fieldInfo.getSetMethod();
         result.setSuccessCode(String.format("%s.%s(StringUtil.spaces(%d));", 
             instanceName, setterMethod, getSpaceCount(line)));
-        return true;
     }
 
-    private boolean tryProcessSystemDateAssignment(String line, GeneratedType1JavaInfo result) {
-        if (!line.contains("システム日付")) {
-            return false;
-        }
-
-        Matcher commentMatcher = COMMENT_PATTERN.matcher(line);
-        if (!commentMatcher.find()) {
+    private void processSystemDateAssignment(String line, GeneratedType1JavaInfo result) {
+        List<Token> tokens = ItemReferenceLexer.tokenize(line);
+        int ref = ItemReferenceLexer.indexOf(tokens, TokenType.ENTITY_REF, 0);
+        if (ref < 0) {
             result.setFailure(line, "No comment pattern found");
-            return true;
+            return;
         }
 
-        String entityId = commentMatcher.group(1);
-        String comment = commentMatcher.group(3).trim();
+        String entityId = tokens.get(ref).getValue();
+        String comment = tokens.get(ref + 1).getValue();
         
         String instanceName = getInstanceName(entityId);
         ClassInfo entityInfo = getEntityInfo(entityId);
         
         if (entityInfo == null) {
             result.setFailure(line, "Entity info not found for " + entityId);
-            return true;
+            return;
         }
         
         FieldInfo fieldInfo = entityInfo.findFieldByComment(comment);
         if (fieldInfo == null) {
             result.setFailure(line, "Field not found for comment: " + comment);
-            return true;
+            return;
         }
 
         String setterMethod = fieldInfo.getSetMethod();
         result.setSuccessCode(String.format("%s.%s(DateUtil.getSystemDate());", 
             instanceName, setterMethod));
-        return true;
     }
 
     private int getSpaceCount(String line) {
         // 从文本中提取空格数量，如果没有指定则返回默认值1
-        Matcher matcher = Pattern.compile("(\\d+)\\s*(?:個|つ)?(?:の)?(?:スペース|空白)").matcher(line);
+        Matcher matcher = SPACE_COUNT_PATTERN.matcher(line);
         return matcher.find() ? Integer.parseInt(matcher.group(1)) : 1;
     }
 
-    private boolean tryProcessNumberAssignment(String line, GeneratedType1JavaInfo result) {
-        if (!line.contains("＝")) {
-            return false;
-        }
-
-        Matcher matcher = ENTITY_PATTERN.matcher(line);
-        if (!matcher.find()) {
+    private void processNumberAssignment(String line, GeneratedType1JavaInfo result) {
+        List<Token> tokens = ItemReferenceLexer.tokenize(line);
+        int ref = ItemReferenceLexer.indexOf(tokens, TokenType.ENTITY_REF, 0);
+        if (ref < 0) {
             logger.debug("Line '{}' doesn't match entity pattern", line);
             result.setFailure(line, "No entity pattern found");
-            return true;
+            return;
         }
 
-        String entityId = matcher.group(1);
-        String comment = matcher.group(3).trim();
+        String entityId = tokens.get(ref).getValue();
+        String comment = tokens.get(ref + 1).getValue();
         
-        // 修改值的提取正则表达式
-        Matcher valueMatcher = Pattern.compile("＝[　\\s]*([０0-9]+)").matcher(line);
-        if (!valueMatcher.find()) {
-            result.setFailure(line, "No value pattern found");
-            return true;
+        // ＝ 之后的数字（全角数字已转换为半角）
+        String value = null;
+        for (int i = 0; i < tokens.size() - 1; i++) {
+            if (tokens.get(i).is(TokenType.KEYWORD, "＝") && tokens.get(i + 1).isNumber()) {
+                value = tokens.get(i + 1).getValue();
+                break;
+            }
         }
-        
-        String value = valueMatcher.group(1);
-        if (value.equals("０")) {
-            value = "0";
+        if (value == null) {
+            result.setFailure(line, "No value pattern found");
+            return;
         }
 
         logger.debug("Found number assignment - entityId: [{}], comment: [{}], value: [{}]", 
@@ -220,13 +274,13 @@ public class Type1TextConverter implements TextConverter {
         
         if (entityInfo == null) {
             result.setFailure(line, "Entity info not found for " + entityId);
-            return true;
+            return;
         }
         
         FieldInfo fieldInfo = entityInfo.findFieldByComment(comment);
         if (fieldInfo == null) {
             result.setFailure(line, "Field not found for comment: " + comment);
-            return true;
+            return;
         }
 
         String setterMethod = fieldInfo.getSetMethod();
@@ -237,84 +291,60 @@ public class Type1TextConverter implements TextConverter {
         } else {
             result.setSuccessCode(String.format("%s.%s(%s);", instanceName, setterMethod, value));
         }
-        
-        return true;
     }
 
-    private boolean tryProcessBooleanAssignment(String line, GeneratedType1JavaInfo result) {
-        if (!line.contains("'1'") && !line.contains("'0'")) {
-            return false;
-        }
-
-        Matcher commentMatcher = COMMENT_PATTERN.matcher(line);
-        if (!commentMatcher.find()) {
+    private void processBooleanAssignment(String line, boolean value, GeneratedType1JavaInfo result) {
+        List<Token> tokens = ItemReferenceLexer.tokenize(line);
+        int ref = ItemReferenceLexer.indexOf(tokens, TokenType.ENTITY_REF, 0);
+        if (ref < 0) {
             result.setFailure(line, "No comment pattern found");
-            return true;
+            return;
         }
 
-        String entityId = commentMatcher.group(1);
-        String comment = commentMatcher.group(3).trim();
-        
-        String value = line.contains("'1'") ? "true" : "false";
+        String entityId = tokens.get(ref).getValue();
+        String comment = tokens.get(ref + 1).getValue();
         
         String instanceName = getInstanceName(entityId);
         ClassInfo entityInfo = getEntityInfo(entityId);
         
         if (entityInfo == null) {
             result.setFailure(line, "Entity info not found for " + entityId);
-            return true;
+            return;
         }
         
         FieldInfo fieldInfo = entityInfo.findFieldByComment(comment);
         if (fieldInfo == null) {
             result.setFailure(line, "Field not found for comment: " + comment);
-            return true;
+            return;
         }
 
         String setterMethod = fieldInfo.getSetMethod();
         result.setSuccessCode(String.format("%s.%s(%s);", instanceName, setterMethod, value));
-        return true;
     }
 
-    private boolean tryProcessEntityToEntityAssignment(String line, GeneratedType1JavaInfo result) {
-        // 基本检查
-        if (!line.contains("」に") || !line.contains("」を") || !line.contains("代入します")) {
-            return false;
-        }
-
-        // 先分割成两部分
-        String[] parts = line.split("」に\\s*項目「");
-        if (parts.length != 2) {
-            logger.debug("Cannot split line into two parts: {}", line);
-            result.setFailure(line, "Invalid format");
-            return true;
-        }
-
-        // 处理第一个实体（目标实体）
-        String firstPart = parts[0] + "」";
-        Matcher sourceMatcher = ENTITY_TO_ENTITY_PATTERN.matcher(firstPart);
-        if (!sourceMatcher.find()) {
-            logger.debug("Failed to match first entity in: {}", firstPart);
+    private void processEntityToEntityAssignment(String line, GeneratedType1JavaInfo result) {
+        // 第一个实体为目标实体，第二个实体为源实体
+        List<Token> tokens = ItemReferenceLexer.tokenize(line);
+        int target = ItemReferenceLexer.indexOf(tokens, TokenType.ENTITY_REF, 0);
+        if (target < 0) {
+            logger.debug("Failed to match first entity in: {}", line);
             result.setFailure(line, "Failed to match first entity pattern");
-            return true;
+            return;
         }
 
-        String targetEntityId = sourceMatcher.group(1);
-        String targetFieldComment = sourceMatcher.group(3);
+        String targetEntityId = tokens.get(target).getValue();
+        String targetFieldComment = tokens.get(target + 1).getValue();
         logger.debug("Found target entity - id: [{}], comment: [{}]", targetEntityId, targetFieldComment);
 
-        // 处理第二个实体（源实体）
-        String secondPart = "項目「" + parts[1].trim();  // 添加trim()处理
-        logger.debug("Processing second part: [{}]", secondPart);
-        Matcher targetMatcher = ENTITY_TO_ENTITY_PATTERN.matcher(secondPart);
-        if (!targetMatcher.find()) {
-            logger.debug("Failed to match second entity in: {}", secondPart);
+        int source = ItemReferenceLexer.indexOf(tokens, TokenType.ENTITY_REF, target + 2);
+        if (source < 0) {
+            logger.debug("Failed to match second entity in: {}", line);
             result.setFailure(line, "Failed to match second entity pattern");
-            return true;
+            return;
         }
 
-        String sourceEntityId = targetMatcher.group(1);
-        String sourceFieldComment = targetMatcher.group(3);
+        String sourceEntityId = tokens.get(source).getValue();
+        String sourceFieldComment = tokens.get(source + 1).getValue();
         logger.debug("Found source entity - id: [{}], comment: [{}]", sourceEntityId, sourceFieldComment);
 
         try {
@@ -326,7 +356,7 @@ public class Type1TextConverter implements TextConverter {
             
             if (targetEntityInfo == null || sourceEntityInfo == null) {
                 result.setFailure(line, "Entity info not found");
-                return true;
+                return;
             }
 
             FieldInfo targetField = targetEntityInfo.findFieldByComment(targetFieldComment);
@@ -334,7 +364,7 @@ public class Type1TextConverter implements TextConverter {
             
             if (targetField == null || sourceField == null) {
                 result.setFailure(line, "Field info not found");
-                return true;
+                return;
             }
 
             String sourceValue = sourceInstanceName + "." + sourceField.getGetMethod() + "()";
@@ -344,41 +374,35 @@ public class Type1TextConverter implements TextConverter {
                 targetInstanceName, 
                 setterMethod, 
                 sourceValue));
-            
-            return true;
         } catch (Exception e) {
             logger.error("Error processing entity assignment", e);
             result.setFailure(line, "Exception: " + e.getMessage());
-            return true;
         }
     }
 
-    private boolean tryProcessRightAlignedAssignment(String line, GeneratedType1JavaInfo result) {
-        // 处理右对齐赋值，例如：項目「手袋(Ｌ０１).(常務コード)」に 項目「z3333(Ｌ０３).(常務コード) 」を右詰で入します
-        if (!line.contains("右詰で")) {
-            return false;
-        }
+    private void processAlignedAssignment(String line, String alignMethod, GeneratedType1JavaInfo result) {
+        // 处理右对齐/左对齐赋值，例如：項目「手袋(Ｌ０１).(常務コード)」に 項目「z3333(Ｌ０３).(常務コード) 」を右詰で代入します
 
         // 提取目标实体和字段
-        Matcher targetMatcher = COMMENT_PATTERN.matcher(line);
-        if (!targetMatcher.find()) {
+        List<Token> tokens = ItemReferenceLexer.tokenize(line);
+        int target = ItemReferenceLexer.indexOf(tokens, TokenType.ENTITY_REF, 0);
+        if (target < 0) {
             result.setFailure(line, "No target entity pattern found");
-            return true;
+            return;
         }
 
-        String targetEntityId = targetMatcher.group(1);
-        String targetComment = targetMatcher.group(3).trim();
+        String targetEntityId = tokens.get(target).getValue();
+        String targetComment = tokens.get(target + 1).getValue();
 
         // 提取源实体和字段
-        String remaining = line.substring(targetMatcher.end());
-        Matcher sourceMatcher = COMMENT_PATTERN.matcher(remaining);
-        if (!sourceMatcher.find()) {
+        int source = ItemReferenceLexer.indexOf(tokens, TokenType.ENTITY_REF, target + 2);
+        if (source < 0) {
             result.setFailure(line, "No source entity pattern found");
-            return true;
+            return;
         }
 
-        String sourceEntityId = sourceMatcher.group(1);
-        String sourceComment = sourceMatcher.group(3).trim();
+        String sourceEntityId = tokens.get(source).getValue();
+        String sourceComment = tokens.get(source + 1).getValue();
 
         // 获取实例名和实体信息
         String targetInstanceName = getInstanceName(targetEntityId);
@@ -388,7 +412,7 @@ public class Type1TextConverter implements TextConverter {
 
         if (targetEntityInfo == null || sourceEntityInfo == null) {
             result.setFailure(line, "Entity info not found");
-            return true;
+            return;
         }
 
         // 获取字段信息
@@ -397,132 +421,81 @@ public class Type1TextConverter implements TextConverter {
 
         if (targetField == null || sourceField == null) {
             result.setFailure(line, "Field info not found");
-            return true;
+            return;
         }
 
-        // 生成代码，添加右对齐处理
-        String code = String.format("%s.%s(StringUtil.rightAlign(%s.%s()));",
+        // 生成代码，添加对齐处理（StringUtil.rightAlign / StringUtil.leftAlign）
+        String code = String.format("%s.%s(StringUtil.%s(%s.%s()));",
             targetInstanceName,
             targetField.getSetMethod(),
+            alignMethod,
             sourceInstanceName,
             sourceField.getGetMethod());
         
         result.setSuccessCode(code);
-        return true;
-    }
-
-    private boolean tryProcessLeftAlignedAssignment(String line, GeneratedType1JavaInfo result) {
-        // 处理左对齐赋值
-        if (!line.contains("左詰")) {
-            return false;
-        }
-
-        // ... 类似于右对齐的处理逻辑 ...
-        // 但使用 StringUtil.leftAlign 方法
-
-        return true;
-    }
-
-    private boolean tryProcessDateAssignment(String line, GeneratedType1JavaInfo result) {
-        // 处理日期赋值
-        if (!line.contains("日付")) {
-            return false;
-        }
-
-        Matcher commentMatcher = COMMENT_PATTERN.matcher(line);
-        if (!commentMatcher.find()) {
-            result.setFailure(line, "No comment pattern found");
-            return true;
-        }
-
-        String entityId = commentMatcher.group(1);
-        String comment = commentMatcher.group(3).trim();
-        
-        String instanceName = getInstanceName(entityId);
-        ClassInfo entityInfo = getEntityInfo(entityId);
-        
-        if (entityInfo == null) {
-            result.setFailure(line, "Entity info not found for " + entityId);
-            return true;
-        }
-        
-        FieldInfo fieldInfo = entityInfo.findFieldByComment(comment);
-        if (fieldInfo == null) {
-            result.setFailure(line, "Field not found for comment: " + comment);
-            return true;
-        }
-
-        // 生成日期处理代码
-        String setterMethod = fieldInfo.getSetMethod();
-        result.setSuccessCode(String.format("%s.%s(DateUtil.getCurrentDate());", 
-            instanceName, setterMethod));
-        return true;
     }
 
-    private boolean tryProcessStringAssignment(String line, GeneratedType1JavaInfo result) {
+    private void processStringAssignment(String line, GeneratedType1JavaInfo result) {
         // 处理字符串赋值，例如 "ABC" 或其他非空白、非数字的值
-        if (line.contains("ブランク") || line.contains("＝")) {
-            return false;  // 这些情况由其他方法处理
-        }
-
-        Matcher commentMatcher = COMMENT_PATTERN.matcher(line);
-        if (!commentMatcher.find()) {
+        List<Token> tokens = ItemReferenceLexer.tokenize(line);
+        int ref = ItemReferenceLexer.indexOf(tokens, TokenType.ENTITY_REF, 0);
+        if (ref < 0) {
             result.setFailure(line, "No comment pattern found");
-            return true;
+            return;
         }
 
-        String entityId = commentMatcher.group(1);
-        String comment = commentMatcher.group(3).trim();
+        String entityId = tokens.get(ref).getValue();
+        String comment = tokens.get(ref + 1).getValue();
         
         // 提取字符串值
-        Matcher valueMatcher = Pattern.compile("\"([^\"]*)\"").matcher(line);
-        if (!valueMatcher.find()) {
+        String value = null;
+        for (Token token : tokens) {
+            if (token.getType() == TokenType.LITERAL && token.getText().startsWith("\"")) {
+                value = token.getValue();
+                break;
+            }
+        }
+        if (value == null) {
             result.setFailure(line, "No string value found");
-            return true;
+            return;
         }
-        
-        String value = valueMatcher.group(1);
         String instanceName = getInstanceName(entityId);
         ClassInfo entityInfo = getEntityInfo(entityId);
         
         if (entityInfo == null) {
             result.setFailure(line, "Entity info not found for " + entityId);
-            return true;
+            return;
         }
         
         FieldInfo fieldInfo = entityInfo.findFieldByComment(comment);
         if (fieldInfo == null) {
             result.setFailure(line, "Field not found for comment: " + comment);
-            return true;
+            return;
         }
 
         String setterMethod = fieldInfo.getSetMethod();
         result.setSuccessCode(String.format("%s.%s(\"%s\");", instanceName, setterMethod, value));
-        return true;
     }
 
-    private boolean tryProcessPaddingAssignment(String line, GeneratedType1JavaInfo result) {
+    private void processPaddingAssignment(String line, GeneratedType1JavaInfo result) {
         // 处理补位赋值，例如：項目「手袋(Ｌ０１).(常務コード)」に"123"を5桁で代入します
-        if (!line.contains("桁で")) {
-            return false;
-        }
-
-        Matcher commentMatcher = COMMENT_PATTERN.matcher(line);
-        if (!commentMatcher.find()) {
+        List<Token> tokens = ItemReferenceLexer.tokenize(line);
+        int ref = ItemReferenceLexer.indexOf(tokens, TokenType.ENTITY_REF, 0);
+        if (ref < 0) {
             result.setFailure(line, "No comment pattern found");
-            return true;
+            return;
         }
 
-        String entityId = commentMatcher.group(1);
-        String comment = commentMatcher.group(3).trim();
+        String entityId = tokens.get(ref).getValue();
+        String comment = tokens.get(ref + 1).getValue();
         
         // 提取值和位数
         Matcher valueMatcher = STRING_PATTERN.matcher(line);
-        Matcher digitMatcher = Pattern.compile("(\\d+)桁で").matcher(line);
+        Matcher digitMatcher = DIGIT_COUNT_PATTERN.matcher(line);
         
         if (!valueMatcher.find() || !digitMatcher.find()) {
             result.setFailure(line, "Value or digit count not found");
-            return true;
+            return;
         }
 
         String value = valueMatcher.group(1);
@@ -533,51 +506,46 @@ public class Type1TextConverter implements TextConverter {
         
         if (entityInfo == null) {
             result.setFailure(line, "Entity info not found for " + entityId);
-            return true;
+            return;
         }
         
         FieldInfo fieldInfo = entityInfo.findFieldByComment(comment);
         if (fieldInfo == null) {
             result.setFailure(line, "Field not found for comment: " + comment);
-            return true;
+            return;
         }
 
         String setterMethod = fieldInfo.getSetMethod();
         result.setSuccessCode(String.format("%s.%s(StringUtil.padLeft(\"%s\", %d));", 
             instanceName, setterMethod, value, digits));
-        return true;
     }
 
-    private boolean tryProcessSubstringAssignment(String line, GeneratedType1JavaInfo result) {
+    private void processSubstringAssignment(String line, GeneratedType1JavaInfo result) {
         // 处理截取赋值，例如：項目「手袋(Ｌ０１).(常務コード)」に 項目「z3333(Ｌ０３).(常務コード)」の1文字目から3文字を代入します
-        if (!line.contains("文字目から") || !line.contains("文字を")) {
-            return false;
-        }
-
-        Matcher targetMatcher = ENTITY_PATTERN.matcher(line);
-        if (!targetMatcher.find()) {
+        List<Token> tokens = ItemReferenceLexer.tokenize(line);
+        int target = ItemReferenceLexer.indexOf(tokens, TokenType.ENTITY_REF, 0);
+        if (target < 0) {
             result.setFailure(line, "Target entity not found");
-            return true;
+            return;
         }
 
-        String targetEntityId = targetMatcher.group(1);
-        String targetComment = targetMatcher.group(3).trim();
+        String targetEntityId = tokens.get(target).getValue();
+        String targetComment = tokens.get(target + 1).getValue();
 
-        String remaining = line.substring(targetMatcher.end());
-        Matcher sourceMatcher = ENTITY_PATTERN.matcher(remaining);
-        if (!sourceMatcher.find()) {
+        int source = ItemReferenceLexer.indexOf(tokens, TokenType.ENTITY_REF, target + 2);
+        if (source < 0) {
             result.setFailure(line, "Source entity not found");
-            return true;
+            return;
         }
 
-        String sourceEntityId = sourceMatcher.group(1);
-        String sourceComment = sourceMatcher.group(3).trim();
+        String sourceEntityId = tokens.get(source).getValue();
+        String sourceComment = tokens.get(source + 1).getValue();
 
         // 提取起始位置和长度
-        Matcher positionMatcher = Pattern.compile("(\\d+)文字目から(\\d+)文字を").matcher(line);
+        Matcher positionMatcher = SUBSTRING_RANGE_PATTERN.matcher(line);
         if (!positionMatcher.find()) {
             result.setFailure(line, "Position and length not found");
-            return true;
+            return;
         }
 
         int startPos = Integer.parseInt(positionMatcher.group(1)) - 1; // 转换为0基索引
@@ -590,7 +558,7 @@ public class Type1TextConverter implements TextConverter {
 
         if (targetEntityInfo == null || sourceEntityInfo == null) {
             result.setFailure(line, "Entity info not found");
-            return true;
+            return;
         }
 
         FieldInfo targetField = targetEntityInfo.findFieldByComment(targetComment);
@@ -598,7 +566,7 @@ public class Type1TextConverter implements TextConverter {
 
         if (targetField == null || sourceField == null) {
             result.setFailure(line, "Field info not found");
-            return true;
+            return;
         }
 
         String code = String.format("%s.%s(StringUtil.substring(%s.%s(), %d, %d));",
@@ -610,60 +578,6 @@ public class Type1TextConverter implements TextConverter {
             length);
         
         result.setSuccessCode(code);
-        return true;
-    }
-
-    /**
-     * 去除行首和行尾的双引号，保留行中间的双引号
-     */
-    private String removeQuotes(String line) {
-        if (line == null) {
-            return null;
-        }
-        // 去除首尾的双引号和句号
-        return line.replaceAll("^[\"]|[\"。]$", "").trim();
-    }
-
-    private String generateCode(String entityId, String comment, String value) {
-        logger.info("Generating code for entityId: {}, comment: {}, value: {}", entityId, comment, value);
-        
-        // 生成TODO注释
-        if (comment == null) {
-            logger.warn("Comment is null");
-            return String.format("//TODO: Comment not found");
-        }
-
-        // 获取实例名
-        String instanceName = getInstanceName(entityId);
-        
-        // 从实体类中获取的字段信息
-        ClassInfo entityInfo = getEntityInfo(entityId);
-        if (entityInfo == null) {
-            logger.warn("Entity info not found for {}", entityId);
-            return String.format("//TODO: Entity not found for %s", entityId);
-        }
-        
-        FieldInfo fieldInfo = entityInfo.findFieldByComment(comment);
-        if (fieldInfo == null) {
-            logger.warn("Field not found for comment: {}", comment);
-            return String.format("//TODO: Field not found for comment %s", comment);
-        }
-
-        // 生成代码
-        String setValue;
-        if (value.equals("ブランク")) {
-            setValue = "\"\"";
-        } else if (value.equals("０") || value.matches("[0-9]+")) {
-            setValue = value.equals("０") ? "0" : value;
-        } else {
-            logger.warn("Unsupported value: {}", value);
-            return String.format("//TODO: [%s] - Unsupported value: %s", comment, value);
-        }
-
-        String setterMethod = fieldInfo.getSetMethod();
-        String result = String.format("// %s\n%s.%s(%s);", comment, instanceName, setterMethod, setValue);
-        logger.info("Generated code: {}", result);
-        return result;
     }
 
     private String getInstanceName(String entityId) {
@@ -683,7 +597,7 @@ public class Type1TextConverter implements TextConverter {
         String entityFile = entityFiles.get(entityId);
         if (entityFile != null) {
             try {
-                return JavaFileReader.readJavaFileToModel(entityFile);
+                return EntityCatalog.getInstance().get(entityFile);
             } catch (IOException e) {
                 logger.error("Failed to read entity file for {}", entityId, e);
             }
@@ -1,13 +1,21 @@
 package com.example.strategy;
 
 import com.example.model.*;
-import com.example.util.JavaFileReader;
+import com.example.model.GeneratedType2JavaInfo.Operand;
+import com.example.util.EntityCatalog;
+import com.example.util.ItemReferenceLexer;
+import com.example.util.ItemReferenceLexer.Token;
+import com.example.util.ItemReferenceLexer.TokenType;
+import com.example.util.LinePreprocessor;
 import com.example.util.LogicOperatorPostProcessor;
+import com.example.util.StreamingPipeline;
 import com.example.util.VariableDefinitionReader;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
 import java.util.regex.*;
 import java.io.IOException;
 
@@ -20,27 +28,17 @@ public class Type2TextConverter implements TextConverter {
     
     private static final Pattern CONDITION_START = Pattern.compile("》【条件】(.+)のとき");
     private static final Pattern CONDITION_CONTINUE = Pattern.compile("^\\s*(または|かつ)、(.+)のとき");
-    private static final Pattern ENTITY_PATTERN = 
-        Pattern.compile("項目「[^(]*?\\(((?:[^()]+|\\([^()]*\\))+)\\)[^.]*\\.(\\(([^)]+)\\))」");
-    private static final Pattern DIRECT_PATTERN = Pattern.compile("項目「\\s*([A-Z])\\\\([^」]+)\\s*」");
-    private static final Pattern BOOLEAN_PATTERN = Pattern.compile("項目「\\*([^」]+)」");
-    private static final Pattern COMPARISON_PATTERN = Pattern.compile("(.+)(＝|≠)(.+)");
-    private static final Pattern SIMPLE_ASSIGNMENT_PATTERN = 
-        Pattern.compile("^項目「\\s*([^」]+?)\\s*」に\\s*(ブランク|'[01]')\\s*を代入します");
-    private static final Pattern SIMPLE_EQUALS_PATTERN =
-        Pattern.compile("^項目「[^(]*?\\(((?:[^()]+|\\([^()]*\\))+)\\)[^.]*\\.(\\(([^)]+)\\))」＝\\s*([０0-9]+)");
 
     private Map<String, ClassInfo> entityInfoMap;
     private Map<String, String> entityFiles;
     private Map<String, String> entityInstances;
     private boolean enableLogicConversion = false;
     private LogicOperatorPostProcessor logicProcessor;
-    private Map<String, VariableDefinition> variableDefinitions = new HashMap<>();
-    private StringBuilder convertedCode = new StringBuilder();
 
     public void setEntityFiles(Map<String, String> entityFiles) {
         this.entityFiles = entityFiles;
-        this.entityInfoMap = new HashMap<>();
+        // 并行转换时多个线程同时读写
+        this.entityInfoMap = new ConcurrentHashMap<>();
     }
 
     public void setEntityInstances(Map<String, String> entityInstances) {
@@ -72,114 +70,204 @@ public class Type2TextConverter implements TextConverter {
         return null;
     }
 
-    // 添加一个内部类来保存带序号的文本行
-    private static class TextLine {
-        final int lineNumber;
-        final String content;
-        boolean processed;  // 标记是否已处理
+    /**
+     * 转换过程中的当前条件块
+     */
+    private static class BlockCursor {
+        GeneratedType2JavaInfo currentInfo;
+    }
+
+    /**
+     * 增量转换的结果：文件中的块数和其中复用的块数（重复出现的块按出现次数计）
+     */
+    public static class IncrementalResult {
+        private final int blocks;
+        private final int reused;
 
-        TextLine(int lineNumber, String content) {
-            this.lineNumber = lineNumber;
-            this.content = content;
-            this.processed = false;
+        IncrementalResult(int blocks, int reused) {
+            this.blocks = blocks;
+            this.reused = reused;
         }
+
+        public int getBlocks() { return blocks; }
+        public int getReused() { return reused; }
     }
 
     public List<String> convertFile(List<String> lines) {
-        // 1. 初始化带序号的行列表
-        List<TextLine> textLines = new ArrayList<>();
-        for (int i = 0; i < lines.size(); i++) {
-            String cleanedLine = removeQuotes(lines.get(i));
-            textLines.add(new TextLine(i, cleanedLine));
+        List<String> generatedCode = new ArrayList<>();
+        convertFile(lines, generatedCode::add);
+        return generatedCode;
+    }
+
+    /**
+     * 逐块转换：每个条件块在下一个 》【条件】 到来（或输入结束）时生成代码，
+     * 经过逻辑运算符后处理后立即交给 sink，内存中只保留当前块
+     * @param lines 输入行
+     * @param sink 接收每个块生成的代码，按输入顺序调用
+     */
+    public void convertFile(Iterable<String> lines, Consumer<String> sink) {
+        BlockCursor cursor = new BlockCursor();
+        for (String line : lines) {
+            processLine(line, cursor, sink);
         }
+        finishBlock(cursor, sink);
+    }
 
-        // 2. 存储生成的代码
-        List<String> generatedCode = new ArrayList<>();
-        
-        // 3. 处理条件块
-        GeneratedType2JavaInfo currentInfo = null;
-
-        for (int i = 0; i < textLines.size(); i++) {
-            TextLine line = textLines.get(i);
-            String normalizedLine = normalizeSpaces(line.content);
-            String trimmed = normalizedLine.trim();
-
-            // 新的条件块开始
-            if (trimmed.startsWith("》【条件】")) {
-                // 处理前一个条件块
-                if (currentInfo != null) {
-                    String code = currentInfo.generateCode();
-                    if (code != null && !code.trim().isEmpty()) {
-                        generatedCode.add(code);
-                    }
-                }
-                // 创建新的条件块
-                currentInfo = new GeneratedType2JavaInfo();
-                processConditionLine(trimmed, currentInfo);
-            }
-            // 条件块的继续条件（または、或かつ、）
-            else if (trimmed.startsWith("または、") || trimmed.startsWith("かつ、")) {
-                if (currentInfo != null) {
-                    processContinuationLine(trimmed, currentInfo);
-                }
-            }
-            // 条件块内的语句
-            else if (!trimmed.isEmpty()) {
-                if (currentInfo != null) {
-                    processAssignmentLine(trimmed, currentInfo);
-                } else {
-                    // 如果不在条件块内，创建一个新的条件块
-                    currentInfo = new GeneratedType2JavaInfo();
-                    processAssignmentLine(trimmed, currentInfo);
-                }
-            }
+    private void processLine(String rawLine, BlockCursor cursor, Consumer<String> sink) {
+        String trimmed = LinePreprocessor.get().normalize(rawLine);
+        if (trimmed != rawLine && logger.isDebugEnabled()) {
+            logger.debug("Line normalization - Original: [{}], Normalized: [{}]", rawLine, trimmed);
         }
 
-        // 处理最后一个条件块
-        if (currentInfo != null) {
-            String code = currentInfo.generateCode();
-            if (code != null && !code.trim().isEmpty()) {
-                generatedCode.add(code);
+        // 新的条件块开始
+        if (trimmed.startsWith("》【条件】")) {
+            // 输出前一个条件块
+            finishBlock(cursor, sink);
+            // 创建新的条件块
+            cursor.currentInfo = new GeneratedType2JavaInfo();
+            processConditionLine(trimmed, cursor.currentInfo);
+        }
+        // 条件块的继续条件（または、或かつ、）
+        else if (trimmed.startsWith("または、") || trimmed.startsWith("かつ、")) {
+            if (cursor.currentInfo != null) {
+                processContinuationLine(trimmed, cursor.currentInfo);
+            }
+        }
+        // 条件块内的语句
+        else if (!trimmed.isEmpty()) {
+            if (cursor.currentInfo == null) {
+                // 如果不在条件块内，创建一个新的条件块
+                cursor.currentInfo = new GeneratedType2JavaInfo();
             }
+            processAssignmentLine(trimmed, cursor.currentInfo);
         }
+    }
 
-        // 4. 如果启用了逻辑转换，进行后处理
-        if (enableLogicConversion && logicProcessor != null) {
-            return processLogicConversion(generatedCode);
+    /**
+     * 生成当前块的代码交给 sink
+     */
+    private void finishBlock(BlockCursor cursor, Consumer<String> sink) {
+        if (cursor.currentInfo == null) {
+            return;
         }
-        
-        return generatedCode;
+        GeneratedType2JavaInfo info = cursor.currentInfo;
+        cursor.currentInfo = null;
+        sink.accept(generateCode(info));
+    }
+
+    /**
+     * 判断一行是否为条件块的开始，与 convertFile 使用相同的预处理
+     * （注意行首全角空格之后的引号不会被去除，这样的行不算块开始）
+     */
+    public static boolean isBlockStart(String line) {
+        return line != null && LinePreprocessor.get().normalize(line).startsWith("》【条件】");
     }
 
-    private String processStandaloneAssignment(String line) {
-        // 处理简单赋值（带"に...代入します"）
-        Matcher simpleAssignMatcher = SIMPLE_ASSIGNMENT_PATTERN.matcher(line);
-        if (simpleAssignMatcher.find()) {
-            String fieldName = simpleAssignMatcher.group(1).trim();
-            // 处理 D\AABB 格式的字段名
-            Matcher directMatcher = DIRECT_PATTERN.matcher(fieldName);
-            if (directMatcher.find()) {
-                String prefix = directMatcher.group(1);  // 获取前缀（如 "D"）
-                String name = directMatcher.group(2);    // 获取名称（如 "AABB"）
-                fieldName = prefix + name;              // 组合（如 "DAABB"）
-                logger.info("Processed field name: prefix=[{}], name=[{}], result=[{}]", 
-                    prefix, name, fieldName);
+    /**
+     * 扫描块边界，把输入切分为独立的条件块（第一个块之前的行单独成块），逐块返回
+     * 只向前读取一行，可用于流式输入
+     */
+    public static Iterator<List<String>> splitBlocks(Iterator<String> lines) {
+        return new Iterator<List<String>>() {
+            private String pending = lines.hasNext() ? lines.next() : null;
+
+            @Override
+            public boolean hasNext() {
+                return pending != null;
+            }
+
+            @Override
+            public List<String> next() {
+                if (pending == null) {
+                    throw new NoSuchElementException();
+                }
+                List<String> block = new ArrayList<>();
+                block.add(pending);
+                pending = null;
+                while (lines.hasNext()) {
+                    String line = lines.next();
+                    if (isBlockStart(line)) {
+                        pending = line;
+                        break;
+                    }
+                    block.add(line);
+                }
+                return block;
+            }
+        };
+    }
+
+    /**
+     * 转换 splitBlocks 切分出的一个块，可在多个线程上同时调用
+     * @return 该块生成的代码，没有输出时返回 null
+     */
+    public String convertBlock(List<String> blockLines) {
+        String[] result = new String[1];
+        convertFile(blockLines, code -> result[0] = code);
+        return result[0];
+    }
+
+    /**
+     * 增量转换：按块与上一次的结果比较，内容没有变化的块直接复用上次生成的代码
+     * @param blockCache 块文本 -> 生成的代码（没有输出时为 null），转换后只保留本次出现的块
+     * @param sink 接收每个块生成的代码，按输入顺序调用
+     * @return 块数和复用的块数
+     */
+    public IncrementalResult convertIncrementally(List<String> lines, Map<String, String> blockCache,
+            Consumer<String> sink) {
+        Map<String, String> current = new HashMap<>();
+        int count = 0;
+        int reused = 0;
+        Iterator<List<String>> blocks = splitBlocks(lines.iterator());
+        while (blocks.hasNext()) {
+            List<String> block = blocks.next();
+            count++;
+            String key = String.join("\n", block);
+            String code;
+            if (current.containsKey(key)) {
+                code = current.get(key);
+                reused++;
+            } else if (blockCache.containsKey(key)) {
+                code = blockCache.get(key);
+                reused++;
             } else {
-                fieldName = fieldName.replace("\\", "");
+                code = convertBlock(block);
+            }
+            current.put(key, code);
+            if (code != null) {
+                sink.accept(code);
             }
-            return String.format("this.%s = \"\";", fieldName);
         }
-        
-        // 处理简单赋值（带"＝"）
-        Matcher equalsAssignMatcher = SIMPLE_EQUALS_PATTERN.matcher(line);
-        if (equalsAssignMatcher.find()) {
-            String entityId = equalsAssignMatcher.group(1);
-            String value = equalsAssignMatcher.group(4);
-            String instanceName = getInstanceName(entityId);
-            return String.format("%s.setTestField1(%s);", instanceName, value);
+        blockCache.clear();
+        blockCache.putAll(current);
+        return new IncrementalResult(count, reused);
+    }
+
+    /**
+     * 实体文件变化后调用，之后的转换重新从实体目录取得实体信息
+     */
+    public void reloadEntities() {
+        if (entityInfoMap != null) {
+            entityInfoMap.clear();
         }
-        
-        return null;
+    }
+
+    /**
+     * 创建流式转换阶段：逐行处理，条件块结束时立即输出，内存中最多只保留一个块
+     */
+    public StreamingPipeline.ConverterStage newStreamingStage() {
+        BlockCursor cursor = new BlockCursor();
+        return new StreamingPipeline.ConverterStage() {
+            @Override
+            public void process(String line, Consumer<String> out) {
+                processLine(line, cursor, out);
+            }
+
+            @Override
+            public void finish(Consumer<String> out) {
+                finishBlock(cursor, out);
+            }
+        };
     }
 
     private void processConditionLine(String line, GeneratedType2JavaInfo info) {
@@ -219,37 +307,38 @@ public class Type2TextConverter implements TextConverter {
             conditionInfo.setLogicalOperator(operator);
         }
 
-        Matcher comparisonMatcher = COMPARISON_PATTERN.matcher(condition);
-        if (comparisonMatcher.find()) {
-            String leftSide = comparisonMatcher.group(1).trim();
-            String op = comparisonMatcher.group(2);
-            String rightSide = comparisonMatcher.group(3).trim();
+        // 项目引用之外的 ＝/≠ 为比较运算符
+        Token operatorToken = null;
+        for (Token token : ItemReferenceLexer.tokenize(condition)) {
+            if (token.is(TokenType.KEYWORD, "＝") || token.is(TokenType.KEYWORD, "≠")) {
+                operatorToken = token;
+                break;
+            }
+        }
+        if (operatorToken != null) {
+            String leftSide = condition.substring(0, operatorToken.getStart()).trim();
+            String op = operatorToken.getValue();
+            String rightSide = condition.substring(operatorToken.getEnd()).trim();
             
             logger.info("Extracted comparison - left: {}, operator: {}, right: {}", 
                 leftSide, op, rightSide);
             
-            String leftValue = extractValue(leftSide);
-            String rightValue = extractValue(rightSide);
+            Operand leftValue = extractValue(leftSide);
+            Operand rightValue = extractValue(rightSide);
             
             logger.info("Converted values - left: {}, right: {}", leftValue, rightValue);
             
             if (leftValue != null && rightValue != null) {
-                conditionInfo.addPart(new GeneratedType2JavaInfo.ConditionPart(
-                    leftValue,
-                    op,
-                    rightValue,
-                    false  // 正常的条件
-                ));
+                conditionInfo.addPart(new GeneratedType2JavaInfo.ConditionPart(leftValue, op, rightValue));
                 return true;
             } else {
                 logger.error("Failed to extract values - left: [{}], right: [{}]", 
                     leftValue, rightValue);
                 // 添加错误的条件部分
-                conditionInfo.addPart(new GeneratedType2JavaInfo.ConditionPart(
+                conditionInfo.addPart(GeneratedType2JavaInfo.ConditionPart.error(
                     leftSide,  // 原始的左值
                     op,        // 原始的操作符
-                    rightSide, // 原始的右值
-                    true      // 标记为错误
+                    rightSide  // 原始的右值
                 ));
                 return false;
             }
@@ -259,7 +348,7 @@ public class Type2TextConverter implements TextConverter {
         }
     }
 
-    private String getEntityFieldReference(String entityId, String fieldComment) {
+    private Operand getEntityFieldReference(String entityId, String fieldComment) {
         // 记录日志，帮助调试
         logger.info("Getting entity field reference - entityId: [{}], fieldComment: [{}]", 
             entityId, fieldComment);
@@ -268,8 +357,7 @@ public class Type2TextConverter implements TextConverter {
         if (entityInfo != null) {
             FieldInfo fieldInfo = entityInfo.findFieldByComment(fieldComment);
             if (fieldInfo != null) {
-                String instanceName = getInstanceName(entityId);
-                String reference = instanceName + "." + fieldInfo.getGetMethod() + "()";
+                Operand reference = Operand.entityGetter(getInstanceName(entityId), fieldInfo);
                 logger.info("Generated reference: [{}]", reference);
                 return reference;
             } else {
@@ -300,7 +388,7 @@ public class Type2TextConverter implements TextConverter {
             String entityFile = entityFiles.get(entityId);
             if (entityFile != null) {
                 try {
-                    entityInfoMap.put(entityId, JavaFileReader.readJavaFileToModel(entityFile));
+                    entityInfoMap.put(entityId, EntityCatalog.getInstance().get(entityFile));
                 } catch (IOException e) {
                     logger.error("Failed to read entity file for {}", entityId, e);
                     return null;
@@ -310,18 +398,20 @@ public class Type2TextConverter implements TextConverter {
         return entityInfoMap.get(entityId);
     }
 
-    private String extractValue(String text) {
+    private Operand extractValue(String text) {
         logger.info("Extracting value from: {}", text);
         text = text.trim();
         
-        // 处理体字段引用
-        Matcher entityMatcher = ENTITY_PATTERN.matcher(text);
-        if (entityMatcher.find()) {
-            String entityId = entityMatcher.group(1);  // 获取第一个号内的实体ID
-            String fieldComment = entityMatcher.group(3);
+        List<Token> tokens = ItemReferenceLexer.tokenize(text);
+
+        // 处理实体字段引用
+        int ref = ItemReferenceLexer.indexOf(tokens, TokenType.ENTITY_REF, 0);
+        if (ref >= 0) {
+            String entityId = tokens.get(ref).getValue();  // 第一个括号内的实体ID
+            String fieldComment = tokens.get(ref + 1).getValue();
             logger.info("Found entity reference - id: {}, comment: {}", entityId, fieldComment);
             
-            String reference = getEntityFieldReference(entityId, fieldComment);
+            Operand reference = getEntityFieldReference(entityId, fieldComment);
             if (reference != null) {
                 logger.info("Converted to entity reference: {}", reference);
                 return reference;
@@ -330,85 +420,27 @@ public class Type2TextConverter implements TextConverter {
             return null;
         }
 
-        // 处理直接字段引用
-        Matcher directMatcher = DIRECT_PATTERN.matcher(text);
-        if (directMatcher.find()) {
-            String prefix = directMatcher.group(1);  // 获取前缀（如 "D"）
-            String name = directMatcher.group(2);    // 获取名称（如 "AABB"）
-            String fieldName = prefix + name;        // 组合（如 "DAABB"）
-            logger.info("Found direct field reference: prefix=[{}], name=[{}], result=[{}]", 
-                prefix, name, fieldName);
-            return "this." + fieldName;
+        // 处理直接字段引用（如 D\AABB -> DAABB）
+        int direct = ItemReferenceLexer.indexOf(tokens, TokenType.DIRECT_REF, 0);
+        if (direct >= 0) {
+            String fieldName = tokens.get(direct).getValue();
+            logger.info("Found direct field reference: [{}]", fieldName);
+            return Operand.defineVariable(fieldName);
         }
 
         // 处理布尔字段引用
-        Matcher booleanMatcher = BOOLEAN_PATTERN.matcher(text);
-        if (booleanMatcher.find()) {
-            return "this." + booleanMatcher.group(1);
+        int indicator = ItemReferenceLexer.indexOf(tokens, TokenType.INDICATOR, 0);
+        if (indicator >= 0) {
+            return Operand.defineVariable(tokens.get(indicator).getValue());
         }
 
         // 处理 ブランク
         if (text.equals("ブランク") || text.equals("ﾌﾞﾗﾝｸ")) {
-            return "\"\"";
+            return Operand.blank();
         }
 
         logger.info("Extracted value: {}", text);
-        return text;
-    }
-
-    private String normalizeSpaces(String line) {
-        if (line == null) return null;
-        
-        // 记录原始行用于日志
-        String originalLine = line;
-        
-        // 1. 将全角格转换为半角空格
-        line = line.replace('　', ' ');
-        
-        // 2. 去除括号内的空格
-        // 处理「」内的空格
-        StringBuilder result = new StringBuilder();
-        int lastPos = 0;
-        Pattern pattern = Pattern.compile("「([^」]*)」");
-        Matcher matcher = pattern.matcher(line);
-        while (matcher.find()) {
-            result.append(line.substring(lastPos, matcher.start()));
-            String content = matcher.group(1).replaceAll("\\s+", "");
-            result.append("「").append(content).append("」");
-            lastPos = matcher.end();
-        }
-        if (lastPos < line.length()) {
-            result.append(line.substring(lastPos));
-        }
-        line = result.toString();
-        
-        // 处理 () 内的空格
-        result = new StringBuilder();
-        lastPos = 0;
-        pattern = Pattern.compile("\\(([^)]*)\\)");
-        matcher = pattern.matcher(line);
-        while (matcher.find()) {
-            result.append(line.substring(lastPos, matcher.start()));
-            String content = matcher.group(1).replaceAll("\\s+", "");
-            result.append("(").append(content).append(")");
-            lastPos = matcher.end();
-        }
-        if (lastPos < line.length()) {
-            result.append(line.substring(lastPos));
-        }
-        line = result.toString();
-        
-        // 3. 将多连续空格转换为单个空格
-        line = line.replaceAll("\\s+", " ");
-        
-        // 4. 去除前后空格
-        line = line.trim();
-        
-        if (!line.equals(originalLine)) {
-            logger.debug("Space normalization - Original: [{}], Normalized: [{}]", originalLine, line);
-        }
-        
-        return line;
+        return Operand.of(text);
     }
 
     private void processAssignmentLine(String line, GeneratedType2JavaInfo currentInfo) {
@@ -447,11 +479,10 @@ public class Type2TextConverter implements TextConverter {
     private boolean tryProcessDirectAssignment(String line, GeneratedType2JavaInfo currentInfo) {
         if (line.contains("ブランク") || line.contains("ﾌﾞﾗﾝｸ")) {
             try {
-                Matcher directMatcher = DIRECT_PATTERN.matcher(line);
-                if (directMatcher.find()) {
-                    String prefix = directMatcher.group(1);
-                    String name = directMatcher.group(2);
-                    String fieldName = prefix + name.replace("\\", "").trim();
+                List<Token> tokens = ItemReferenceLexer.tokenize(line);
+                int direct = ItemReferenceLexer.indexOf(tokens, TokenType.DIRECT_REF, 0);
+                if (direct >= 0) {
+                    String fieldName = tokens.get(direct).getValue();
                     currentInfo.addAssignment(new GeneratedType2JavaInfo.Assignment(
                         fieldName,
                         "\"\"",
@@ -471,9 +502,10 @@ public class Type2TextConverter implements TextConverter {
     private boolean tryProcessBooleanAssignment(String line, GeneratedType2JavaInfo currentInfo) {
         if (line.contains("*") && line.contains("'1'")) {
             try {
-                Matcher booleanMatcher = BOOLEAN_PATTERN.matcher(line);
-                if (booleanMatcher.find()) {
-                    String fieldName = booleanMatcher.group(1).trim();
+                List<Token> tokens = ItemReferenceLexer.tokenize(line);
+                int indicator = ItemReferenceLexer.indexOf(tokens, TokenType.INDICATOR, 0);
+                if (indicator >= 0) {
+                    String fieldName = tokens.get(indicator).getValue();
                     currentInfo.addAssignment(new GeneratedType2JavaInfo.Assignment(
                         fieldName,
                         "'1'",
@@ -493,11 +525,17 @@ public class Type2TextConverter implements TextConverter {
     private boolean tryProcessNumberAssignment(String line, GeneratedType2JavaInfo currentInfo) {
         if (line.contains("＝")) {
             try {
-                Matcher equalsAssignMatcher = SIMPLE_EQUALS_PATTERN.matcher(line);
-                if (equalsAssignMatcher.find()) {
-                    String entityId = equalsAssignMatcher.group(1);
-                    String fieldComment = equalsAssignMatcher.group(3);
-                    String value = equalsAssignMatcher.group(4);
+                // 行首为实体字段引用，紧跟 ＝ 和数字
+                List<Token> tokens = ItemReferenceLexer.tokenize(line);
+                if (tokens.size() >= 4
+                        && tokens.get(0).getType() == TokenType.ENTITY_REF
+                        && tokens.get(0).getStart() == 0
+                        && tokens.get(2).is(TokenType.KEYWORD, "＝")
+                        && tokens.get(2).getStart() == tokens.get(0).getEnd()
+                        && tokens.get(3).isNumber()) {
+                    String entityId = tokens.get(0).getValue();
+                    String fieldComment = tokens.get(1).getValue();
+                    String value = tokens.get(3).getValue();
                     
                     String instanceName = getInstanceName(entityId);
                     ClassInfo entityInfo = getEntityInfo(entityId);
@@ -529,26 +567,26 @@ public class Type2TextConverter implements TextConverter {
     }
 
     private boolean processEntityToEntityAssignment(String line, GeneratedType2JavaInfo currentInfo) {
-        // 提取源实体和目标实体
-        Matcher sourceMatcher = ENTITY_PATTERN.matcher(line);
-        if (!sourceMatcher.find()) {
+        // 第一个实体为目标实体，第二个实体为源实体
+        List<Token> tokens = ItemReferenceLexer.tokenize(line);
+        int target = ItemReferenceLexer.indexOf(tokens, TokenType.ENTITY_REF, 0);
+        if (target < 0) {
             currentInfo.handleFailure(line, "Failed to match source entity pattern");
             return false;
         }
 
-        String targetEntityId = sourceMatcher.group(1);
-        String targetFieldComment = sourceMatcher.group(3);
+        String targetEntityId = tokens.get(target).getValue();
+        String targetFieldComment = tokens.get(target + 1).getValue();
         
         // 查找第二个实体引用
-        String remaining = line.substring(sourceMatcher.end());
-        Matcher targetMatcher = ENTITY_PATTERN.matcher(remaining);
-        if (!targetMatcher.find()) {
+        int source = ItemReferenceLexer.indexOf(tokens, TokenType.ENTITY_REF, target + 2);
+        if (source < 0) {
             currentInfo.handleFailure(line, "Failed to match target entity pattern");
             return false;
         }
 
-        String sourceEntityId = targetMatcher.group(1);
-        String sourceFieldComment = targetMatcher.group(3);
+        String sourceEntityId = tokens.get(source).getValue();
+        String sourceFieldComment = tokens.get(source + 1).getValue();
         
         try {
             String targetInstanceName = getInstanceName(targetEntityId);
@@ -588,98 +626,19 @@ public class Type2TextConverter implements TextConverter {
     }
 
     /**
-     * 去除行首和行尾的双引号，保留行中间的双引号
+     * 生成一个块的代码；启用了逻辑转换时由后处理器按操作数类型生成比较运算
      */
-    private String removeQuotes(String line) {
-        if (line == null) return null;
-        
-        // 记录原始行用于日志
-        String originalLine = line;
-        
-        // 去除前后空格
-        line = line.trim();
-        
-        // 处理开头的双引号
-        if (line.startsWith("\"")) {
-            line = line.substring(1);
+    private String generateCode(GeneratedType2JavaInfo info) {
+        if (!enableLogicConversion || logicProcessor == null) {
+            return info.generateCode();
         }
-        
-        // 处理结尾的双引号
-        if (line.endsWith("\"")) {
-            line = line.substring(0, line.length() - 1);
-        }
-        
-        if (!line.equals(originalLine)) {
-            logger.debug("Quote removal - Original: [{}], Cleaned: [{}]", originalLine, line);
-        }
-        
-        return line;
-    }
-
-    private List<String> processLogicConversion(List<String> generatedCodeList) {
-        logger.info("Logic conversion is enabled, processing {} lines", generatedCodeList.size());
-        
-        // 确保实体信息已加载
-        if (entityInfoMap.isEmpty() && entityFiles != null) {
-            try {
-                for (Map.Entry<String, String> entry : entityFiles.entrySet()) {
-                    String entityId = entry.getKey();
-                    String filePath = entry.getValue();
-                    entityInfoMap.put(entityId, JavaFileReader.readJavaFileToModel(filePath));
-                    logger.debug("Loaded entity info for {}", entityId);
-                }
-            } catch (IOException e) {
-                logger.error("Failed to load entity files", e);
-            }
-        }
-
-        // 创建处理器并设置必要的信息
-        LogicOperatorPostProcessor logicProcessor = new LogicOperatorPostProcessor();
-        logicProcessor.setEntityInfos(entityInfoMap);
-        
-        List<String> processedCode = new ArrayList<>();
-        for (String code : generatedCodeList) {
-            try {
-                String processed = logicProcessor.process(code);
-                logger.info("Original code: [{}]", code);
-                logger.info("Processed code: [{}]", processed);
-                processedCode.add(processed);
-            } catch (Exception e) {
-                logger.error("Error processing code: {}", code, e);
-                processedCode.add(code);  // 出错时保留原代码
-            }
-        }
-        return processedCode;
-    }
-
-    private void processLogicConversion(String code, Map<String, String> logicOperatorMapping) {
-        if (!enableLogicConversion) {
-            return;
-        }
-
         try {
-            if (logicProcessor == null) {
-                logicProcessor = new LogicOperatorPostProcessor();
-                logicProcessor.setEntityInfos(entityInfoMap);
-                // 设置变量定义
-                logicProcessor.setVariableDefinitions(variableDefinitions);
-            }
-            
-            String processedCode = logicProcessor.process(code);
-            
-            if (!code.equals(processedCode)) {
-                logger.info("Logic conversion applied:\nBefore: {}\nAfter: {}", code, processedCode);
-                // 处理逻辑运算符映射
-                for (Map.Entry<String, String> entry : logicOperatorMapping.entrySet()) {
-                    processedCode = processedCode.replace(entry.getKey(), entry.getValue());
-                }
-                convertedCode.append(processedCode).append("\n");
-            } else {
-                convertedCode.append(code).append("\n");
-            }
+            String processed = logicProcessor.process(info);
+            logger.info("Processed code: [{}]", processed);
+            return processed;
         } catch (Exception e) {
-            logger.error("Error in logic conversion", e);
-            convertedCode.append(code).append("\n");
+            logger.error("Error processing block", e);
+            return info.generateCode();  // 出错时保留原代码
         }
     }
-} 
\ No newline at end of file
+}
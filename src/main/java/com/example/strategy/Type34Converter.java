@@ -0,0 +1,64 @@
+package com.example.strategy;
+
+import com.example.model.ColumnLayout;
+import com.example.model.DefinitionRow;
+import com.example.util.RowSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.function.Consumer;
+
+/**
+ * Type3/Type4 合并转换
+ * 标量变量和数组定义在同一个工作表中时，只读取一次文件（SAX 或 CSV/TSV），每行分类后分发：
+ * 标量交给 Type4 生成变量声明，数组的开始行和续行交给 Type3 生成数组。
+ * 遇到标量时结束当前数组，之后的续行不会加到它上面。列号使用 Type3 按格式配置的列号。
+ */
+public class Type34Converter {
+    private static final Logger logger = LoggerFactory.getLogger(Type34Converter.class);
+
+    private final Type3TextConverter arrayConverter;
+    private final Type4TextConverter scalarConverter;
+
+    public Type34Converter(Type3TextConverter arrayConverter, Type4TextConverter scalarConverter) {
+        this.arrayConverter = arrayConverter;
+        this.scalarConverter = scalarConverter;
+    }
+
+    /**
+     * 转换第一个工作表（或 CSV/TSV 文件）
+     * @param arraySink 数组的代码（Type3 的输出）
+     * @param scalarSink 变量声明（Type4 的输出）
+     */
+    public void convert(String filePath, Consumer<String> arraySink, Consumer<String> scalarSink) throws IOException {
+        long start = System.nanoTime();
+        File file = new File(filePath);
+        ColumnLayout columns = arrayConverter.begin(file);
+        int[] counts = new int[DefinitionRow.Kind.values().length];
+        RowSource.of(file, 0).read((rowIndex, cells) -> {
+            // 跳过表头
+            if (rowIndex < 1) return;
+            DefinitionRow row = DefinitionRow.parse(cells, rowIndex, columns);
+            if (row == null) return;
+            counts[row.getKind().ordinal()]++;
+            if (row.getKind() == DefinitionRow.Kind.SCALAR) {
+                emit(arrayConverter.flush(), arraySink);
+                emit(scalarConverter.processRow(row), scalarSink);
+            } else {
+                emit(arrayConverter.processRow(row), arraySink);
+            }
+        });
+        emit(arrayConverter.finish(), arraySink);
+        logger.info("Converted {} scalars and {} arrays ({} continuation rows) from {} in {} ms",
+            counts[DefinitionRow.Kind.SCALAR.ordinal()], counts[DefinitionRow.Kind.ARRAY_HEAD.ordinal()],
+            counts[DefinitionRow.Kind.CONTINUATION.ordinal()], filePath, (System.nanoTime() - start) / 1_000_000);
+    }
+
+    private static void emit(String code, Consumer<String> sink) {
+        if (code != null) {
+            sink.accept(code);
+        }
+    }
+}
@@ -1,114 +1,243 @@
 package com.example.strategy;
 
+import com.example.model.ColumnLayout;
+import com.example.model.DefinitionRow;
+import com.example.util.DelimitedRowSource;
+import com.example.util.GeneratedCodeWriter;
+import com.example.util.RowSource;
 import org.apache.poi.ss.usermodel.*;
 import org.apache.poi.xssf.usermodel.XSSFWorkbook;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import java.io.File;
 import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
 
 public class Type3TextConverter {
     private static final Logger logger = LoggerFactory.getLogger(Type3TextConverter.class);
-    private static final int VAR_NAME_COL = 0;      // 变量名列
-    private static final int COMMENT_COL = 1;       // 注释列
-    private static final int TYPE_COL = 2;          // 数据类型列
-    private static final int ARRAY_LENGTH_COL = 5;  // 数组长度列
-    private static final int DEFAULT_VALUE_COL = 7; // 默认值列
+    private static final int CHUNK_SIZE = 500;      // 分块初始化时每个方法赋值的元素数（约 4KB 字节码）
 
     // 添加成员变量保存当前处理的变量信息
     private String currentVarName;
     private String currentJavaType;
     private String currentComment;  // 添加注释变量
     private List<String> currentDefaultValues = new ArrayList<>();
+    private boolean currentMutable;
+    private boolean streaming;  // 使用 SAX 流式读取，不建立整个工作簿的 DOM
+    // 按格式（xlsx、csv、tsv）配置的列号，未配置的格式使用默认列号
+    private final Map<String, ColumnLayout> columnsByFormat = new HashMap<>();
+    private ColumnLayout columns = new ColumnLayout();
+    // 超过 chunkThreshold 个元素的数组拆分到多个初始化方法中，超过 externalThreshold 个元素的
+    // 数组写到资源文件，由持有类在首次访问时加载；0 表示不使用该方式
+    private int chunkThreshold;
+    private int externalThreshold;
+    private Path resourceDir;
+    private boolean resourceLoaderEmitted;
+    // 共享常量模式：不可变的数组生成为 private static final，所有实例共用；
+    // 可变的数组共用一份静态的初始值，每个实例复制一份
+    private boolean sharedConstants;
+    private int sharedArrayCount;
+    private int copiedArrayCount;
+    private long sharedBytesPerInstance;
+
+    public void setStreaming(boolean streaming) {
+        this.streaming = streaming;
+    }
+
+    public void setColumns(String format, ColumnLayout layout) {
+        columnsByFormat.put(format, layout);
+    }
+
+    public void setSharedConstants(boolean sharedConstants) {
+        this.sharedConstants = sharedConstants;
+    }
+
+    /**
+     * 最近一次转换中，共享常量模式使每个生成类的实例少分配的堆大小（字节）
+     */
+    public long getSharedBytesPerInstance() {
+        return sharedBytesPerInstance;
+    }
+
+    public void setChunkThreshold(int chunkThreshold) {
+        this.chunkThreshold = chunkThreshold;
+    }
+
+    /**
+     * @param resourceDir 外部化数组的资源文件目录，生成的类加载时在同一个包中查找资源
+     */
+    public void setExternalThreshold(int externalThreshold, Path resourceDir) {
+        this.externalThreshold = externalThreshold;
+        this.resourceDir = resourceDir;
+    }
 
     public List<String> convertExcelFile(String filePath) {
         List<String> generatedCode = new ArrayList<>();
-        
-        try (FileInputStream fis = new FileInputStream(filePath);
-             Workbook workbook = new XSSFWorkbook(fis)) {
-            
-            Sheet sheet = workbook.getSheetAt(0);
-            // 从第二行开始遍历（跳过表头）
-            for (int i = 1; i <= sheet.getLastRowNum(); i++) {
-                Row row = sheet.getRow(i);
-                if (row == null) continue;
-
-                String code = processRow(row);
-                if (code != null) {
-                    generatedCode.add(code);
+        convertExcelFile(filePath, generatedCode::add);
+        return generatedCode;
+    }
+
+    /**
+     * 转换第一个工作表（或 CSV/TSV 文件），每个数组的代码生成后立即交给 sink
+     */
+    public void convertExcelFile(String filePath, Consumer<String> sink) {
+        File file = new File(filePath);
+        begin(file);
+        try {
+            if (streaming || DelimitedRowSource.isDelimited(file)) {
+                // 逐行解析，跳过表头
+                RowSource.of(file, 0).read((rowIndex, cells) -> {
+                    if (rowIndex >= 1) {
+                        emit(processRow(cells, rowIndex), sink);
+                    }
+                });
+            } else {
+                try (FileInputStream fis = new FileInputStream(file);
+                     Workbook workbook = new XSSFWorkbook(fis)) {
+                    
+                    Sheet sheet = workbook.getSheetAt(0);
+                    // 从第二行开始遍历（跳过表头）
+                    for (int i = 1; i <= sheet.getLastRowNum(); i++) {
+                        Row row = sheet.getRow(i);
+                        if (row == null) continue;
+
+                        emit(processRow(toCells(row), i), sink);
+                    }
                 }
             }
             
             // 处理最后一个变量
-            if (currentVarName != null) {
-                String finalCode = generateArrayCode();
-                if (finalCode != null) {
-                    generatedCode.add(finalCode);
-                }
-            }
+            emit(finish(), sink);
             
         } catch (Exception e) {
             logger.error("Error processing Excel file: {}", filePath, e);
         }
-        
-        return generatedCode;
     }
 
-    private String processRow(Row row) {
-        try {
-            String varName = getCellStringValue(row.getCell(VAR_NAME_COL));
-            String defaultValues = getCellStringValue(row.getCell(DEFAULT_VALUE_COL));
+    /**
+     * 开始转换一个文件：按文件格式选择列号并重置状态
+     * @return 该文件使用的列号
+     */
+    public ColumnLayout begin(File file) {
+        columns = columnsByFormat.getOrDefault(RowSource.formatOf(file), new ColumnLayout());
+        resetCurrentVariable();
+        resourceLoaderEmitted = false;
+        sharedArrayCount = 0;
+        copiedArrayCount = 0;
+        sharedBytesPerInstance = 0;
+        return columns;
+    }
+
+    /**
+     * 结束转换
+     * @return 最后一个数组的代码，没有时返回 null
+     */
+    public String finish() {
+        String code = flush();
+        if (sharedConstants) {
+            logger.info("Shared {} constant arrays, {} mutable arrays copied per instance: "
+                + "each instance saves about {} bytes of heap", sharedArrayCount, copiedArrayCount, sharedBytesPerInstance);
+        }
+        return code;
+    }
+
+    /**
+     * 结束当前的数组（例如遇到了标量变量，后面的续行不再属于它）
+     * @return 当前数组的代码，没有时返回 null
+     */
+    public String flush() {
+        String code = generateArrayCode();
+        resetCurrentVariable();
+        return code;
+    }
+
+    private static void emit(String code, Consumer<String> sink) {
+        if (code != null) {
+            sink.accept(code);
+        }
+    }
+
+    private void resetCurrentVariable() {
+        currentVarName = null;
+        currentJavaType = null;
+        currentComment = null;
+        currentDefaultValues.clear();
+        currentMutable = false;
+    }
+
+    /**
+     * 读取本转换器用到的列的值
+     */
+    private String[] toCells(Row row) {
+        String[] cells = new String[columns.getMaxColumn() + 1];
+        for (int col : new int[] {columns.getVarName(), columns.getComment(), columns.getType(),
+                columns.getArrayLength(), columns.getDefaultValue(), columns.getMutable()}) {
+            cells[col] = getCellStringValue(row.getCell(col));
+        }
+        return cells;
+    }
 
+    /**
+     * 处理一行（按列号排列的单元格值），DOM 和流式读取共用
+     * @return 前一个变量的数组代码，没有时返回 null
+     */
+    public String processRow(String[] cells, int rowNum) {
+        return processRow(DefinitionRow.parse(cells, rowNum, columns));
+    }
+
+    /**
+     * 处理分类后的一行：有变量名的行（不论是否有数组长度）开始一个新数组，续行的默认值加到当前数组
+     * @return 前一个变量的数组代码，没有时返回 null
+     */
+    public String processRow(DefinitionRow row) {
+        if (row == null) return null;
+        try {
             // 如果只有默认值列有值，添加到当前变量的默认值列表中
-            if (isEmptyExceptDefaultValue(row) && defaultValues != null && !defaultValues.trim().isEmpty()) {
+            if (row.getKind() == DefinitionRow.Kind.CONTINUATION) {
                 if (currentVarName != null) {
-                    // 添加新的默认值
-                    String[] values = defaultValues.trim().split("\\s+");
-                    currentDefaultValues.addAll(Arrays.asList(values));
-                    return null;  // 不生成代码，继续收集默认值
+                    currentDefaultValues.addAll(Arrays.asList(row.splitDefaultValues()));
                 }
-                return null;
+                return null;  // 不生成代码，继续收集默认值
             }
 
             // 如果是新变量，先处理之前的变量
-            String previousCode = null;
-            if (currentVarName != null && varName != null && !varName.trim().isEmpty()) {
-                previousCode = generateArrayCode();
-                // 重置当前变量信息
-                currentVarName = null;
-                currentJavaType = null;
-                currentComment = null;  // 重置注释
-                currentDefaultValues.clear();
-            }
+            String previousCode = flush();
 
             // 处理新变量
-            if (varName != null && !varName.trim().isEmpty()) {
-                currentVarName = varName.toLowerCase();
-                currentJavaType = convertType(getCellStringValue(row.getCell(TYPE_COL)));
-                currentComment = getCellStringValue(row.getCell(COMMENT_COL));  // 保存注释
-                if (defaultValues != null && !defaultValues.trim().isEmpty()) {
-                    currentDefaultValues.addAll(Arrays.asList(defaultValues.trim().split("\\s+")));
-                }
-            }
+            currentVarName = row.getVarName().toLowerCase();
+            currentJavaType = convertType(row.getType());
+            currentComment = row.getComment();  // 保存注释
+            currentMutable = isMarked(row.getMutable());
+            currentDefaultValues.addAll(Arrays.asList(row.splitDefaultValues()));
 
             return previousCode;
             
         } catch (Exception e) {
-            logger.error("Error processing row: {}", row.getRowNum(), e);
+            logger.error("Error processing row: {}", row.getRowIndex(), e);
             return null;
         }
     }
 
-    private boolean isEmptyExceptDefaultValue(Row row) {
-        if (row == null) return false;
-        
-        // 检查除了默认值列以外的其他列是否都为空
-        return getCellStringValue(row.getCell(VAR_NAME_COL)) == null &&
-               getCellStringValue(row.getCell(COMMENT_COL)) == null &&
-               getCellStringValue(row.getCell(TYPE_COL)) == null &&
-               getCellStringValue(row.getCell(ARRAY_LENGTH_COL)) == null;
+    private static boolean isMarked(String value) {
+        if (value == null) return false;
+        switch (value.trim().toLowerCase()) {
+            case "1":
+            case "y":
+            case "yes":
+            case "true":
+            case "○":
+                return true;
+            default:
+                return false;
+        }
     }
 
     private String generateArrayCode() {
@@ -121,25 +250,171 @@ public class Type3TextConverter {
             code.append("    // ").append(currentComment).append("\n");
         }
         
-        // 生成数组声明
-        code.append("    private ").append(currentJavaType).append("[] ")
-            .append(currentVarName).append(" = ");
+        int size = currentDefaultValues.size();
+        if (externalThreshold > 0 && size > externalThreshold && resourceDir != null
+                && "String".equals(currentJavaType)) {
+            appendExternalArray(code);
+            return code.toString();
+        }
+        if (chunkThreshold > 0 && size > chunkThreshold) {
+            appendChunkedArray(code);
+            return code.toString();
+        }
 
         // 处理默认值
+        StringBuilder initializer = new StringBuilder();
         if (!currentDefaultValues.isEmpty()) {
-            code.append("new ").append(currentJavaType).append("[] {");
+            initializer.append("new ").append(currentJavaType).append("[] {");
             for (int i = 0; i < currentDefaultValues.size(); i++) {
-                if (i > 0) code.append(", ");
-                code.append(formatValue(currentJavaType, currentDefaultValues.get(i)));
+                if (i > 0) initializer.append(", ");
+                initializer.append(formatValue(currentJavaType, currentDefaultValues.get(i)));
             }
-            code.append("};");
+            initializer.append("}");
         } else {
-            code.append("new ").append(currentJavaType).append("[0];");
+            initializer.append("new ").append(currentJavaType).append("[0]");
         }
 
+        // 生成数组声明
+        appendField(code, initializer.toString(), false);
         return code.toString();
     }
 
+    /**
+     * 生成数组字段的声明
+     * @param initializer 创建数组的表达式
+     * @param sharedSource initializer 每次求值都返回同一个数组（外部化的持有类），实例需要自己的数组时要复制
+     */
+    private void appendField(StringBuilder code, String initializer, boolean sharedSource) {
+        String type = currentJavaType + "[]";
+        if (!sharedConstants) {
+            code.append("    private ").append(type).append(" ").append(currentVarName).append(" = ")
+                .append(initializer).append(sharedSource ? ".clone();" : ";");
+            return;
+        }
+        if (currentMutable) {
+            // 初始值只创建一次，每个实例用 clone（arraycopy）复制，不再逐个元素赋值
+            copiedArrayCount++;
+            if (sharedSource) {
+                code.append("    private ").append(type).append(" ").append(currentVarName).append(" = ")
+                    .append(initializer).append(".clone();");
+            } else {
+                String defaults = currentVarName + "Defaults";
+                code.append("    private static final ").append(type).append(" ").append(defaults).append(" = ")
+                    .append(initializer).append(";\n");
+                code.append("    private ").append(type).append(" ").append(currentVarName).append(" = ")
+                    .append(defaults).append(".clone();");
+            }
+            return;
+        }
+        sharedArrayCount++;
+        long saved = arrayBytes(currentDefaultValues.size());
+        sharedBytesPerInstance += saved;
+        logger.debug("Sharing constant array {} ({} values, {} bytes per instance)",
+            currentVarName, currentDefaultValues.size(), saved);
+        if (sharedSource) {
+            // 外部化的数组仍由持有类延迟加载，实例只保存引用
+            code.append("    private final ").append(type).append(" ").append(currentVarName).append(" = ")
+                .append(initializer).append(";");
+        } else {
+            code.append("    private static final ").append(type).append(" ").append(currentVarName).append(" = ")
+                .append(initializer).append(";");
+        }
+    }
+
+    /**
+     * 引用数组的浅大小：64 位 JVM、压缩指针时对象头 12 字节 + 长度 4 字节 + 每个元素 4 字节，按 8 字节对齐。
+     * 元素是字符串常量（已驻留，所有实例共用），不计入
+     */
+    private static long arrayBytes(int length) {
+        return (16 + 4L * length + 7) & ~7L;
+    }
+
+    /**
+     * 分块初始化：数组初始化器的字节码每个元素约 7~8 字节，几千个元素就会超过方法 64KB 的上限，
+     * 而且超过 8000 字节的方法不会被 JIT 编译。这里由一个方法创建数组，再依次调用每块一个的赋值方法
+     */
+    private void appendChunkedArray(StringBuilder code) {
+        String type = currentJavaType;
+        String method = currentVarName + "Values";
+        int size = currentDefaultValues.size();
+        appendField(code, method + "()", false);
+        code.append("\n\n");
+
+        code.append("    private static ").append(type).append("[] ").append(method).append("() {\n");
+        code.append("        ").append(type).append("[] values = new ").append(type)
+            .append("[").append(size).append("];\n");
+        for (int chunk = 0; chunk * CHUNK_SIZE < size; chunk++) {
+            code.append("        ").append(method).append(chunk).append("(values);\n");
+        }
+        code.append("        return values;\n");
+        code.append("    }");
+
+        for (int chunk = 0; chunk * CHUNK_SIZE < size; chunk++) {
+            code.append("\n\n    private static void ").append(method).append(chunk)
+                .append("(").append(type).append("[] values) {\n");
+            for (int i = chunk * CHUNK_SIZE; i < Math.min(size, (chunk + 1) * CHUNK_SIZE); i++) {
+                code.append("        values[").append(i).append("] = ")
+                    .append(formatValue(type, currentDefaultValues.get(i))).append(";\n");
+            }
+            code.append("    }");
+        }
+    }
+
+    /**
+     * 外部化：值按行写到资源文件（UTF-8，每行一个值，值本身不含空白），生成的持有类在首次访问时
+     * 加载。这样数组既不占用方法字节码，也不占用常量池（一个类最多约 3 万个不同的字符串常量）。
+     * 不使用共享常量模式时，每个实例仍然得到自己的副本，与内联初始化的语义一致
+     */
+    private void appendExternalArray(StringBuilder code) {
+        String resourceName = currentVarName + ".values";
+        Path resourceFile = resourceDir.resolve(resourceName);
+        // 内容没有变化时不重写资源文件
+        try (GeneratedCodeWriter writer = GeneratedCodeWriter.open(resourceFile)) {
+            for (String value : currentDefaultValues) {
+                writer.println(value);
+            }
+            writer.commit();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to write array resource " + resourceFile, e);
+        }
+        logger.info("Externalized array {} ({} values) to {}", currentVarName, currentDefaultValues.size(), resourceFile);
+
+        String holder = Character.toUpperCase(currentVarName.charAt(0)) + currentVarName.substring(1) + "Holder";
+        appendField(code, holder + ".VALUES", true);
+        code.append("\n\n");
+        code.append("    private static final class ").append(holder).append(" {\n");
+        code.append("        static final String[] VALUES = loadArrayResource(\"").append(resourceName)
+            .append("\", ").append(currentDefaultValues.size()).append(");\n");
+        code.append("    }");
+
+        if (!resourceLoaderEmitted) {
+            resourceLoaderEmitted = true;
+            code.append("\n\n").append(RESOURCE_LOADER);
+        }
+    }
+
+    /**
+     * 生成代码中加载数组资源的方法，每个输出只生成一次
+     */
+    private static final String RESOURCE_LOADER =
+        "    private static String[] loadArrayResource(String name, int size) {\n" +
+        "        Class<?> owner = java.lang.invoke.MethodHandles.lookup().lookupClass();\n" +
+        "        java.io.InputStream in = owner.getResourceAsStream(name);\n" +
+        "        if (in == null) {\n" +
+        "            throw new IllegalStateException(\"Array resource not found: \" + name);\n" +
+        "        }\n" +
+        "        String[] values = new String[size];\n" +
+        "        try (java.io.BufferedReader reader = new java.io.BufferedReader(\n" +
+        "                new java.io.InputStreamReader(in, java.nio.charset.StandardCharsets.UTF_8))) {\n" +
+        "            for (int i = 0; i < size; i++) {\n" +
+        "                values[i] = reader.readLine();\n" +
+        "            }\n" +
+        "        } catch (java.io.IOException e) {\n" +
+        "            throw new java.io.UncheckedIOException(e);\n" +
+        "        }\n" +
+        "        return values;\n" +
+        "    }";
+
     private String getCellStringValue(Cell cell) {
         if (cell == null) return null;
         
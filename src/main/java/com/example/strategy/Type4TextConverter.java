@@ -1,53 +1,156 @@
 package com.example.strategy;
 
-import org.apache.poi.ss.usermodel.*;
-import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import com.example.model.ColumnLayout;
+import com.example.model.DefinitionRow;
+import com.example.util.RowSource;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import java.io.FileInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
 
 public class Type4TextConverter {
     private static final Logger logger = LoggerFactory.getLogger(Type4TextConverter.class);
-    private static final int VAR_NAME_COL = 0;      // 变量名列
-    private static final int COMMENT_COL = 1;       // 注释列
-    private static final int TYPE_COL = 2;          // 数据类型列
+    // 按格式（xlsx、csv、tsv）配置的列号，未配置的格式使用默认列号
+    private final Map<String, ColumnLayout> columnsByFormat = new HashMap<>();
+
+    /**
+     * 工作表的转换结果
+     */
+    public static class SheetResult {
+        private final File workbook;
+        private final int sheetIndex;
+        private final String sheetName;
+        private final List<String> code;
+
+        SheetResult(File workbook, int sheetIndex, String sheetName, List<String> code) {
+            this.workbook = workbook;
+            this.sheetIndex = sheetIndex;
+            this.sheetName = sheetName;
+            this.code = code;
+        }
+
+        public File getWorkbook() { return workbook; }
+        public int getSheetIndex() { return sheetIndex; }
+        public String getSheetName() { return sheetName; }
+        public List<String> getCode() { return code; }
+    }
+
+    /**
+     * 结果写出接口，只在调用线程上按工作簿、工作表的顺序调用
+     */
+    public interface SheetWriter {
+        void write(SheetResult result) throws IOException;
+    }
+
+    public void setColumns(String format, ColumnLayout layout) {
+        columnsByFormat.put(format, layout);
+    }
 
     public List<String> convertExcelFile(String filePath) {
-        List<String> generatedCode = new ArrayList<>();
-        
-        try (FileInputStream fis = new FileInputStream(filePath);
-             Workbook workbook = new XSSFWorkbook(fis)) {
-            
-            Sheet sheet = workbook.getSheetAt(0);
-            // 从第二行开始遍历（跳过表头）
-            for (int i = 1; i <= sheet.getLastRowNum(); i++) {
-                Row row = sheet.getRow(i);
-                if (row == null) continue;
-
-                String code = processRow(row);
-                if (code != null) {
-                    generatedCode.add(code);
-                }
-            }
-            
+        try {
+            return convertSheet(new File(filePath), 0);
         } catch (Exception e) {
             logger.error("Error processing Excel file: {}", filePath, e);
+            return new ArrayList<>();
         }
-        
+    }
+
+    /**
+     * 转换一个工作表（或 CSV/TSV 文件），工作簿以只读方式从文件打开并逐行读取
+     */
+    public List<String> convertSheet(File workbook, int sheetIndex) throws IOException {
+        List<String> generatedCode = new ArrayList<>();
+        ColumnLayout columns = columnsByFormat.getOrDefault(RowSource.formatOf(workbook), new ColumnLayout());
+        RowSource.of(workbook, sheetIndex).read((rowIndex, cells) -> {
+            // 跳过表头
+            if (rowIndex < 1) return;
+            String code = processRow(DefinitionRow.parse(cells, rowIndex, columns));
+            if (code != null) {
+                generatedCode.add(code);
+            }
+        });
         return generatedCode;
     }
 
-    private String processRow(Row row) {
+    /**
+     * 转换多个工作簿的所有工作表
+     * 每个工作表是一个任务，在有界的 ForkJoinPool 上并行转换，每个任务各自只读打开工作簿，
+     * 不共享 POI 对象。结果按工作簿顺序、工作簿内的工作表顺序交给 writer，同时在途的任务数有上限。
+     * 工作簿或工作表失败时记录错误并继续处理其他工作表。
+     * @return 转换失败的工作簿和工作表数
+     */
+    public int convertWorkbooks(List<File> workbooks, int parallelism, SheetWriter writer) throws IOException {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("parallelism must be positive");
+        }
+        long start = System.nanoTime();
+        int failed = 0;
+        int sheetCount = 0;
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        ArrayDeque<ForkJoinTask<SheetResult>> inFlight = new ArrayDeque<>();
         try {
-            String varName = getCellStringValue(row.getCell(VAR_NAME_COL));
-            String comment = getCellStringValue(row.getCell(COMMENT_COL));
-            String type = getCellStringValue(row.getCell(TYPE_COL));
-
-            if (varName == null || varName.trim().isEmpty()) {
-                return null;
+            for (File workbook : workbooks) {
+                List<String> sheetNames;
+                try {
+                    sheetNames = RowSource.sheetNames(workbook);
+                } catch (IOException | RuntimeException e) {
+                    failed++;
+                    logger.error("Error reading workbook: {}", workbook, e);
+                    continue;
+                }
+                for (int i = 0; i < sheetNames.size(); i++) {
+                    int sheetIndex = i;
+                    String sheetName = sheetNames.get(i);
+                    inFlight.add(pool.submit(() ->
+                        new SheetResult(workbook, sheetIndex, sheetName, convertSheet(workbook, sheetIndex))));
+                    sheetCount++;
+                    if (inFlight.size() >= parallelism * 4) {
+                        failed += writeNext(inFlight, writer);
+                    }
+                }
+            }
+            while (!inFlight.isEmpty()) {
+                failed += writeNext(inFlight, writer);
             }
+        } finally {
+            pool.shutdownNow();
+        }
+        logger.info("Converted {} sheets from {} workbooks in {} ms ({} failed, parallelism {})",
+            sheetCount, workbooks.size(), (System.nanoTime() - start) / 1_000_000, failed, parallelism);
+        return failed;
+    }
+
+    private static int writeNext(ArrayDeque<ForkJoinTask<SheetResult>> inFlight, SheetWriter writer)
+            throws IOException {
+        SheetResult result;
+        try {
+            result = inFlight.poll().join();
+        } catch (RuntimeException e) {
+            logger.error("Error processing sheet", e);
+            return 1;
+        }
+        writer.write(result);
+        return 0;
+    }
+
+    /**
+     * 生成一个变量的声明，单独转换时数组的开始行也作为变量处理，续行没有输出
+     */
+    public String processRow(DefinitionRow row) {
+        if (row == null || row.getKind() == DefinitionRow.Kind.CONTINUATION) {
+            return null;
+        }
+        try {
+            String varName = row.getVarName();
+            String comment = row.getComment();
+            String type = row.getType();
 
             // 处理变量名
             varName = processVariableName(varName.trim());
@@ -67,7 +170,7 @@ public class Type4TextConverter {
             return code.toString();
             
         } catch (Exception e) {
-            logger.error("Error processing row: {}", row.getRowNum(), e);
+            logger.error("Error processing row: {}", row.getRowIndex(), e);
             return null;
         }
     }
@@ -84,24 +187,6 @@ public class Type4TextConverter {
         return processed;
     }
 
-    private String getCellStringValue(Cell cell) {
-        if (cell == null) return null;
-        
-        switch (cell.getCellType()) {
-            case STRING:
-                return cell.getStringCellValue();
-            case NUMERIC:
-                if (DateUtil.isCellDateFormatted(cell)) {
-                    return cell.getDateCellValue().toString();
-                }
-                return String.valueOf((int)cell.getNumericCellValue());
-            case BOOLEAN:
-                return String.valueOf(cell.getBooleanCellValue());
-            default:
-                return null;
-        }
-    }
-
     private String convertType(String type) {
         if (type == null) return "String";
         
@@ -0,0 +1,151 @@
+package com.example.util;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * 批量转换
+ * 在一个进程中转换目录或 glob 匹配到的所有规格文件，文件在有界的 ForkJoinPool 上并行处理，
+ * 共享同一个实体目录和转换器（包括变量定义）。输出文件按输入文件相对于基准目录的路径
+ * 放在输出根目录下，扩展名改为 .java。单个文件失败时记录错误并继续处理其他文件。
+ */
+public class BatchConverter {
+    private static final Logger logger = LoggerFactory.getLogger(BatchConverter.class);
+
+    private final int parallelism;
+
+    /**
+     * 单个文件的转换，会在多个线程上同时调用
+     */
+    public interface FileConverter {
+        void convert(Path input, Path output) throws IOException;
+    }
+
+    public BatchConverter(int parallelism) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("parallelism must be positive");
+        }
+        this.parallelism = parallelism;
+    }
+
+    /**
+     * 转换所有匹配的文件
+     * @param dirOrGlob 目录（包括子目录下的所有 .txt 文件）或 glob，如 input/specs/**.txt
+     * @param outputRoot 输出根目录
+     * @return 转换失败的文件数
+     */
+    public int run(String dirOrGlob, Path outputRoot, FileConverter converter) throws IOException {
+        long start = System.nanoTime();
+        Path baseDir = baseDirectory(dirOrGlob);
+        List<Path> inputs = findInputs(dirOrGlob);
+        logger.info("Batch converting {} files from {} into {} (parallelism {})",
+            inputs.size(), dirOrGlob, outputRoot, parallelism);
+
+        List<Callable<Void>> tasks = new ArrayList<>();
+        for (Path input : inputs) {
+            Path output = outputPathFor(baseDir, input, outputRoot);
+            tasks.add(() -> {
+                long taskStart = System.nanoTime();
+                Files.createDirectories(output.getParent());
+                converter.convert(input, output);
+                logger.info("Converted {} -> {} in {} ms", input, output, (System.nanoTime() - taskStart) / 1_000_000);
+                return null;
+            });
+        }
+
+        int failed = 0;
+        ForkJoinPool pool = new ForkJoinPool(Math.max(1, Math.min(parallelism, tasks.size())));
+        try {
+            List<Future<Void>> futures = pool.invokeAll(tasks);
+            for (int i = 0; i < futures.size(); i++) {
+                try {
+                    futures.get(i).get();
+                } catch (ExecutionException e) {
+                    failed++;
+                    logger.error("Failed to convert {}", inputs.get(i), e.getCause());
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted during batch conversion", e);
+        } finally {
+            pool.shutdown();
+        }
+        logger.info("Batch conversion finished: {} converted, {} failed in {} ms",
+            inputs.size() - failed, failed, (System.nanoTime() - start) / 1_000_000);
+        return failed;
+    }
+
+    /**
+     * 列出目录下（包括子目录）的所有 .txt 文件，或 glob 匹配到的所有文件，按路径排序
+     */
+    public static List<Path> findInputs(String dirOrGlob) throws IOException {
+        Path baseDir = baseDirectory(dirOrGlob);
+        if (!Files.isDirectory(baseDir)) {
+            throw new IOException("Input directory not found: " + baseDir);
+        }
+        PathMatcher matcher = isGlob(dirOrGlob)
+            ? FileSystems.getDefault().getPathMatcher("glob:" + dirOrGlob.replace('\\', '/'))
+            : path -> path.getFileName().toString().endsWith(".txt");
+        try (Stream<Path> paths = Files.walk(baseDir)) {
+            return paths
+                .filter(Files::isRegularFile)
+                .filter(path -> matcher.matches(path.normalize()))
+                .sorted()
+                .collect(Collectors.toList());
+        }
+    }
+
+    /**
+     * 输入文件对应的输出文件：输出根目录下的相对路径，扩展名改为 .java
+     */
+    public static Path outputPathFor(Path baseDir, Path input, Path outputRoot) {
+        Path relative = baseDir.relativize(input);
+        String fileName = relative.getFileName().toString();
+        int dot = fileName.lastIndexOf('.');
+        String javaName = (dot > 0 ? fileName.substring(0, dot) : fileName) + ".java";
+        return outputRoot.resolve(relative).resolveSibling(javaName);
+    }
+
+    /**
+     * glob 中第一个通配符之前的目录；不是 glob 时就是参数本身
+     */
+    static Path baseDirectory(String dirOrGlob) {
+        if (!isGlob(dirOrGlob)) {
+            return Paths.get(dirOrGlob);
+        }
+        String normalized = dirOrGlob.replace('\\', '/');
+        int wildcard = firstWildcard(normalized);
+        int slash = normalized.lastIndexOf('/', wildcard);
+        return Paths.get(slash < 0 ? "." : slash == 0 ? "/" : normalized.substring(0, slash));
+    }
+
+    private static boolean isGlob(String dirOrGlob) {
+        return firstWildcard(dirOrGlob) >= 0;
+    }
+
+    private static int firstWildcard(String text) {
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '*' || c == '?' || c == '[' || c == '{') {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
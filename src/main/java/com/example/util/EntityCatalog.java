@@ -0,0 +1,249 @@
+package com.example.util;
+
+import com.example.model.ClassInfo;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/**
+ * 进程级实体类目录
+ * 每个实体文件只解析一次，返回冻结（不可变）的 ClassInfo，可被多个转换器和线程共享。
+ * 只有当文件的修改时间/大小变化且内容哈希也变化时才重新解析。
+ * 源文件只在条目首次使用时检查一次（解析得到的条目不需要检查，快照中的条目在第一次 get 时检查），
+ * 之后的 get 不再访问文件系统；运行期间实体文件变化时由调用方（监视模式）调用 invalidate。
+ */
+public class EntityCatalog {
+    private static final Logger logger = LoggerFactory.getLogger(EntityCatalog.class);
+    private static final EntityCatalog INSTANCE = new EntityCatalog();
+
+    private final ConcurrentHashMap<String, Entry> entries = new ConcurrentHashMap<>();
+
+    public static EntityCatalog getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * 获取实体文件对应的类信息
+     * @param entityFile 实体文件路径
+     * @return 冻结的 ClassInfo
+     */
+    public ClassInfo get(String entityFile) throws IOException {
+        Path path = Paths.get(entityFile);
+        String key = path.toAbsolutePath().normalize().toString();
+        Entry entry = entries.get(key);
+        if (entry != null && entry.verified) {
+            return entry.classInfo;
+        }
+
+        // 第一次使用快照中的条目，或者还没有加载
+        long lastModified = Files.getLastModifiedTime(path).toMillis();
+        long size = Files.size(path);
+        if (entry != null && entry.isUpToDate(lastModified, size)) {
+            entries.replace(key, entry, entry.verified());
+            return entry.classInfo;
+        }
+
+        // 在锁外读取和解析，其他实体的 get 不会被阻塞；同一文件被并发加载时只发布一个结果
+        Entry loaded = load(path, lastModified, size, entry);
+        while (true) {
+            boolean published = entry == null
+                ? entries.putIfAbsent(key, loaded) == null
+                : entries.replace(key, entry, loaded);
+            if (published) {
+                return loaded.classInfo;
+            }
+            entry = entries.get(key);
+            if (entry != null && entry.verified) {
+                // 其他线程已经发布了结果
+                return entry.classInfo;
+            }
+        }
+    }
+
+    /**
+     * 并行加载所有实体文件并合并为不可变映射
+     * 解析在有界的 ForkJoinPool 上进行，每个文件的耗时都会记录到日志中；
+     * 读取失败的实体会记录错误并跳过。
+     * @param entityFiles 实体ID -> 实体文件路径
+     * @param parallelism 并行度
+     * @return 实体ID -> 冻结的 ClassInfo
+     */
+    public Map<String, ClassInfo> loadAll(Map<String, String> entityFiles, int parallelism) {
+        if (entityFiles == null || entityFiles.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        long start = System.nanoTime();
+        // invokeAll 按任务的顺序返回 Future，失败时按下标找到对应的实体
+        List<Map.Entry<String, String>> files = new ArrayList<>(entityFiles.entrySet());
+        List<Callable<LoadResult>> tasks = new ArrayList<>();
+        for (Map.Entry<String, String> entry : files) {
+            tasks.add(() -> {
+                long taskStart = System.nanoTime();
+                ClassInfo classInfo = get(entry.getValue());
+                return new LoadResult(entry.getKey(), entry.getValue(), classInfo,
+                    System.nanoTime() - taskStart);
+            });
+        }
+
+        Map<String, ClassInfo> result = new HashMap<>();
+        long totalNanos = 0;
+        ForkJoinPool pool = new ForkJoinPool(Math.max(1, Math.min(parallelism, tasks.size())));
+        try {
+            List<Future<LoadResult>> futures = pool.invokeAll(tasks);
+            for (int i = 0; i < futures.size(); i++) {
+                try {
+                    LoadResult loaded = futures.get(i).get();
+                    result.put(loaded.entityId, loaded.classInfo);
+                    totalNanos += loaded.nanos;
+                    logger.info("Loaded entity {} from {} in {} ms", loaded.entityId, loaded.entityFile,
+                        loaded.nanos / 1_000_000);
+                } catch (ExecutionException e) {
+                    Map.Entry<String, String> failed = files.get(i);
+                    logger.error("Failed to load entity {} from {}", failed.getKey(), failed.getValue(),
+                        e.getCause());
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            logger.error("Interrupted while loading entity files");
+        } finally {
+            pool.shutdown();
+        }
+        logger.info("Loaded {} of {} entity files in {} ms (sum of per-file times {} ms, parallelism {})",
+            result.size(), entityFiles.size(), (System.nanoTime() - start) / 1_000_000,
+            totalNanos / 1_000_000, pool.getParallelism());
+        return Collections.unmodifiableMap(result);
+    }
+
+    /**
+     * 使指定实体文件的缓存失效：下一次 get 时重新检查源文件，内容哈希不变时仍沿用已解析的结果
+     */
+    public void invalidate(String entityFile) {
+        String key = Paths.get(entityFile).toAbsolutePath().normalize().toString();
+        if (entries.computeIfPresent(key, (k, entry) -> entry.unverified()) != null) {
+            logger.info("Invalidated entity catalog entry: {}", key);
+        }
+    }
+
+    /**
+     * 将当前目录中的所有条目写入二进制快照
+     */
+    public void saveSnapshot(String snapshotFile) throws IOException {
+        EntityCatalogSnapshot.write(Paths.get(snapshotFile), new TreeMap<>(entries));
+    }
+
+    /**
+     * 从二进制快照预加载条目，已在内存中的条目不会被覆盖
+     * 之后 get 时仍会检查源文件，只有修改时间/大小变化且哈希不同的实体才重新解析
+     * @return 快照中的条目数
+     */
+    public int loadSnapshot(String snapshotFile) throws IOException {
+        long start = System.nanoTime();
+        Map<String, Entry> loaded = EntityCatalogSnapshot.read(Paths.get(snapshotFile));
+        loaded.forEach(entries::putIfAbsent);
+        logger.info("Loaded {} entities from catalog snapshot {} in {} ms", loaded.size(), snapshotFile,
+            (System.nanoTime() - start) / 1_000_000);
+        return loaded.size();
+    }
+
+    public void clear() {
+        entries.clear();
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    private Entry load(Path path, long lastModified, long size, Entry current) throws IOException {
+        byte[] content = Files.readAllBytes(path);
+        byte[] hash = sha256(content);
+
+        // 只是修改时间变化，内容未变，沿用已解析的结果
+        if (current != null && Arrays.equals(current.hash, hash)) {
+            logger.debug("Entity file touched but unchanged: {}", path);
+            return new Entry(lastModified, size, hash, current.classInfo, true);
+        }
+
+        long start = System.nanoTime();
+        ClassInfo classInfo;
+        try (BufferedReader reader = new BufferedReader(
+                new InputStreamReader(new ByteArrayInputStream(content), StandardCharsets.UTF_8))) {
+            classInfo = JavaFileReader.readJavaFileToModel(reader).freeze();
+        }
+        logger.info("Parsed entity file {} ({} fields) in {} ms", path,
+            classInfo.getFields().size(), (System.nanoTime() - start) / 1_000_000);
+        return new Entry(lastModified, size, hash, classInfo, true);
+    }
+
+    static byte[] sha256(byte[] content) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(content);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private static class LoadResult {
+        final String entityId;
+        final String entityFile;
+        final ClassInfo classInfo;
+        final long nanos;
+
+        LoadResult(String entityId, String entityFile, ClassInfo classInfo, long nanos) {
+            this.entityId = entityId;
+            this.entityFile = entityFile;
+            this.classInfo = classInfo;
+            this.nanos = nanos;
+        }
+    }
+
+    static class Entry {
+        final long lastModified;
+        final long size;
+        final byte[] hash;
+        final ClassInfo classInfo;
+        final boolean verified;  // 本次运行中已确认与源文件一致
+
+        Entry(long lastModified, long size, byte[] hash, ClassInfo classInfo, boolean verified) {
+            this.lastModified = lastModified;
+            this.size = size;
+            this.hash = hash;
+            this.classInfo = classInfo;
+            this.verified = verified;
+        }
+
+        Entry verified() {
+            return verified ? this : new Entry(lastModified, size, hash, classInfo, true);
+        }
+
+        Entry unverified() {
+            return new Entry(lastModified, size, hash, classInfo, false);
+        }
+
+        boolean isUpToDate(long lastModified, long size) {
+            return this.lastModified == lastModified && this.size == size;
+        }
+    }
+}
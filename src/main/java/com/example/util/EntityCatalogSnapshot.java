@@ -0,0 +1,162 @@
+package com.example.util;
+
+import com.example.model.ClassInfo;
+import com.example.model.FieldInfo;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 实体目录的二进制快照
+ * 保存所有 ClassInfo/FieldInfo（包括标准化后的注释、getter/setter 名和字段类型）以及源文件的
+ * 修改时间、大小和 SHA-256，启动时通过内存映射读取，避免重新解析全部实体 .java 文件。
+ *
+ * 格式：magic, version, entryCount, 然后每个条目依次为
+ * path, lastModified, size, hash, className, classComment, fieldCount, fields...
+ * 字符串写为 int 长度（null 为 -1）+ UTF-8 字节。
+ * 标准化规则或格式变化时必须提升 VERSION，旧快照会被忽略。
+ */
+class EntityCatalogSnapshot {
+    private static final Logger logger = LoggerFactory.getLogger(EntityCatalogSnapshot.class);
+    private static final int MAGIC = 0x42544A43;  // "BTJC"
+    private static final int VERSION = 1;
+
+    static void write(Path file, Map<String, EntityCatalog.Entry> entries) throws IOException {
+        Path parent = file.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+                Files.newOutputStream(temp), 64 * 1024))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(entries.size());
+            for (Map.Entry<String, EntityCatalog.Entry> mapEntry : entries.entrySet()) {
+                EntityCatalog.Entry entry = mapEntry.getValue();
+                writeString(out, mapEntry.getKey());
+                out.writeLong(entry.lastModified);
+                out.writeLong(entry.size);
+                out.writeInt(entry.hash.length);
+                out.write(entry.hash);
+
+                ClassInfo classInfo = entry.classInfo;
+                writeString(out, classInfo.getClassName());
+                writeString(out, classInfo.getClassComment());
+                out.writeInt(classInfo.getFields().size());
+                for (FieldInfo field : classInfo.getFields()) {
+                    writeString(out, field.getTableFieldName());
+                    writeString(out, field.getFieldName());
+                    writeString(out, field.getFieldComment());
+                    writeString(out, field.getNormalizedComment());
+                    writeString(out, field.getSetMethod());
+                    writeString(out, field.getGetMethod());
+                    writeString(out, field.getFieldType());
+                }
+            }
+        } catch (IOException e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING);
+        logger.info("Wrote entity catalog snapshot with {} entries: {}", entries.size(), file);
+    }
+
+    /**
+     * 读取快照，文件格式或版本不匹配、文件被截断或损坏时返回空映射（调用方改为解析源文件）
+     */
+    static Map<String, EntityCatalog.Entry> read(Path file) throws IOException {
+        Map<String, EntityCatalog.Entry> entries = new HashMap<>();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.remaining() < 8 || buffer.getInt() != MAGIC) {
+                logger.warn("Not an entity catalog snapshot: {}", file);
+                return entries;
+            }
+            int version = buffer.getInt();
+            if (version != VERSION) {
+                logger.warn("Ignoring entity catalog snapshot {} with version {} (expected {})",
+                    file, version, VERSION);
+                return entries;
+            }
+
+            int entryCount = buffer.getInt();
+            for (int i = 0; i < entryCount; i++) {
+                String path = readString(buffer);
+                if (path == null) {
+                    throw new IllegalStateException("Missing entity path in entry " + i);
+                }
+                long lastModified = buffer.getLong();
+                long size = buffer.getLong();
+                byte[] hash = new byte[checkLength(buffer, buffer.getInt())];
+                buffer.get(hash);
+
+                ClassInfo classInfo = new ClassInfo();
+                classInfo.setClassName(readString(buffer));
+                classInfo.setClassComment(readString(buffer));
+                int fieldCount = buffer.getInt();
+                for (int j = 0; j < fieldCount; j++) {
+                    classInfo.addField(new FieldInfo(
+                        readString(buffer),
+                        readString(buffer),
+                        readString(buffer),
+                        readString(buffer),
+                        readString(buffer),
+                        readString(buffer),
+                        readString(buffer)));
+                }
+                entries.put(path, new EntityCatalog.Entry(lastModified, size, hash, classInfo.freeze(), false));
+            }
+        } catch (BufferUnderflowException e) {
+            logger.warn("Truncated entity catalog snapshot: {}", file);
+            entries.clear();
+        } catch (RuntimeException e) {
+            logger.warn("Corrupted entity catalog snapshot {}: {}", file, e.getMessage());
+            entries.clear();
+        }
+        return entries;
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(MappedByteBuffer buffer) {
+        int length = buffer.getInt();
+        if (length == -1) {
+            return null;
+        }
+        byte[] bytes = new byte[checkLength(buffer, length)];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * 检查长度不超过剩余的字节数，损坏的文件不会导致分配负数或巨大的数组
+     */
+    private static int checkLength(MappedByteBuffer buffer, int length) {
+        if (length < 0 || length > buffer.remaining()) {
+            throw new IllegalStateException("Invalid length " + length + " at offset " + (buffer.position() - 4));
+        }
+        return length;
+    }
+}
@@ -0,0 +1,321 @@
+package com.example.util;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.function.Consumer;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * 生成代码的输出
+ * 文本先复制到可复用的 char 缓冲区，由 CharsetEncoder 编码为 UTF-8 写入 1MB 的直接缓冲区，
+ * 缓冲区满或关闭时才通过 FileChannel 写出，每行不再产生一次系统调用。
+ * 可以选择用 gzip 压缩输出。换行符与 PrintWriter 相同（line.separator）。
+ * 编码器和缓冲区在关闭后留给当前线程的下一个输出复用（批量转换时每个文件不再重新分配）；
+ * 同一线程同时打开多个输出时，后打开的输出使用新的缓冲区。实例不是线程安全的。
+ *
+ * 内容先写到同一目录下的临时文件，写出的同时计算 SHA-256。生成完成后调用 commit()：与已有的文件比较
+ * （大小相同时才读取已有文件计算摘要），内容相同则删除临时文件、保留原文件和它的修改时间，下游的增量编译
+ * 不会重新编译；内容不同时用 rename 原子地替换。没有 commit 就 close（生成过程中抛出异常）时丢弃临时文件，
+ * 已有的输出保持不变，不会被写了一半的内容替换。
+ */
+public class GeneratedCodeWriter implements Closeable {
+    private static final Logger logger = LoggerFactory.getLogger(GeneratedCodeWriter.class);
+    private static final int BYTE_BUFFER_SIZE = 1 << 20;
+    private static final int CHAR_BUFFER_SIZE = 64 * 1024;
+    private static final String LINE_SEPARATOR = System.lineSeparator();
+    private static final ThreadLocal<Buffers> IDLE_BUFFERS = new ThreadLocal<>();
+
+    private final Path target;
+    private final Path temp;
+    private final FileChannel fileChannel;
+    private final MessageDigest digest = newDigest();
+    private final WritableByteChannel channel;
+    private final GZIPOutputStream gzip;
+    private Buffers buffers;
+    private long bytesWritten;
+    private boolean changed;
+
+    /**
+     * 编码器和缓冲区
+     */
+    private static class Buffers {
+        final CharsetEncoder encoder = StandardCharsets.UTF_8.newEncoder()
+            .onMalformedInput(CodingErrorAction.REPLACE)
+            .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        final CharBuffer chars = CharBuffer.allocate(CHAR_BUFFER_SIZE);
+        final ByteBuffer bytes = ByteBuffer.allocateDirect(BYTE_BUFFER_SIZE);
+    }
+
+    private GeneratedCodeWriter(Path file, boolean compress) throws IOException {
+        Path parent = file.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        this.target = file;
+        // 不用 createTempFile：它创建的文件权限为 600，替换后输出文件的权限会改变
+        this.temp = file.resolveSibling(file.getFileName() + "." + Long.toHexString(System.nanoTime()) + ".tmp");
+        this.fileChannel = FileChannel.open(temp, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+        // 摘要按写入文件的字节计算（压缩时为压缩后的字节），可以直接与已有文件比较
+        WritableByteChannel hashing = new WritableByteChannel() {
+            @Override
+            public int write(ByteBuffer src) throws IOException {
+                ByteBuffer written = src.duplicate();
+                int count = fileChannel.write(src);
+                written.limit(written.position() + count);
+                digest.update(written);
+                return count;
+            }
+
+            @Override
+            public boolean isOpen() {
+                return fileChannel.isOpen();
+            }
+
+            @Override
+            public void close() throws IOException {
+                fileChannel.close();
+            }
+        };
+        if (compress) {
+            try {
+                this.gzip = new GZIPOutputStream(Channels.newOutputStream(hashing), CHAR_BUFFER_SIZE);
+            } catch (IOException | RuntimeException e) {
+                fileChannel.close();
+                Files.deleteIfExists(temp);
+                throw e;
+            }
+            this.channel = Channels.newChannel(gzip);
+        } else {
+            this.gzip = null;
+            this.channel = hashing;
+        }
+        this.buffers = IDLE_BUFFERS.get();
+        if (buffers != null) {
+            IDLE_BUFFERS.remove();
+        } else {
+            buffers = new Buffers();
+        }
+    }
+
+    /**
+     * 打开输出文件（父目录不存在时创建），commit 时内容有变化才替换已有的文件
+     */
+    public static GeneratedCodeWriter open(Path file) throws IOException {
+        return new GeneratedCodeWriter(file, false);
+    }
+
+    /**
+     * @param compress 是否用 gzip 压缩（文件名由调用方决定，通常加上 .gz）
+     */
+    public static GeneratedCodeWriter open(Path file, boolean compress) throws IOException {
+        return new GeneratedCodeWriter(file, compress);
+    }
+
+    public void write(String text) throws IOException {
+        if (buffers == null) {
+            throw new IllegalStateException("Output already closed: " + target);
+        }
+        CharBuffer chars = buffers.chars;
+        CharsetEncoder encoder = buffers.encoder;
+        int length = text.length();
+        for (int offset = 0; offset < length; ) {
+            // 复制到数组支持的缓冲区，编码器走数组的快速路径
+            int count = Math.min(chars.capacity(), length - offset);
+            // 不在代理对中间切开
+            if (count < length - offset && Character.isHighSurrogate(text.charAt(offset + count - 1))) {
+                count--;
+            }
+            chars.clear();
+            text.getChars(offset, offset + count, chars.array(), 0);
+            chars.limit(count);
+            offset += count;
+
+            encoder.reset();
+            encodeChunk(encoder.encode(chars, buffers.bytes, true), chars);
+            CoderResult result;
+            while ((result = encoder.flush(buffers.bytes)).isOverflow()) {
+                drain();
+            }
+            if (result.isError()) {
+                result.throwException();
+            }
+        }
+    }
+
+    private void encodeChunk(CoderResult result, CharBuffer chars) throws IOException {
+        while (result.isOverflow()) {
+            drain();
+            result = buffers.encoder.encode(chars, buffers.bytes, true);
+        }
+        if (result.isError()) {
+            result.throwException();
+        }
+    }
+
+    public void println(String line) throws IOException {
+        write(line);
+        write(LINE_SEPARATOR);
+    }
+
+    public void println() throws IOException {
+        write(LINE_SEPARATOR);
+    }
+
+    /**
+     * 作为 Consumer 使用的按行输出，I/O 错误包装为 UncheckedIOException
+     */
+    public Consumer<String> lines() {
+        return line -> {
+            try {
+                println(line);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        };
+    }
+
+    /**
+     * commit 后有效：内容与已有的文件不同（或原来没有文件），文件被替换
+     */
+    public boolean isChanged() {
+        return changed;
+    }
+
+    /**
+     * 已写出的字节数（压缩前）
+     */
+    public long getBytesWritten() {
+        return bytesWritten + (buffers != null ? buffers.bytes.position() : 0);
+    }
+
+    private void drain() throws IOException {
+        ByteBuffer bytes = buffers.bytes;
+        bytes.flip();
+        bytesWritten += bytes.remaining();
+        while (bytes.hasRemaining()) {
+            channel.write(bytes);
+        }
+        bytes.clear();
+    }
+
+    /**
+     * 生成完成：写出缓冲区，内容有变化时替换已有的文件，没有变化时保留原文件
+     */
+    public void commit() throws IOException {
+        if (buffers == null) {
+            throw new IllegalStateException("Output already closed: " + target);
+        }
+        boolean finished = false;
+        try {
+            drain();
+            if (gzip != null) {
+                gzip.finish();
+            }
+            finished = true;
+        } finally {
+            release(!finished);
+        }
+        replaceTarget();
+    }
+
+    /**
+     * 没有 commit 时丢弃临时文件，已有的输出不变
+     */
+    @Override
+    public void close() throws IOException {
+        if (buffers == null) {
+            return;
+        }
+        logger.warn("Output not committed, keeping the previous file: {}", target);
+        release(true);
+    }
+
+    /**
+     * 关闭文件，把缓冲区留给当前线程复用；discard 时删除临时文件
+     */
+    private void release(boolean discard) throws IOException {
+        try {
+            channel.close();
+        } catch (IOException e) {
+            if (!discard) {
+                throw e;
+            }
+        } finally {
+            fileChannel.close();
+            buffers.bytes.clear();
+            if (IDLE_BUFFERS.get() == null) {
+                IDLE_BUFFERS.set(buffers);
+            }
+            buffers = null;
+            if (discard) {
+                Files.deleteIfExists(temp);
+            }
+        }
+    }
+
+    /**
+     * 内容没有变化时保留原文件，否则用临时文件替换
+     */
+    private void replaceTarget() throws IOException {
+        try {
+            if (sameContent(digest.digest())) {
+                Files.delete(temp);
+                logger.info("Output unchanged, not rewritten: {}", target);
+                return;
+            }
+            try {
+                Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+            }
+            changed = true;
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    private boolean sameContent(byte[] hash) throws IOException {
+        if (!Files.isRegularFile(target) || Files.size(target) != Files.size(temp)) {
+            return false;
+        }
+        MessageDigest existing = newDigest();
+        byte[] buffer = new byte[CHAR_BUFFER_SIZE];
+        try (InputStream in = Files.newInputStream(target)) {
+            int read;
+            while ((read = in.read(buffer)) > 0) {
+                existing.update(buffer, 0, read);
+            }
+        }
+        return Arrays.equals(hash, existing.digest());
+    }
+
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
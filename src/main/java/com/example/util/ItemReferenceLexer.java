@@ -0,0 +1,307 @@
+package com.example.util;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 項目「…」引用的词法分析器，Type1 和 Type2 共用
+ * 对一行文本只从左到右扫描一次（O(n)），不使用正则，避免嵌套懒惰量词在长行或格式错误的行上大量回溯。
+ * 」和引号的位置预先由一次反向扫描求出，没有闭合的 項目「 或引号不会每次都扫描到行尾；
+ * 項目「…」内部的查找都限制在 」 之前。
+ *
+ * 识别的记号：
+ * - ENTITY_REF + FIELD_COMMENT：項目「cde(手袋(Ｌ０１)).(会社コード)」，实体ID按括号配对解析，支持任意层嵌套
+ * - DIRECT_REF：項目「 D\SSKK 」，值为 "DSSKK"
+ * - INDICATOR：項目「*IN20 」，值为 "IN20"
+ * - LITERAL：ブランク/ﾌﾞﾗﾝｸ、'1'、"ABC"（值为引号内内容）、数字（全角数字转为半角）
+ * - KEYWORD：に、を、代入します、＝、≠
+ * - TEXT：其他无法识别的文本（包括格式错误的項目「…」）
+ * 空白（半角和全角）不生成记号。
+ */
+public class ItemReferenceLexer {
+    private static final String ITEM_START = "項目「";
+    private static final String[] KEYWORDS = {"代入します", "＝", "≠", "に", "を"};
+    private static final String[] BLANKS = {"ブランク", "ﾌﾞﾗﾝｸ"};
+
+    public enum TokenType {
+        ENTITY_REF,
+        FIELD_COMMENT,
+        DIRECT_REF,
+        INDICATOR,
+        LITERAL,
+        KEYWORD,
+        TEXT
+    }
+
+    public static class Token {
+        private final TokenType type;
+        private final String text;   // 原文
+        private final String value;  // 解析后的值
+        private final int start;
+        private final int end;
+
+        Token(TokenType type, String text, String value, int start, int end) {
+            this.type = type;
+            this.text = text;
+            this.value = value;
+            this.start = start;
+            this.end = end;
+        }
+
+        public TokenType getType() { return type; }
+        public String getText() { return text; }
+        public String getValue() { return value; }
+        public int getStart() { return start; }
+        public int getEnd() { return end; }
+
+        public boolean is(TokenType type, String value) {
+            return this.type == type && this.value.equals(value);
+        }
+
+        public boolean isNumber() {
+            if (type != TokenType.LITERAL || value.isEmpty()) {
+                return false;
+            }
+            for (int i = 0; i < value.length(); i++) {
+                if (value.charAt(i) < '0' || value.charAt(i) > '9') {
+                    return false;
+                }
+            }
+            return !text.startsWith("'") && !text.startsWith("\"");
+        }
+
+        @Override
+        public String toString() {
+            return type + "[" + value + "]";
+        }
+    }
+
+    /**
+     * 将一行文本切分为记号
+     */
+    public static List<Token> tokenize(String line) {
+        List<Token> tokens = new ArrayList<>();
+        if (line == null) {
+            return tokens;
+        }
+        int length = line.length();
+        ClosePositions closes = new ClosePositions(line);
+        int textStart = -1;  // 当前未识别文本的起始位置
+        int i = 0;
+        while (i < length) {
+            int next = scanToken(line, i, closes, tokens, textStart);
+            if (next < 0) {
+                // 普通字符，累积到 TEXT 中
+                if (textStart < 0) {
+                    textStart = i;
+                }
+                i++;
+            } else {
+                textStart = -1;
+                i = next;
+            }
+        }
+        flushText(line, textStart, length, tokens);
+        return tokens;
+    }
+
+    /**
+     * 查找指定类型的记号
+     * @return 记号下标，找不到时返回 -1
+     */
+    public static int indexOf(List<Token> tokens, TokenType type, int fromIndex) {
+        for (int i = Math.max(0, fromIndex); i < tokens.size(); i++) {
+            if (tokens.get(i).getType() == type) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * 每个位置之后（含）下一个 」、'、" 的位置，没有时为 -1，由一次反向扫描求出
+     */
+    private static final class ClosePositions {
+        private final int[] bracket;
+        private final int[] apostrophe;
+        private final int[] quote;
+
+        ClosePositions(String line) {
+            int length = line.length();
+            bracket = new int[length + 1];
+            apostrophe = new int[length + 1];
+            quote = new int[length + 1];
+            bracket[length] = apostrophe[length] = quote[length] = -1;
+            for (int i = length - 1; i >= 0; i--) {
+                char c = line.charAt(i);
+                bracket[i] = c == '」' ? i : bracket[i + 1];
+                apostrophe[i] = c == '\'' ? i : apostrophe[i + 1];
+                quote[i] = c == '"' ? i : quote[i + 1];
+            }
+        }
+
+        int next(char c, int from) {
+            int[] positions = c == '」' ? bracket : c == '\'' ? apostrophe : quote;
+            return from < positions.length ? positions[from] : -1;
+        }
+    }
+
+    /**
+     * 尝试在 pos 处识别一个记号，识别成功时先输出之前累积的文本再输出记号
+     * @return 记号结束位置，pos 处是普通字符时返回 -1
+     */
+    private static int scanToken(String line, int pos, ClosePositions closes, List<Token> tokens, int textStart) {
+        char c = line.charAt(pos);
+
+        if (isSpace(c)) {
+            flushText(line, textStart, pos, tokens);
+            return pos + 1;
+        }
+
+        if (line.startsWith(ITEM_START, pos)) {
+            int close = closes.next('」', pos + ITEM_START.length());
+            if (close < 0) {
+                return -1;
+            }
+            flushText(line, textStart, pos, tokens);
+            scanItem(line, pos, close, tokens);
+            return close + 1;
+        }
+
+        for (String keyword : KEYWORDS) {
+            if (line.startsWith(keyword, pos)) {
+                flushText(line, textStart, pos, tokens);
+                tokens.add(new Token(TokenType.KEYWORD, keyword, keyword, pos, pos + keyword.length()));
+                return pos + keyword.length();
+            }
+        }
+
+        for (String blank : BLANKS) {
+            if (line.startsWith(blank, pos)) {
+                flushText(line, textStart, pos, tokens);
+                tokens.add(new Token(TokenType.LITERAL, blank, blank, pos, pos + blank.length()));
+                return pos + blank.length();
+            }
+        }
+
+        if (c == '\'' || c == '"') {
+            int close = closes.next(c, pos + 1);
+            if (close < 0) {
+                return -1;
+            }
+            flushText(line, textStart, pos, tokens);
+            tokens.add(new Token(TokenType.LITERAL, line.substring(pos, close + 1),
+                line.substring(pos + 1, close), pos, close + 1));
+            return close + 1;
+        }
+
+        if (isDigit(c)) {
+            int end = pos;
+            StringBuilder digits = new StringBuilder();
+            while (end < line.length() && isDigit(line.charAt(end))) {
+                char d = line.charAt(end);
+                digits.append(d >= '０' ? (char) (d - '０' + '0') : d);
+                end++;
+            }
+            flushText(line, textStart, pos, tokens);
+            tokens.add(new Token(TokenType.LITERAL, line.substring(pos, end), digits.toString(), pos, end));
+            return end;
+        }
+
+        return -1;
+    }
+
+    /**
+     * 解析 項目「…」 的内容，close 为 」 的位置
+     */
+    private static void scanItem(String line, int start, int close, List<Token> tokens) {
+        String raw = line.substring(start, close + 1);
+        int bodyStart = start + ITEM_START.length();
+        int bodyEnd = close;
+        while (bodyStart < bodyEnd && isSpace(line.charAt(bodyStart))) {
+            bodyStart++;
+        }
+        while (bodyEnd > bodyStart && isSpace(line.charAt(bodyEnd - 1))) {
+            bodyEnd--;
+        }
+
+        // D\SSKK 形式的直接字段引用
+        if (bodyEnd - bodyStart > 2 && isUpperAscii(line.charAt(bodyStart)) && line.charAt(bodyStart + 1) == '\\') {
+            String name = line.substring(bodyStart + 2, bodyEnd).replace("\\", "").trim();
+            tokens.add(new Token(TokenType.DIRECT_REF, raw, line.charAt(bodyStart) + name, start, close + 1));
+            return;
+        }
+
+        // *IN20 形式的指示器
+        if (bodyEnd - bodyStart > 1 && line.charAt(bodyStart) == '*') {
+            String name = line.substring(bodyStart + 1, bodyEnd).trim();
+            tokens.add(new Token(TokenType.INDICATOR, raw, name, start, close + 1));
+            return;
+        }
+
+        // prefix(实体ID).(字段注释) 形式的实体字段引用，查找不超过 bodyEnd
+        int open = indexOf(line, '(', bodyStart, bodyEnd);
+        if (open >= 0) {
+            int depth = 0;
+            int idEnd = -1;
+            for (int i = open; i < bodyEnd; i++) {
+                char c = line.charAt(i);
+                if (c == '(') {
+                    depth++;
+                } else if (c == ')' && --depth == 0) {
+                    idEnd = i;
+                    break;
+                }
+            }
+            int dot = idEnd < 0 ? -1 : indexOf(line, '.', idEnd + 1, bodyEnd);
+            if (dot >= 0) {
+                int commentOpen = dot + 1;
+                while (commentOpen < bodyEnd && isSpace(line.charAt(commentOpen))) {
+                    commentOpen++;
+                }
+                int commentClose = bodyEnd - 1;
+                if (commentOpen < commentClose - 1
+                        && line.charAt(commentOpen) == '(' && line.charAt(commentClose) == ')') {
+                    tokens.add(new Token(TokenType.ENTITY_REF, raw,
+                        line.substring(open + 1, idEnd), start, close + 1));
+                    tokens.add(new Token(TokenType.FIELD_COMMENT, line.substring(commentOpen, commentClose + 1),
+                        line.substring(commentOpen + 1, commentClose).trim(), commentOpen, commentClose + 1));
+                    return;
+                }
+            }
+        }
+
+        tokens.add(new Token(TokenType.TEXT, raw, raw, start, close + 1));
+    }
+
+    /**
+     * 在 [from, to) 中查找字符，找不到时返回 -1
+     */
+    private static int indexOf(String line, char c, int from, int to) {
+        for (int i = from; i < to; i++) {
+            if (line.charAt(i) == c) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static void flushText(String line, int textStart, int end, List<Token> tokens) {
+        if (textStart >= 0 && textStart < end) {
+            String text = line.substring(textStart, end);
+            tokens.add(new Token(TokenType.TEXT, text, text, textStart, end));
+        }
+    }
+
+    private static boolean isSpace(char c) {
+        return c == ' ' || c == '　' || c == '\t' || c == '\r' || c == '\n';
+    }
+
+    private static boolean isDigit(char c) {
+        return (c >= '0' && c <= '9') || (c >= '０' && c <= '９');
+    }
+
+    private static boolean isUpperAscii(char c) {
+        return c >= 'A' && c <= 'Z';
+    }
+}
@@ -0,0 +1,211 @@
+package com.example.util;
+
+import java.text.Normalizer;
+
+/**
+ * 表驱动的日文字符串标准化器
+ * 结果与 StringCompareUtil 原有的 replaceAll + NFKC 处理完全一致，但只对输入遍历一次，
+ * 写入线程内复用的缓冲区：
+ * - 全角英数/符号折叠为半角，半角片假名折叠为全角
+ * - 半角浊音/半浊音符号与前一个假名合成（ｶﾞ → ガ）
+ * - 去除空格和 ASCII 标点
+ * 表中未覆盖的字符（合成用组合符号、兼容汉字、①等）会整体回退到原有的 NFKC 实现。
+ */
+public final class JapaneseNormalizer {
+
+    private static final byte UNSUPPORTED = 0;   // 未覆盖，回退到 NFKC
+    private static final byte KEEP = 1;          // 保留（可能折叠为其他字符）
+    private static final byte DROP_EARLY = 2;    // NFKC 之前就被去除的字符，不阻断假名合成
+    private static final byte DROP_LATE = 3;     // NFKC 之后才被去除的字符，会阻断假名合成
+    private static final byte VOICED_MARK = 4;   // 浊音/半浊音组合符号
+
+    private static final char DAKUTEN = '゙';
+    private static final char HANDAKUTEN = '゚';
+    private static final int KANA_START = 0x3040;
+    private static final int KANA_END = 0x3100;
+
+    private static final byte[] KIND = new byte[0x10000];
+    private static final char[] FOLD = new char[0x10000];
+    private static final char[] DAKUTEN_COMPOSE = new char[KANA_END - KANA_START];
+    private static final char[] HANDAKUTEN_COMPOSE = new char[KANA_END - KANA_START];
+
+    private static final long FNV_OFFSET = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    private static final ThreadLocal<char[]> BUFFER = ThreadLocal.withInitial(() -> new char[256]);
+
+    static {
+        buildTable(0x0000, 0x007F);
+        buildTable(0x3000, 0x30FF);   // CJK 符号、平假名、片假名
+        buildTable(0x3400, 0x4DBF);   // CJK 扩展 A
+        buildTable(0x4E00, 0x9FFF);   // CJK 统一汉字
+        buildTable(0xFF01, 0xFF9F);   // 全角英数、半角片假名
+
+        for (int c = KANA_START; c < KANA_END; c++) {
+            DAKUTEN_COMPOSE[c - KANA_START] = compose((char) c, DAKUTEN);
+            HANDAKUTEN_COMPOSE[c - KANA_START] = compose((char) c, HANDAKUTEN);
+        }
+    }
+
+    private JapaneseNormalizer() {
+    }
+
+    /**
+     * 标准化字符串，结果可直接作为比较/查找用的键
+     * @return 标准化后的字符串，输入为 null 时返回 null
+     */
+    public static String normalize(CharSequence str) {
+        if (str == null) {
+            return null;
+        }
+        char[] buffer = BUFFER.get();
+        if (buffer.length < str.length()) {
+            buffer = new char[Math.max(str.length(), buffer.length * 2)];
+            BUFFER.set(buffer);
+        }
+        int length = normalizeInto(str, buffer);
+        if (length < 0) {
+            return StringCompareUtil.legacyNormalize(str.toString());
+        }
+        return new String(buffer, 0, length);
+    }
+
+    /**
+     * 计算标准化结果的 64 位指纹（FNV-1a），不生成中间字符串
+     * 指纹相同不保证标准化结果相同，需要精确匹配时请使用 normalize
+     */
+    public static long fingerprint(CharSequence str) {
+        if (str == null) {
+            return 0L;
+        }
+        char[] buffer = BUFFER.get();
+        if (buffer.length < str.length()) {
+            buffer = new char[Math.max(str.length(), buffer.length * 2)];
+            BUFFER.set(buffer);
+        }
+        int length = normalizeInto(str, buffer);
+        if (length < 0) {
+            String normalized = StringCompareUtil.legacyNormalize(str.toString());
+            return fingerprint(normalized.toCharArray(), normalized.length());
+        }
+        return fingerprint(buffer, length);
+    }
+
+    /**
+     * 标准化到缓冲区，返回写入长度；遇到未覆盖的字符返回 -1
+     */
+    private static int normalizeInto(CharSequence str, char[] buffer) {
+        int length = 0;
+        boolean composable = false;  // 上一个输出字符能否与后续浊音符号合成
+        for (int i = 0; i < str.length(); i++) {
+            char c = str.charAt(i);
+            switch (KIND[c]) {
+                case KEEP:
+                    buffer[length++] = FOLD[c];
+                    composable = true;
+                    break;
+                case DROP_EARLY:
+                    break;
+                case DROP_LATE:
+                    composable = false;
+                    break;
+                case VOICED_MARK:
+                    char mark = FOLD[c];
+                    if (composable && length > 0) {
+                        char composed = composeKana(buffer[length - 1], mark);
+                        if (composed != 0) {
+                            buffer[length - 1] = composed;
+                            break;
+                        }
+                    }
+                    buffer[length++] = mark;
+                    composable = false;
+                    break;
+                default:
+                    return -1;
+            }
+        }
+        return length;
+    }
+
+    private static char composeKana(char base, char mark) {
+        if (base < KANA_START || base >= KANA_END) {
+            return 0;
+        }
+        return mark == DAKUTEN
+            ? DAKUTEN_COMPOSE[base - KANA_START]
+            : HANDAKUTEN_COMPOSE[base - KANA_START];
+    }
+
+    private static long fingerprint(char[] chars, int length) {
+        long hash = FNV_OFFSET;
+        for (int i = 0; i < length; i++) {
+            hash = (hash ^ chars[i]) * FNV_PRIME;
+        }
+        return hash;
+    }
+
+    private static void buildTable(int from, int to) {
+        for (int c = from; c <= to; c++) {
+            char ch = (char) c;
+            if (c < 0x80) {
+                if (isRemovedBeforeNormalize(ch)) {
+                    KIND[c] = DROP_EARLY;
+                } else if (isAsciiPunctOrSpace(ch)) {
+                    KIND[c] = DROP_LATE;
+                } else {
+                    KIND[c] = KEEP;
+                    FOLD[c] = ch;
+                }
+                continue;
+            }
+            if (ch == '　') {
+                KIND[c] = DROP_EARLY;
+                continue;
+            }
+
+            String normalized = Normalizer.normalize(String.valueOf(ch), Normalizer.Form.NFKC);
+            if (normalized.length() != 1) {
+                continue;  // 展开为多个字符（如 ゛ → " ゙"），交给 NFKC 处理
+            }
+            char folded = normalized.charAt(0);
+            if (folded == DAKUTEN || folded == HANDAKUTEN) {
+                KIND[c] = VOICED_MARK;
+                FOLD[c] = folded;
+            } else if (isCombining(folded)) {
+                continue;
+            } else if (folded < 0x80 && isAsciiPunctOrSpace(folded)) {
+                KIND[c] = DROP_LATE;
+            } else {
+                KIND[c] = KEEP;
+                FOLD[c] = folded;
+            }
+        }
+    }
+
+    // 对应原实现第一步 [\s　*"./\[\]]
+    private static boolean isRemovedBeforeNormalize(char c) {
+        return isAsciiSpace(c) || c == '*' || c == '"' || c == '.' || c == '/' || c == '[' || c == ']';
+    }
+
+    // 对应原实现最后一步 [\p{Punct}\s　]
+    private static boolean isAsciiPunctOrSpace(char c) {
+        return isAsciiSpace(c) || (c > 0x20 && c < 0x7F && !Character.isLetterOrDigit(c));
+    }
+
+    private static boolean isAsciiSpace(char c) {
+        return c == ' ' || c == '\t' || c == '\n' || c == '\u000B' || c == '\f' || c == '\r';
+    }
+
+    private static boolean isCombining(char c) {
+        int type = Character.getType(c);
+        return type == Character.NON_SPACING_MARK
+            || type == Character.ENCLOSING_MARK
+            || type == Character.COMBINING_SPACING_MARK;
+    }
+
+    private static char compose(char base, char mark) {
+        String composed = Normalizer.normalize(new String(new char[] {base, mark}), Normalizer.Form.NFC);
+        return composed.length() == 1 ? composed.charAt(0) : 0;
+    }
+}
@@ -17,53 +17,59 @@ public class JavaFileReader {
     private static final Pattern FIELD_TYPE_PATTERN = Pattern.compile("private\\s+(\\w+)\\s+\\w+;");
 
     public static ClassInfo readJavaFileToModel(String filename) throws IOException {
+        try (BufferedReader reader = new BufferedReader(
+                new InputStreamReader(new FileInputStream(filename), "UTF-8"))) {
+            return readJavaFileToModel(reader);
+        }
+    }
+
+    /**
+     * 从已打开的 Reader 解析实体类，调用方负责关闭 Reader
+     */
+    public static ClassInfo readJavaFileToModel(BufferedReader reader) throws IOException {
         ClassInfo classInfo = new ClassInfo();
         StringBuilder commentBuffer = new StringBuilder();
         boolean inComment = false;
 
-        try (BufferedReader reader = new BufferedReader(
-                new InputStreamReader(new FileInputStream(filename), "UTF-8"))) {
+        String line;
+        while ((line = reader.readLine()) != null) {
+            line = line.trim();
             
-            String line;
-            while ((line = reader.readLine()) != null) {
-                line = line.trim();
-                
-                // 处理类名
-                if (line.contains("public class")) {
-                    Matcher matcher = CLASS_PATTERN.matcher(line);
-                    if (matcher.find()) {
-                        classInfo.setClassName(matcher.group(1));
-                        logger.debug("Found class name: {}", matcher.group(1));
-                    }
-                }
-                
-                // 处理注释开始
-                if (line.startsWith("/**")) {
-                    inComment = true;
-                    commentBuffer.setLength(0);
-                    continue;
-                }
-                
-                // 处理注释结束
-                if (line.startsWith("*/")) {
-                    inComment = false;
-                    processComment(commentBuffer.toString(), classInfo);
-                    continue;
+            // 处理类名
+            if (line.contains("public class")) {
+                Matcher matcher = CLASS_PATTERN.matcher(line);
+                if (matcher.find()) {
+                    classInfo.setClassName(matcher.group(1));
+                    logger.debug("Found class name: {}", matcher.group(1));
                 }
-                
-                // 收集注释内容
-                if (inComment && line.startsWith("*")) {
-                    commentBuffer.append(line.substring(1).trim()).append("\n");
-                }
-                
-                // 处理字段类型
-                if (line.startsWith("private")) {
-                    Matcher matcher = FIELD_TYPE_PATTERN.matcher(line);
-                    if (matcher.find() && !classInfo.getFields().isEmpty()) {
-                        classInfo.getFields().get(classInfo.getFields().size() - 1)
-                            .setFieldType(matcher.group(1));
-                        logger.debug("Found field type: {}", matcher.group(1));
-                    }
+            }
+            
+            // 处理注释开始
+            if (line.startsWith("/**")) {
+                inComment = true;
+                commentBuffer.setLength(0);
+                continue;
+            }
+            
+            // 处理注释结束
+            if (line.startsWith("*/")) {
+                inComment = false;
+                processComment(commentBuffer.toString(), classInfo);
+                continue;
+            }
+            
+            // 收集注释内容
+            if (inComment && line.startsWith("*")) {
+                commentBuffer.append(line.substring(1).trim()).append("\n");
+            }
+            
+            // 处理字段类型
+            if (line.startsWith("private")) {
+                Matcher matcher = FIELD_TYPE_PATTERN.matcher(line);
+                if (matcher.find() && !classInfo.getFields().isEmpty()) {
+                    classInfo.getFields().get(classInfo.getFields().size() - 1)
+                        .setFieldType(matcher.group(1));
+                    logger.debug("Found field type: {}", matcher.group(1));
                 }
             }
         }
@@ -0,0 +1,104 @@
+package com.example.util;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+
+/**
+ * 多关键字匹配自动机（Aho-Corasick）
+ * 对文本只扫描一次，返回出现过的关键字的位掩码（第 i 位对应第 i 个关键字），最多支持 64 个关键字。
+ * 构建后不可变，可被多个线程共享。
+ */
+public final class KeywordAutomaton {
+    private final String[] keywords;
+    private final List<Map<Character, Integer>> children = new ArrayList<>();
+    private final int[] fail;
+    private final long[] output;
+
+    public KeywordAutomaton(String... keywords) {
+        if (keywords.length > Long.SIZE) {
+            throw new IllegalArgumentException("At most " + Long.SIZE + " keywords are supported");
+        }
+        this.keywords = keywords.clone();
+
+        // 1. 构建字典树
+        children.add(new HashMap<>());
+        List<Long> outputs = new ArrayList<>();
+        outputs.add(0L);
+        for (int i = 0; i < keywords.length; i++) {
+            if (keywords[i].isEmpty()) {
+                throw new IllegalArgumentException("Empty keyword at index " + i);
+            }
+            int node = 0;
+            for (char c : keywords[i].toCharArray()) {
+                Integer next = children.get(node).get(c);
+                if (next == null) {
+                    next = children.size();
+                    children.get(node).put(c, next);
+                    children.add(new HashMap<>());
+                    outputs.add(0L);
+                }
+                node = next;
+            }
+            outputs.set(node, outputs.get(node) | (1L << i));
+        }
+
+        // 2. 按广度优先计算失败指针，并合并后缀节点的输出
+        fail = new int[children.size()];
+        output = new long[children.size()];
+        for (int i = 0; i < output.length; i++) {
+            output[i] = outputs.get(i);
+        }
+        Queue<Integer> queue = new ArrayDeque<>(children.get(0).values());
+        while (!queue.isEmpty()) {
+            int node = queue.poll();
+            for (Map.Entry<Character, Integer> edge : children.get(node).entrySet()) {
+                int child = edge.getValue();
+                int state = fail[node];
+                while (state != 0 && !children.get(state).containsKey(edge.getKey())) {
+                    state = fail[state];
+                }
+                Integer target = node == 0 ? null : children.get(state).get(edge.getKey());
+                fail[child] = target != null ? target : 0;
+                output[child] |= output[fail[child]];
+                queue.add(child);
+            }
+        }
+    }
+
+    /**
+     * 扫描文本，返回出现过的关键字位掩码
+     */
+    public long scan(CharSequence text) {
+        long found = 0L;
+        int state = 0;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            Integer next;
+            while ((next = children.get(state).get(c)) == null && state != 0) {
+                state = fail[state];
+            }
+            state = next != null ? next : 0;
+            found |= output[state];
+        }
+        return found;
+    }
+
+    /**
+     * 掩码中是否包含第 index 个关键字
+     */
+    public static boolean contains(long mask, int index) {
+        return (mask & (1L << index)) != 0;
+    }
+
+    public String getKeyword(int index) {
+        return keywords[index];
+    }
+
+    public int size() {
+        return keywords.length;
+    }
+}
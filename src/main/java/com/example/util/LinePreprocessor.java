@@ -0,0 +1,155 @@
+package com.example.util;
+
+/**
+ * 输入行预处理
+ * 去除 BOM 和首尾引号、全角空格转半角、去除「」和 () 内的空白、合并连续空白，
+ * 在一次扫描中完成，结果写入可复用的字符缓冲区，除了返回的字符串外不再分配对象；
+ * 行不需要修改时直接返回原字符串。
+ * 缓冲区不是线程安全的，通过 get() 取得当前线程的实例。
+ */
+public final class LinePreprocessor {
+    private static final char BOM = '\uFEFF';
+    private static final ThreadLocal<LinePreprocessor> LOCAL = ThreadLocal.withInitial(LinePreprocessor::new);
+
+    private char[] buffer = new char[256];
+
+    private LinePreprocessor() {
+    }
+
+    /**
+     * 当前线程的预处理器
+     */
+    public static LinePreprocessor get() {
+        return LOCAL.get();
+    }
+
+    /**
+     * Type1 的预处理：去除行首的双引号和行尾的双引号或句号，再去除首尾空白
+     */
+    public String stripQuotes(String line) {
+        if (line == null) {
+            return null;
+        }
+        int start = skipBom(line);
+        int end = line.length();
+        if (start < end && line.charAt(start) == '"') {
+            start++;
+        }
+        if (end > start && (line.charAt(end - 1) == '"' || line.charAt(end - 1) == '。')) {
+            end--;
+        }
+        while (start < end && line.charAt(start) <= ' ') {
+            start++;
+        }
+        while (end > start && line.charAt(end - 1) <= ' ') {
+            end--;
+        }
+        return start == 0 && end == line.length() ? line : line.substring(start, end);
+    }
+
+    /**
+     * Type2 的预处理：去除首尾空白和首尾的双引号（行首全角空格之后的引号保留），
+     * 全角空格转半角，去除「」和 () 内的空白，连续空白合并为一个空格，最后去除首尾空白。
+     * 「 和 ( 只有在后面还有对应的 」 和 ) 时才开始一个区间，区间到第一个 」 或 ) 为止。
+     */
+    public String normalize(String line) {
+        if (line == null) {
+            return null;
+        }
+        int start = skipBom(line);
+        int end = line.length();
+        while (start < end && line.charAt(start) <= ' ') {
+            start++;
+        }
+        while (end > start && line.charAt(end - 1) <= ' ') {
+            end--;
+        }
+        if (start < end && line.charAt(start) == '"') {
+            start++;
+        }
+        if (end > start && line.charAt(end - 1) == '"') {
+            end--;
+        }
+
+        int lastBracketClose = line.lastIndexOf('」', end - 1);
+        int lastParenClose = line.lastIndexOf(')', end - 1);
+        char[] out = ensureCapacity(end - start);
+        int length = 0;
+        boolean inBracket = false;
+        boolean inParen = false;
+        boolean pendingSpace = false;
+        boolean changed = start != 0 || end != line.length();
+
+        for (int i = start; i < end; i++) {
+            char c = line.charAt(i);
+            if (c == '　') {
+                c = ' ';
+                changed = true;
+            }
+            if (isWhitespace(c)) {
+                if (inBracket || inParen) {
+                    changed = true;
+                } else if (pendingSpace) {
+                    changed = true;
+                } else {
+                    pendingSpace = true;
+                    if (c != ' ') {
+                        changed = true;
+                    }
+                }
+                continue;
+            }
+
+            if (!inBracket && c == '「' && i < lastBracketClose) {
+                inBracket = true;
+            } else if (inBracket && c == '」') {
+                inBracket = false;
+            }
+            if (!inParen && c == '(' && i < lastParenClose) {
+                inParen = true;
+            } else if (inParen && c == ')') {
+                inParen = false;
+            }
+
+            if (pendingSpace) {
+                out[length++] = ' ';
+                pendingSpace = false;
+            }
+            out[length++] = c;
+        }
+        if (pendingSpace) {
+            out[length++] = ' ';
+        }
+
+        // 合并后首尾仍可能有空白（如不属于 \s 的控制字符）
+        int from = 0;
+        while (from < length && out[from] <= ' ') {
+            from++;
+        }
+        while (length > from && out[length - 1] <= ' ') {
+            length--;
+        }
+        if (!changed && from == 0 && length == end - start) {
+            return line;
+        }
+        return new String(out, from, length - from);
+    }
+
+    private static int skipBom(String line) {
+        return !line.isEmpty() && line.charAt(0) == BOM ? 1 : 0;
+    }
+
+    /**
+     * 与正则表达式 \s 相同的空白字符
+     */
+    private static boolean isWhitespace(char c) {
+        return c == ' ' || c == '\t' || c == '\n' || c == '\u000B' || c == '\f' || c == '\r';
+    }
+
+    private char[] ensureCapacity(int capacity) {
+        if (buffer.length < capacity) {
+            buffer = new char[Math.max(capacity, buffer.length * 2)];
+        }
+        return buffer;
+    }
+}
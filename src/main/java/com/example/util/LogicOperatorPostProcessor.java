@@ -2,72 +2,54 @@ package com.example.util;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 import java.util.Map;
 import com.example.model.VariableDefinition;
-import com.example.model.ClassInfo;
 import com.example.model.FieldInfo;
-
-public class LogicOperatorPostProcessor {
+import com.example.model.GeneratedType2JavaInfo;
+import com.example.model.GeneratedType2JavaInfo.ConditionPart;
+import com.example.model.GeneratedType2JavaInfo.Operand;
+
+/**
+ * 逻辑运算符后处理
+ * 在生成条件块代码时按操作数的种类（实体 getter、定义变量、ブランク、数字、字符串）
+ * 把比较运算转换为 StrUtil/NumUtil/DateUtil 的调用。操作数在转换时已经识别好，
+ * 这里不再从生成的文本中重新解析。只读取变量定义，可在多个线程上同时使用。
+ */
+public class LogicOperatorPostProcessor implements GeneratedType2JavaInfo.ConditionEmitter {
     private static final Logger logger = LoggerFactory.getLogger(LogicOperatorPostProcessor.class);
-    
-    private static final Pattern IF_PATTERN = Pattern.compile("if\\s*\\((.+?)\\)\\s*\\{");
-    private static final Pattern CONDITION_PATTERN = 
-        Pattern.compile("([^=!<>\\s]+)\\s*(==|!=|>=|<=|>|<)\\s*([^\\s&|]+)");
 
     private Map<String, VariableDefinition> variableDefinitions;
-    private Map<String, ClassInfo> entityInfos;
 
     public void setVariableDefinitions(Map<String, VariableDefinition> definitions) {
         this.variableDefinitions = definitions;
     }
 
-    public void setEntityInfos(Map<String, ClassInfo> entityInfos) {
-        this.entityInfos = entityInfos;
-        logger.debug("EntityInfos set with {} entries", 
-            entityInfos != null ? entityInfos.size() : 0);
-    }
-
-    public String process(String code) {
-        logger.debug("Processing code: {}", code);
-        if (!code.trim().startsWith("if")) {
-            logger.debug("Not an if statement, returning original code");
-            return code;
-        }
-        if(code.contains("//IFのERROR:")) {
+    /**
+     * 生成条件块的代码
+     * 条件中有无法解析的部分时整个块输出为 //TODO: 注释，没有条件时加上手动处理的提示
+     */
+    public String process(GeneratedType2JavaInfo info) {
+        if (info.getCondition().hasError()) {
             logger.debug("IFのERROR: found, returning error code");
-            return processError(code);
+            return processError(info.generateCode());
         }
-        Matcher ifMatcher = IF_PATTERN.matcher(code);
-        if (!ifMatcher.find()) {
+        if (info.getCondition().isEmpty()) {
             logger.debug("No if condition found, returning original code");
-            return "//TODO:手動で処理をお願いします\n" + code;
+            return "//TODO:手動で処理をお願いします\n" + info.generateCode();
         }
-
-        String condition = ifMatcher.group(1);
-        String processedCondition = processCondition(condition);
-        
-        // 只有当条件确实被修改时才返回新代码
-        if (!condition.equals(processedCondition)) {
-            String newCode = code.replace(condition, processedCondition);
-            logger.info("Converted condition from [{}] to [{}]", condition, processedCondition);
-            return newCode;
-        }
-        
-        return code;
+        return info.generateCode(this);
     }
 
     private String processError(String code) {
         logger.debug("Processing error code: {}", code);
-        
+
         // 首先移除所有的 //IFのERROR:
         String cleanCode = code.replaceAll("//IFのERROR:\\s*", "");
         logger.debug("Code after removing TODO: {}", cleanCode);
-        
+
         // 按行分割
         String[] lines = cleanCode.split("\n");
-        
+
         // 在每行前添加 //TODO:
         StringBuilder result = new StringBuilder();
         for (String line : lines) {
@@ -77,45 +59,30 @@ public class LogicOperatorPostProcessor {
                 result.append(line).append("\n");  // 保持空行不变
             }
         }
-        
+
         logger.debug("Final processed error code: {}", result.toString());
         return result.toString();
     }
 
-    private String processCondition(String condition) {
-        logger.debug("Processing condition: {}", condition);
-        StringBuffer result = new StringBuffer();
-        Matcher matcher = CONDITION_PATTERN.matcher(condition);
-        
-        while (matcher.find()) {
-            String left = matcher.group(1).trim();
-            String operator = matcher.group(2);
-            String right = matcher.group(3).trim();
-            
-            logger.debug("Found comparison: left=[{}], operator=[{}], right=[{}]", left, operator, right);
-            String replacement = convertComparison(left, operator, right);
-            logger.debug("Converted to: {}", replacement);
-            
-            matcher.appendReplacement(result, Matcher.quoteReplacement(replacement));
-        }
-        matcher.appendTail(result);
-        
-        return result.toString();
-    }
+    @Override
+    public String emit(ConditionPart part) {
+        Operand left = part.getLeft();
+        Operand right = part.getRight();
+        String operator = part.getJavaOperator();
+        logger.debug("Converting comparison - left: [{}] {}, operator: [{}], right: [{}] {}",
+            left, left.getKind(), operator, right, right.getKind());
 
-    private String convertComparison(String left, String operator, String right) {
-        logger.debug("Converting comparison - left: [{}], operator: [{}], right: [{}]", left, operator, right);
-        
         String result = null;
-        if (left.contains("get") || right.contains("get")) {
+        if (left.getKind() == Operand.Kind.ENTITY_GETTER || right.getKind() == Operand.Kind.ENTITY_GETTER) {
             result = handleGetterComparison(left, operator, right);
-        } else if (left.startsWith("this.") && right.startsWith("this.")) {
-            result = handleThisComparison(left, operator, right);
-        } else if (right.equals("\"\"")) {
+        } else if (left.getKind() == Operand.Kind.DEFINE_VARIABLE
+                && right.getKind() == Operand.Kind.DEFINE_VARIABLE) {
+            result = handleVariableComparison(left, operator, right);
+        } else if (right.getKind() == Operand.Kind.BLANK) {
             result = handleEmptyStringComparison(left, operator);
-        } else if (right.matches("[0-9]+")) {
-            result = handleNumericComparison(left, operator, right);
-        } else if (right.startsWith("\"") && right.endsWith("\"")) {
+        } else if (right.getKind() == Operand.Kind.NUMBER) {
+            result = compare("NumUtil", left, operator, right);
+        } else if (right.getKind() == Operand.Kind.LITERAL) {
             result = handleStringComparison(left, operator, right);
         }
 
@@ -125,177 +92,66 @@ public class LogicOperatorPostProcessor {
         }
 
         // 默认情况
-        result = String.format("%s %s %s", left, operator, right);
+        result = part.generateCode();
         logger.debug("Using default comparison: [{}]", result);
         return result;
     }
 
-    private boolean isNumericGetter(String expression) {
-        if (expression == null) {
-            return false;
-        }
-        
-        // 从表达式中提取字段信息
-        for (ClassInfo entityInfo : entityInfos.values()) {
-            for (FieldInfo field : entityInfo.getFields()) {
-                String getterMethod = field.getGetMethod();
-                if (expression.contains(getterMethod)) {
-                    return field.isNumericType();
-                }
-            }
-        }
-        return false;
-    }
-
-    private String getTypeInfo(String expression) {
-        if (expression == null) {
-            return "";
-        }
-        
-        // 从表达式中提取字段信息
-        for (ClassInfo entityInfo : entityInfos.values()) {
-            for (FieldInfo field : entityInfo.getFields()) {
-                String getterMethod = field.getGetMethod();
-                if (expression.contains(getterMethod)) {
-                    if(field.isNumericType()){
-                        return "Number";
-                    }
-                    if(field.isLongType()){
-                        return "Long";
-                    }
-                    if(field.isStringType()){
-                        return "String";
-                    }
-                    if(field.isDateType()){
-                        return "Date";
-                    }
-                }
-            }
-        }
-        return "";
-    }
-
-    private String handleGetterComparison(String left, String operator, String right) {
-        logger.debug("Starting handleGetterComparison - left: [{}], operator: [{}], right: [{}]", 
-            left, operator, right);
-
-        // 获取类型信息
-        String leftType = getTypeInfo(left);
-        logger.debug("Got left type: [{}]", leftType);
-
-        String functionName = "";
-        switch (leftType) {
-            case "Number":
+    /**
+     * 按左侧 getter 的字段类型选择工具类，左侧不是 getter 或类型未知时按字符串比较
+     */
+    private String handleGetterComparison(Operand left, String operator, Operand right) {
+        FieldInfo field = left.getField();
+        String functionName = null;
+        if (field != null) {
+            if (field.isNumericType() || field.isLongType()) {
                 functionName = "NumUtil";
-                break;
-            case "Long":
-                functionName = "NumUtil";
-                break;
-            case "String":
+            } else if (field.isStringType()) {
                 functionName = "StrUtil";
-                break;
-            case "Date":
+            } else if (field.isDateType()) {
                 functionName = "DateUtil";
-                break;
-            default:
-                logger.debug("No matching type found, using default");
-                break;
-        }
-        logger.debug("Selected function name: [{}]", functionName);
-
-        String functionPart = "";
-        switch (operator) {
-            case "==": 
-                functionPart = functionName + ".eq";
-                break;
-            case "!=": 
-                functionPart = "!" + functionName + ".eq";
-                break;
-            case ">": 
-                functionPart = functionName + ".gt";
-                break;
-            case ">=": 
-                functionPart = functionName + ".ge";
-                break;
-            case "<": 
-                functionPart = functionName + ".lt";
-                break;
-            case "<=": 
-                functionPart = functionName + ".le";
-                break;
-            default:
-                logger.debug("Unsupported operator: [{}]", operator);
-                break;
+            }
         }
-        logger.debug("Generated function part: [{}]", functionPart);
+        logger.debug("Selected function name: [{}] for field type [{}]",
+            functionName, field != null ? field.getFieldType() : null);
 
-        if(!functionPart.isEmpty() && !functionName.isEmpty()) {
-            String result = String.format("%s(%s, %s)", functionPart, left, right);
-            logger.debug("Generated comparison: [{}]", result);
-            return result;
+        if (functionName != null) {
+            String result = compare(functionName, left, operator, right);
+            if (result != null) {
+                return result;
+            }
         }
 
         // 其他情况使用字符串比较
         logger.debug("Falling back to string comparison");
-        if (operator.equals("==")) {
-            String result = String.format("StrUtil.eq(%s, %s)", left, right);
-            logger.debug("Generated string equals comparison: [{}]", result);
-            return result;
-        } else if (operator.equals("!=")) {
-            String result = String.format("!StrUtil.eq(%s, %s)", left, right);
-            logger.debug("Generated string not equals comparison: [{}]", result);
-            return result;
-        }
-        
-        logger.debug("No comparison generated, returning null");
-        return null;
+        return handleStringComparison(left, operator, right);
     }
 
-    private String handleThisComparison(String left, String operator, String right) {
-        // 提取变量名
-        String leftVar = left.substring(5);  // 去掉 "this."
-        String rightVar = right.substring(5);  // 去掉 "this."
-        
-        logger.debug("Handling this comparison - leftVar: {}, rightVar: {}", leftVar, rightVar);
-        
-        // 获取变量定义
-        VariableDefinition leftDef = variableDefinitions != null ? variableDefinitions.get(leftVar) : null;
-        VariableDefinition rightDef = variableDefinitions != null ? variableDefinitions.get(rightVar) : null;
-        
-        // 记录日志
-        logger.debug("Variable definitions - left: {} ({}), right: {} ({})", 
-            leftVar, leftDef != null ? leftDef.getType() : "null",
-            rightVar, rightDef != null ? rightDef.getType() : "null");
+    private String handleVariableComparison(Operand left, String operator, Operand right) {
+        VariableDefinition leftDef = variableDefinitions != null
+            ? variableDefinitions.get(left.getVariableName()) : null;
+        VariableDefinition rightDef = variableDefinitions != null
+            ? variableDefinitions.get(right.getVariableName()) : null;
+
+        logger.debug("Variable definitions - left: {} ({}), right: {} ({})",
+            left.getVariableName(), leftDef != null ? leftDef.getType() : "null",
+            right.getVariableName(), rightDef != null ? rightDef.getType() : "null");
 
-        // 检查变量类型
-        boolean isLeftNumeric = leftDef != null && leftDef.isNumericType();
-        boolean isRightNumeric = rightDef != null && rightDef.isNumericType();
-        
         // 如果两个变量都找到了定义，并且至少一个是数字类型
-        if (leftDef != null && rightDef != null && (isLeftNumeric || isRightNumeric)) {
+        if (leftDef != null && rightDef != null && (leftDef.isNumericType() || rightDef.isNumericType())) {
             logger.debug("Using numeric comparison because variables are numeric types");
-            switch (operator) {
-                case "==": return String.format("NumUtil.eq(%s, %s)", left, right);
-                case "!=": return String.format("!NumUtil.eq(%s, %s)", left, right);
-                case ">": return String.format("NumUtil.gt(%s, %s)", left, right);
-                case ">=": return String.format("NumUtil.ge(%s, %s)", left, right);
-                case "<": return String.format("NumUtil.lt(%s, %s)", left, right);
-                case "<=": return String.format("NumUtil.le(%s, %s)", left, right);
+            String result = compare("NumUtil", left, operator, right);
+            if (result != null) {
+                return result;
             }
         }
-        
+
         // 如果找不到变量定义或者都是字符串类型，使用字符串比较
         logger.debug("Using string comparison as fallback");
-        if (operator.equals("==")) {
-            return String.format("StrUtil.eq(%s, %s)", left, right);
-        } else if (operator.equals("!=")) {
-            return String.format("!StrUtil.eq(%s, %s)", left, right);
-        }
-        
-        return null;
+        return handleStringComparison(left, operator, right);
     }
 
-    private String handleEmptyStringComparison(String left, String operator) {
+    private String handleEmptyStringComparison(Operand left, String operator) {
         if (operator.equals("==")) {
             return String.format("StrUtil.isEmpty(%s)", left);
         } else if (operator.equals("!=")) {
@@ -304,19 +160,7 @@ public class LogicOperatorPostProcessor {
         return null;
     }
 
-    private String handleNumericComparison(String left, String operator, String right) {
-        switch (operator) {
-            case "==": return String.format("NumUtil.eq(%s, %s)", left, right);
-            case "!=": return String.format("!NumUtil.eq(%s, %s)", left, right);
-            case ">": return String.format("NumUtil.gt(%s, %s)", left, right);
-            case ">=": return String.format("NumUtil.ge(%s, %s)", left, right);
-            case "<": return String.format("NumUtil.lt(%s, %s)", left, right);
-            case "<=": return String.format("NumUtil.le(%s, %s)", left, right);
-            default: return null;
-        }
-    }
-
-    private String handleStringComparison(String left, String operator, String right) {
+    private String handleStringComparison(Operand left, String operator, Operand right) {
         if (operator.equals("==")) {
             return String.format("StrUtil.eq(%s, %s)", left, right);
         } else if (operator.equals("!=")) {
@@ -324,4 +168,16 @@ public class LogicOperatorPostProcessor {
         }
         return null;
     }
-} 
\ No newline at end of file
+
+    private static String compare(String functionName, Operand left, String operator, Operand right) {
+        switch (operator) {
+            case "==": return String.format("%s.eq(%s, %s)", functionName, left, right);
+            case "!=": return String.format("!%s.eq(%s, %s)", functionName, left, right);
+            case ">": return String.format("%s.gt(%s, %s)", functionName, left, right);
+            case ">=": return String.format("%s.ge(%s, %s)", functionName, left, right);
+            case "<": return String.format("%s.lt(%s, %s)", functionName, left, right);
+            case "<=": return String.format("%s.le(%s, %s)", functionName, left, right);
+            default: return null;
+        }
+    }
+}
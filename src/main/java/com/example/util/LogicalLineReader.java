@@ -0,0 +1,141 @@
+package com.example.util;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * 逻辑行读取器
+ * 输入文本是从 Excel 复制出来的，一个单元格内有换行时会被双引号包住并跨多行。
+ * 本类逐行读取（不缓存整个文件），在双引号包住的单元格内，如果下一物理行不是新语句的开头
+ * （項目「、》【条件】、または、、かつ、），就把它拼接到上一行；否则每个物理行仍是一个逻辑行。
+ * 行内容（包括引号）保持不变，交给转换器自己处理，文件开头的 BOM 会被去除。
+ */
+public class LogicalLineReader implements Iterator<String>, Closeable {
+    private static final String[] STATEMENT_STARTS = {"項目「", "》【条件】", "または、", "かつ、"};
+
+    private final BufferedReader reader;
+    private String pending;        // 已读入、属于下一逻辑行的物理行
+    private String next;           // 已组装好、尚未返回的逻辑行
+    private boolean firstLine = true;
+    private boolean inQuotedCell;
+    private boolean finished;
+
+    public LogicalLineReader(BufferedReader reader) {
+        this.reader = reader;
+    }
+
+    /**
+     * 读取下一逻辑行
+     * @return 逻辑行，没有更多内容时返回 null
+     */
+    public String readLine() throws IOException {
+        String line = pending != null ? pending : readPhysicalLine();
+        pending = null;
+        if (line == null) {
+            return null;
+        }
+        updateCellState(line);
+
+        StringBuilder logical = null;
+        while (inQuotedCell) {
+            String following = readPhysicalLine();
+            if (following == null) {
+                break;
+            }
+            if (startsStatement(following)) {
+                pending = following;
+                break;
+            }
+            if (logical == null) {
+                logical = new StringBuilder(line);
+            }
+            logical.append(following, skipSpaces(following), following.length());
+            updateCellState(following);
+        }
+        return logical != null ? logical.toString() : line;
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (next == null && !finished) {
+            try {
+                next = readLine();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            finished = next == null;
+        }
+        return next != null;
+    }
+
+    @Override
+    public String next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        String line = next;
+        next = null;
+        return line;
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    private String readPhysicalLine() throws IOException {
+        String line = reader.readLine();
+        if (firstLine && line != null && !line.isEmpty() && line.charAt(0) == '\uFEFF') {
+            line = line.substring(1);
+        }
+        firstLine = false;
+        return line;
+    }
+
+    /**
+     * 单元格以引号开头的行开始，以引号结尾的行结束
+     */
+    private void updateCellState(String line) {
+        int start = skipSpaces(line);
+        int end = line.length();
+        while (end > start && isSpace(line.charAt(end - 1))) {
+            end--;
+        }
+        boolean opens = start < end && line.charAt(start) == '"';
+        boolean closes = end > start && line.charAt(end - 1) == '"' && (!opens || end - start > 1);
+        if (!inQuotedCell) {
+            inQuotedCell = opens && !closes;
+        } else if (closes) {
+            inQuotedCell = false;
+        }
+    }
+
+    private static boolean startsStatement(String line) {
+        int start = skipSpaces(line);
+        if (start < line.length() && line.charAt(start) == '"') {
+            start++;
+        }
+        for (String prefix : STATEMENT_STARTS) {
+            if (line.startsWith(prefix, start)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static int skipSpaces(String line) {
+        int i = 0;
+        while (i < line.length() && isSpace(line.charAt(i))) {
+            i++;
+        }
+        return i;
+    }
+
+    private static boolean isSpace(char c) {
+        return c <= ' ' || c == '　';
+    }
+}
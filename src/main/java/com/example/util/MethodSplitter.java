@@ -0,0 +1,197 @@
+package com.example.util;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+
+/**
+ * 把生成的语句按方法分割输出
+ * Type1/Type2 的输出是一长串语句，全部放进一个方法时，字节码超过 8000 字节（HotSpot 的 HugeMethodLimit）
+ * 的方法不会被 JIT 编译，超过 64KB 时 javac 无法编译。这里把代码包装为一个类，按估算的字节码大小
+ * 依次装入 name1()、name2()……，最后生成按顺序调用它们的入口方法 name()。
+ * 每次 add 的代码（一条语句或一个条件块）是一个整体，不会被拆到两个方法中；
+ * 单独超过上限的代码块放在自己的方法中并记录警告。输出是流式的，不保留已写出的代码。
+ */
+public class MethodSplitter {
+    private static final Logger logger = LoggerFactory.getLogger(MethodSplitter.class);
+    /** 方法的字节码上限（JVM 规范） */
+    private static final int MAX_CODE_LENGTH = 65535;
+    /** 每个方法末尾的 return */
+    private static final int METHOD_OVERHEAD = 1;
+    /** 入口方法中每次调用：aload_0 + invokevirtual */
+    private static final int CALL_SIZE = 4;
+
+    private final GeneratedCodeWriter writer;
+    private final String methodName;
+    private final int maxMethodBytes;
+    private int methodCount;
+    private int currentBytes;
+    private boolean inMethod;
+    private int pendingBlankLines;
+    private long totalBytes;
+
+    /**
+     * 写出类的开始
+     * @param className 生成的类名
+     * @param methodName 入口方法名，分割后的方法为 methodName1、methodName2……
+     * @param maxMethodBytes 每个方法的字节码大小上限（估算值）
+     */
+    public MethodSplitter(GeneratedCodeWriter writer, String className, String methodName, int maxMethodBytes)
+            throws IOException {
+        this.writer = writer;
+        this.methodName = methodName;
+        if (maxMethodBytes > MAX_CODE_LENGTH) {
+            logger.warn("maxMethodBytes {} exceeds the JVM limit, using {}", maxMethodBytes, MAX_CODE_LENGTH);
+            maxMethodBytes = MAX_CODE_LENGTH;
+        }
+        this.maxMethodBytes = maxMethodBytes;
+        writer.println("public class " + className + " {");
+    }
+
+    /**
+     * 添加一段代码（一条语句或一个条件块），空字符串表示空行
+     */
+    public void add(String code) throws IOException {
+        int size = estimateBytecodeSize(code);
+        if (inMethod && currentBytes + size + METHOD_OVERHEAD > maxMethodBytes) {
+            closeMethod();
+        }
+        if (!inMethod) {
+            if (code.isEmpty()) {
+                // 方法开头不输出空行
+                return;
+            }
+            openMethod();
+        }
+        if (size + METHOD_OVERHEAD > maxMethodBytes) {
+            logger.warn("Code block estimated at {} bytes exceeds the method limit {}, kept intact in {}{}()",
+                size, maxMethodBytes, methodName, methodCount);
+        }
+        currentBytes += size;
+        totalBytes += size;
+        for (String line : code.split("\n", -1)) {
+            if (line.isEmpty()) {
+                pendingBlankLines++;
+            } else {
+                for (; pendingBlankLines > 0; pendingBlankLines--) {
+                    writer.println();
+                }
+                writer.println("        " + line);
+            }
+        }
+    }
+
+    /**
+     * 结束最后一个方法，写出入口方法和类的结束
+     */
+    public void finish() throws IOException {
+        if (inMethod) {
+            closeMethod();
+        }
+        int dispatcherBytes = methodCount * CALL_SIZE + METHOD_OVERHEAD;
+        if (dispatcherBytes > maxMethodBytes) {
+            logger.warn("Dispatcher method {}() is estimated at {} bytes, above the method limit {}",
+                methodName, dispatcherBytes, maxMethodBytes);
+        }
+        writer.println();
+        writer.println("    /**");
+        writer.println("     * 按顺序调用分割后的方法");
+        writer.println("     */");
+        writer.println("    public void " + methodName + "() {");
+        for (int i = 1; i <= methodCount; i++) {
+            writer.println("        " + methodName + i + "();");
+        }
+        writer.println("    }");
+        writer.println("}");
+        logger.info("Split about {} bytes of bytecode into {} methods (limit {} bytes per method)",
+            totalBytes, methodCount, maxMethodBytes);
+    }
+
+    public int getMethodCount() {
+        return methodCount;
+    }
+
+    private void openMethod() throws IOException {
+        methodCount++;
+        writer.println();
+        writer.println("    private void " + methodName + methodCount + "() {");
+        inMethod = true;
+        currentBytes = 0;
+        pendingBlankLines = 0;
+    }
+
+    private void closeMethod() throws IOException {
+        // 方法末尾不输出空行
+        pendingBlankLines = 0;
+        writer.println("    }");
+        inMethod = false;
+    }
+
+    /**
+     * 估算一段代码编译后的字节码大小，按词法单元计数，偏大：
+     * 行首的标识符按字段读取（aload_0 + getfield，4 字节），"." 之后的标识符按 getfield 或方法调用（3 字节），
+     * 字符串和数值字面量按 ldc_w 或 sipush（3 字节），比较、逻辑运算、!、if、else 按分支指令（3 字节），
+     * this、true、false、null 1 字节，其他运算符 1 字节，";" 按丢弃返回值的 pop（1 字节）。注释不计。
+     */
+    public static int estimateBytecodeSize(String code) {
+        int size = 0;
+        int length = code.length();
+        int i = 0;
+        char previous = 0;  // 上一个非空白的词法单元的最后一个字符
+        while (i < length) {
+            char c = code.charAt(i);
+            if (Character.isWhitespace(c)) {
+                i++;
+                continue;
+            }
+            if (c == '/' && i + 1 < length && code.charAt(i + 1) == '/') {
+                while (i < length && code.charAt(i) != '\n') i++;
+                continue;
+            }
+            if (c == '"' || c == '\'') {
+                i++;
+                while (i < length && code.charAt(i) != c) {
+                    i += code.charAt(i) == '\\' ? 2 : 1;
+                }
+                i++;
+                size += 3;
+            } else if (Character.isDigit(c)) {
+                while (i < length && (Character.isLetterOrDigit(code.charAt(i)) || code.charAt(i) == '.')) i++;
+                size += 3;
+            } else if (Character.isJavaIdentifierStart(c)) {
+                int start = i;
+                while (i < length && Character.isJavaIdentifierPart(code.charAt(i))) i++;
+                String word = code.substring(start, i);
+                switch (word) {
+                    case "this": case "true": case "false": case "null":
+                        size += 1;
+                        break;
+                    case "if": case "else":
+                        size += 3;
+                        break;
+                    default:
+                        size += previous == '.' ? 3 : 4;
+                }
+                c = code.charAt(i - 1);
+            } else {
+                char next = i + 1 < length ? code.charAt(i + 1) : 0;
+                if ((c == '&' && next == '&') || (c == '|' && next == '|')
+                        || ((c == '=' || c == '!' || c == '<' || c == '>') && next == '=')) {
+                    size += 3;
+                    i += 2;
+                    c = next;
+                } else {
+                    if (c == '!' || c == '<' || c == '>') {
+                        size += 3;
+                    } else if (c == ';' || c == '+' || c == '-' || c == '*' || c == '/' || c == '%') {
+                        size += 1;
+                    }
+                    i++;
+                }
+            }
+            previous = c;
+        }
+        return size;
+    }
+}
@@ -0,0 +1,102 @@
+package com.example.util;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.Function;
+
+/**
+ * 保持输入顺序的并行转换器
+ * 输入项（Type1 的行、Type2 的条件块）按块提交到 ForkJoinPool（工作窃取）上转换，
+ * 结果按提交顺序取回并写出，因此输出与顺序转换完全一致。同时在途的块数有上限，
+ * 大文件的结果不会全部堆积在内存中。
+ * 转换函数必须是线程安全的，返回 null 表示该项没有输出。
+ */
+public class OrderedParallelConverter {
+    private static final Logger logger = LoggerFactory.getLogger(OrderedParallelConverter.class);
+    public static final int DEFAULT_CHUNK_SIZE = 256;
+
+    private final int parallelism;
+    private final int chunkSize;
+    private final int maxInFlight;
+
+    /**
+     * 结果写出接口，只在调用线程上按输入顺序调用
+     */
+    public interface ResultWriter {
+        void write(String code) throws IOException;
+    }
+
+    public OrderedParallelConverter(int parallelism) {
+        this(parallelism, DEFAULT_CHUNK_SIZE);
+    }
+
+    public OrderedParallelConverter(int parallelism, int chunkSize) {
+        if (parallelism < 1 || chunkSize < 1) {
+            throw new IllegalArgumentException("parallelism and chunkSize must be positive");
+        }
+        this.parallelism = parallelism;
+        this.chunkSize = chunkSize;
+        this.maxInFlight = parallelism * 4;
+    }
+
+    /**
+     * 并行转换所有输入项并按输入顺序写出结果
+     * @return 输入项数
+     */
+    public <T> int convert(Iterator<T> items, Function<T, String> converter, ResultWriter writer)
+            throws IOException {
+        long start = System.nanoTime();
+        int itemCount = 0;
+        int chunkCount = 0;
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        // 按提交顺序排列的在途块，队首块完成后才能写出，起到重排缓冲的作用
+        ArrayDeque<ForkJoinTask<String[]>> inFlight = new ArrayDeque<>();
+        try {
+            while (items.hasNext()) {
+                List<T> chunk = new ArrayList<>(chunkSize);
+                while (chunk.size() < chunkSize && items.hasNext()) {
+                    chunk.add(items.next());
+                }
+                itemCount += chunk.size();
+                chunkCount++;
+                inFlight.add(pool.submit(() -> convertChunk(chunk, converter)));
+                if (inFlight.size() >= maxInFlight) {
+                    writeNext(inFlight, writer);
+                }
+            }
+            while (!inFlight.isEmpty()) {
+                writeNext(inFlight, writer);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+        logger.info("Converted {} items in {} chunks in {} ms (parallelism {})",
+            itemCount, chunkCount, (System.nanoTime() - start) / 1_000_000, parallelism);
+        return itemCount;
+    }
+
+    private static <T> String[] convertChunk(List<T> chunk, Function<T, String> converter) {
+        String[] results = new String[chunk.size()];
+        for (int i = 0; i < results.length; i++) {
+            results[i] = converter.apply(chunk.get(i));
+        }
+        return results;
+    }
+
+    private static void writeNext(ArrayDeque<ForkJoinTask<String[]>> inFlight, ResultWriter writer)
+            throws IOException {
+        for (String code : inFlight.poll().join()) {
+            if (code != null) {
+                writer.write(code);
+            }
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package com.example.util;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 定义表的行来源
+ * Type3/Type4 只按列号读取单元格的字符串值，不关心来源是 Excel 工作簿还是导出的 CSV/TSV。
+ * .xlsx 使用 XlsxRowReader（SAX），.csv/.tsv 使用 DelimitedRowSource，不加载 POI。
+ */
+public interface RowSource {
+
+    /**
+     * 行处理接口
+     */
+    interface RowHandler {
+        /**
+         * @param rowIndex 行号（从 0 开始，与 Sheet.getRow 相同）
+         * @param cells 按列号排列的单元格值，没有值的列为 null
+         */
+        void row(int rowIndex, String[] cells);
+    }
+
+    /**
+     * 按顺序读取所有行
+     */
+    void read(RowHandler handler) throws IOException;
+
+    /**
+     * 文件的行来源
+     * @param sheetIndex 工作表序号，分隔文本只有一个工作表（0）
+     */
+    static RowSource of(File file, int sheetIndex) {
+        if (DelimitedRowSource.isDelimited(file)) {
+            if (sheetIndex != 0) {
+                return handler -> { };
+            }
+            return new DelimitedRowSource(file);
+        }
+        return handler -> XlsxRowReader.readSheet(file, sheetIndex, handler);
+    }
+
+    /**
+     * 文件中所有工作表的名称，分隔文本的工作表名为文件名（不含扩展名）
+     */
+    static List<String> sheetNames(File file) throws IOException {
+        if (DelimitedRowSource.isDelimited(file)) {
+            String name = file.getName();
+            int dot = name.lastIndexOf('.');
+            return Collections.singletonList(dot > 0 ? name.substring(0, dot) : name);
+        }
+        return XlsxRowReader.sheetNames(file);
+    }
+
+    /**
+     * 是否是 Type3/Type4 能读取的定义表文件
+     */
+    static boolean isSupported(File file) {
+        return file.getName().toLowerCase().endsWith(".xlsx") || DelimitedRowSource.isDelimited(file);
+    }
+
+    /**
+     * 格式名（xlsx、csv、tsv），用于按格式选择列配置
+     */
+    static String formatOf(File file) {
+        String name = file.getName().toLowerCase();
+        int dot = name.lastIndexOf('.');
+        return dot >= 0 ? name.substring(dot + 1) : "";
+    }
+}
@@ -0,0 +1,181 @@
+package com.example.util;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.FileSystems;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 规格文件监视器
+ * 用 WatchService 监视规格目录（包括子目录，新建的子目录会自动加入）和依赖文件
+ * （实体文件、变量定义文件）所在的目录。编辑器保存一个文件时通常会产生多个事件，
+ * 收到事件后再等待一小段时间，把这段时间内的事件合并后一次通知。
+ * 被删除或移出的规格文件和目录单独通知，调用方据此删除对应的输出和缓存。
+ */
+public class SpecWatcher implements Closeable {
+    private static final Logger logger = LoggerFactory.getLogger(SpecWatcher.class);
+    private static final long SETTLE_MILLIS = 50;
+
+    private final Path specRoot;
+    private final long settleMillis;
+    private final Set<Path> dependencies = new HashSet<>();
+    private final WatchService watchService;
+    private final Map<WatchKey, Path> watchedDirs = new HashMap<>();
+    private final Set<Path> specDirs = new HashSet<>();  // 规格目录及其子目录
+
+    /**
+     * 变化通知，只在调用 run 的线程上调用
+     */
+    public interface Listener {
+        /**
+         * 一批合并后的变化
+         * @param dependencies 发生变化的依赖文件（实体文件、变量定义文件）
+         * @param specs 被创建或修改的规格文件（.txt），绝对路径
+         * @param deleted 被删除或移出的规格文件和规格目录，绝对路径
+         */
+        void changed(Set<Path> dependencies, Set<Path> specs, Set<Path> deleted) throws IOException;
+    }
+
+    public SpecWatcher(Path specRoot, Collection<String> dependencyFiles) throws IOException {
+        this(specRoot, dependencyFiles, SETTLE_MILLIS);
+    }
+
+    /**
+     * @param settleMillis 收到事件后等待合并的时间
+     */
+    SpecWatcher(Path specRoot, Collection<String> dependencyFiles, long settleMillis) throws IOException {
+        this.specRoot = specRoot.toAbsolutePath().normalize();
+        this.settleMillis = settleMillis;
+        this.watchService = FileSystems.getDefault().newWatchService();
+        registerTree(this.specRoot);
+        for (String file : dependencyFiles) {
+            if (file == null) {
+                continue;
+            }
+            Path dependency = Paths.get(file).toAbsolutePath().normalize();
+            dependencies.add(dependency);
+            if (!watchedDirs.containsValue(dependency.getParent())) {
+                register(dependency.getParent());
+            }
+        }
+    }
+
+    /**
+     * 监视直到线程被中断
+     */
+    public void run(Listener listener) throws IOException {
+        logger.info("Watching {} and {} dependency files", specRoot, dependencies.size());
+        try {
+            while (!Thread.currentThread().isInterrupted()) {
+                Set<Path> changedDependencies = new LinkedHashSet<>();
+                Set<Path> changedSpecs = new LinkedHashSet<>();
+                Set<Path> deleted = new LinkedHashSet<>();
+                WatchKey key = watchService.take();
+                do {
+                    collect(key, changedDependencies, changedSpecs, deleted);
+                    key = watchService.poll(settleMillis, TimeUnit.MILLISECONDS);
+                } while (key != null);
+
+                // 以合并后的最终状态为准：删除后又创建（编辑器保存、改名回原名）的文件按修改处理
+                for (Iterator<Path> it = changedSpecs.iterator(); it.hasNext(); ) {
+                    Path spec = it.next();
+                    if (!Files.isRegularFile(spec)) {
+                        it.remove();
+                        deleted.add(spec);
+                    }
+                }
+                deleted.removeIf(Files::exists);
+                if (!changedDependencies.isEmpty() || !changedSpecs.isEmpty() || !deleted.isEmpty()) {
+                    listener.changed(changedDependencies, changedSpecs, deleted);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        watchService.close();
+    }
+
+    private void collect(WatchKey key, Set<Path> changedDependencies, Set<Path> changedSpecs, Set<Path> deleted)
+            throws IOException {
+        Path dir = watchedDirs.get(key);
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                // 事件丢失时重新检查所有规格文件
+                logger.warn("Watch events overflowed, rescanning {}", specRoot);
+                addSpecs(BatchConverter.findInputs(specRoot.toString()), changedSpecs);
+                continue;
+            }
+            if (dir == null) {
+                continue;
+            }
+            Path changed = dir.resolve((Path) event.context());
+            if (dependencies.contains(changed)) {
+                changedDependencies.add(changed);
+            } else if (changed.startsWith(specRoot)) {
+                if (event.kind() == StandardWatchEventKinds.ENTRY_CREATE && Files.isDirectory(changed)) {
+                    registerTree(changed);
+                    addSpecs(BatchConverter.findInputs(changed.toString()), changedSpecs);
+                } else if (event.kind() == StandardWatchEventKinds.ENTRY_DELETE && specDirs.contains(changed)) {
+                    // 目录被删除或移出，里面的文件不一定会有单独的事件
+                    specDirs.removeIf(specDir -> specDir.startsWith(changed));
+                    deleted.add(changed);
+                } else if (changed.getFileName().toString().endsWith(".txt")) {
+                    changedSpecs.add(changed);
+                }
+            }
+        }
+        if (!key.reset()) {
+            watchedDirs.remove(key);
+        }
+    }
+
+    private void addSpecs(Collection<Path> specs, Set<Path> changedSpecs) {
+        for (Path spec : specs) {
+            Path normalized = spec.toAbsolutePath().normalize();
+            if (!dependencies.contains(normalized)) {
+                changedSpecs.add(normalized);
+            }
+        }
+    }
+
+    private void registerTree(Path root) throws IOException {
+        Files.walkFileTree(root, new SimpleFileVisitor<Path>() {
+            @Override
+            public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) throws IOException {
+                register(dir);
+                specDirs.add(dir);
+                return FileVisitResult.CONTINUE;
+            }
+        });
+    }
+
+    private void register(Path dir) throws IOException {
+        WatchKey key = dir.register(watchService, StandardWatchEventKinds.ENTRY_CREATE,
+            StandardWatchEventKinds.ENTRY_MODIFY, StandardWatchEventKinds.ENTRY_DELETE);
+        watchedDirs.put(key, dir);
+    }
+}
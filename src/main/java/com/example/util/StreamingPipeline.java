@@ -0,0 +1,154 @@
+package com.example.util;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+/**
+ * 流式转换管道
+ * 读取线程（LogicalLineReader 组装逻辑行）→ 转换线程 → 写出（调用线程），各阶段之间用有界队列连接，
+ * 上游比下游快时会被阻塞，因此内存占用与输入大小无关。
+ */
+public class StreamingPipeline {
+    private static final Logger logger = LoggerFactory.getLogger(StreamingPipeline.class);
+    public static final int DEFAULT_QUEUE_CAPACITY = 1024;
+
+    // 队列结束标记，按引用比较
+    private static final String END = new String("<end>");
+
+    private final int queueCapacity;
+
+    /**
+     * 转换阶段，只在转换线程上调用
+     */
+    public interface ConverterStage {
+        /**
+         * 处理一个逻辑行，生成的代码通过 out 交给写出阶段
+         */
+        void process(String line, Consumer<String> out);
+
+        /**
+         * 输入结束，输出剩余的代码
+         */
+        default void finish(Consumer<String> out) {
+        }
+    }
+
+    /**
+     * 写出阶段，只在调用线程上按顺序调用
+     */
+    public interface ResultWriter {
+        void write(String code) throws IOException;
+    }
+
+    public StreamingPipeline() {
+        this(DEFAULT_QUEUE_CAPACITY);
+    }
+
+    public StreamingPipeline(int queueCapacity) {
+        this.queueCapacity = queueCapacity;
+    }
+
+    /**
+     * 运行管道直到输入结束
+     * @return 读取的逻辑行数
+     */
+    public long run(BufferedReader input, ConverterStage converter, ResultWriter writer) throws IOException {
+        long start = System.nanoTime();
+        BlockingQueue<String> lines = new ArrayBlockingQueue<>(queueCapacity);
+        BlockingQueue<String> codes = new ArrayBlockingQueue<>(queueCapacity);
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        long[] lineCount = new long[1];
+
+        Thread readerThread = new Thread(() -> {
+            try (LogicalLineReader reader = new LogicalLineReader(input)) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    lines.put(line);
+                    lineCount[0]++;
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (Throwable e) {
+                failure.compareAndSet(null, e);
+            } finally {
+                putEnd(lines);
+            }
+        }, "pipeline-reader");
+
+        Thread converterThread = new Thread(() -> {
+            Consumer<String> out = code -> {
+                try {
+                    codes.put(code);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IllegalStateException("Interrupted while queueing generated code", e);
+                }
+            };
+            try {
+                String line;
+                while ((line = lines.take()) != END) {
+                    converter.process(line, out);
+                }
+                converter.finish(out);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (Throwable e) {
+                failure.compareAndSet(null, e);
+            } finally {
+                putEnd(codes);
+            }
+        }, "pipeline-converter");
+
+        readerThread.setDaemon(true);
+        converterThread.setDaemon(true);
+        readerThread.start();
+        converterThread.start();
+
+        try {
+            String code;
+            while ((code = codes.take()) != END) {
+                writer.write(code);
+            }
+            if (failure.get() != null) {
+                // 转换失败时读取线程可能阻塞在已满的队列上
+                readerThread.interrupt();
+            }
+            readerThread.join();
+            converterThread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while streaming", e);
+        } finally {
+            // 写出失败时停止上游
+            readerThread.interrupt();
+            converterThread.interrupt();
+        }
+
+        Throwable error = failure.get();
+        if (error instanceof IOException) {
+            throw (IOException) error;
+        } else if (error != null) {
+            throw new IOException("Streaming conversion failed", error);
+        }
+        logger.info("Streamed {} logical lines in {} ms", lineCount[0], (System.nanoTime() - start) / 1_000_000);
+        return lineCount[0];
+    }
+
+    /**
+     * 放入结束标记；下游已停止（被中断）时放弃
+     */
+    private static void putEnd(BlockingQueue<String> queue) {
+        try {
+            queue.put(END);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -9,19 +9,30 @@ public class StringCompareUtil {
             return false;
         }
         
+        return normalizeJapaneseString(str1).equals(normalizeJapaneseString(str2));
+    }
+
+    /**
+     * 生成用于比较的标准化键，两个字符串的键相等当且仅当 compareJapaneseString 返回 true
+     * @return 标准化后的字符串，输入为 null 时返回 null
+     */
+    public static String normalizeJapaneseString(String str) {
+        return JapaneseNormalizer.normalize(str);
+    }
+
+    /**
+     * 原有的基于正则和 NFKC 的标准化实现
+     * JapaneseNormalizer 遇到表中未覆盖的字符时回退到此实现，测试中也用它校验结果一致
+     */
+    static String legacyNormalize(String str) {
         // 1. 去除所有空格和特殊字符
-        str1 = str1.replaceAll("[\\s　*\"./\\[\\]]", "");
-        str2 = str2.replaceAll("[\\s　*\"./\\[\\]]", "");
+        str = str.replaceAll("[\\s　*\"./\\[\\]]", "");
         
         // 2. 转换全角数字为半角数字
-        str1 = convertFullWidthNumberToHalf(str1);
-        str2 = convertFullWidthNumberToHalf(str2);
+        str = convertFullWidthNumberToHalf(str);
         
         // 3. 标准化日文字符（包括假名）
-        str1 = normalizeJapanese(str1);
-        str2 = normalizeJapanese(str2);
-        
-        return str1.equals(str2);
+        return normalizeJapanese(str);
     }
     
     private static String convertFullWidthNumberToHalf(String str) {
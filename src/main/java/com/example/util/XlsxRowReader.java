@@ -0,0 +1,250 @@
+package com.example.util;
+
+import org.apache.poi.openxml4j.exceptions.OpenXML4JException;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackageAccess;
+import org.apache.poi.ss.usermodel.DateUtil;
+import org.apache.poi.util.XMLHelper;
+import org.apache.poi.xssf.eventusermodel.ReadOnlySharedStringsTable;
+import org.apache.poi.xssf.eventusermodel.XSSFReader;
+import org.apache.poi.xssf.model.StylesTable;
+import org.apache.poi.xssf.usermodel.XSSFCellStyle;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.xml.sax.Attributes;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+import org.xml.sax.XMLReader;
+import org.xml.sax.helpers.DefaultHandler;
+
+import javax.xml.parsers.ParserConfigurationException;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * XLSX 流式行读取器
+ * 用 POI 的事件 API（XSSFReader）以 SAX 方式逐行解析工作表 XML，不建立整个工作簿的 DOM，
+ * 内存占用与行数无关（共享字符串表除外）。
+ * 单元格的值与转换器中 usermodel 的 getCellStringValue 一致：字符串原样返回（不含注音），
+ * 数字取整数部分，日期格式的数字返回 Date.toString()，布尔值返回 true/false，
+ * 公式、错误和空单元格返回 null。
+ */
+public class XlsxRowReader {
+    private static final Logger logger = LoggerFactory.getLogger(XlsxRowReader.class);
+
+    /**
+     * 逐行读取指定的工作表，工作簿以只读方式从文件打开（ZipFile 随机访问，不缓冲整个 zip）
+     * @param sheetIndex 工作表序号（从 0 开始，与 Workbook.getSheetAt 相同），不存在时什么也不做
+     */
+    public static void readSheet(File file, int sheetIndex, RowSource.RowHandler handler) throws IOException {
+        long start = System.nanoTime();
+        try (OPCPackage pkg = OPCPackage.open(file, PackageAccess.READ)) {
+            XSSFReader reader = new XSSFReader(pkg);
+            Iterator<InputStream> sheets = reader.getSheetsData();
+            for (int i = 0; i < sheetIndex && sheets.hasNext(); i++) {
+                sheets.next().close();
+            }
+            if (!sheets.hasNext()) {
+                return;
+            }
+            // 与 XSSFRichTextString.getString() 一样不包含注音
+            ReadOnlySharedStringsTable strings = new ReadOnlySharedStringsTable(pkg, false);
+            SheetHandler sheetHandler = new SheetHandler(strings, reader.getStylesTable(), isDate1904(reader), handler);
+            try (InputStream sheet = sheets.next()) {
+                parse(sheet, sheetHandler);
+            }
+            logger.info("Streamed {} rows from {} sheet {} in {} ms", sheetHandler.rowCount, file, sheetIndex,
+                (System.nanoTime() - start) / 1_000_000);
+        } catch (OpenXML4JException | SAXException e) {
+            throw new IOException("Failed to read " + file, e);
+        }
+    }
+
+    /**
+     * 按工作簿中的顺序列出所有工作表的名称，只读取 workbook.xml
+     */
+    public static List<String> sheetNames(File file) throws IOException {
+        try (OPCPackage pkg = OPCPackage.open(file, PackageAccess.READ)) {
+            List<String> names = new ArrayList<>();
+            XSSFReader.SheetIterator sheets = (XSSFReader.SheetIterator) new XSSFReader(pkg).getSheetsData();
+            while (sheets.hasNext()) {
+                sheets.next().close();
+                names.add(sheets.getSheetName());
+            }
+            return names;
+        } catch (OpenXML4JException e) {
+            throw new IOException("Failed to read " + file, e);
+        }
+    }
+
+    private static void parse(InputStream input, DefaultHandler handler) throws IOException, SAXException {
+        try {
+            XMLReader parser = XMLHelper.newXMLReader();
+            parser.setContentHandler(handler);
+            parser.parse(new InputSource(input));
+        } catch (ParserConfigurationException e) {
+            throw new SAXException(e);
+        }
+    }
+
+    /**
+     * 工作簿是否使用 1904 日期系统（workbook.xml 的 workbookPr/@date1904）
+     */
+    private static boolean isDate1904(XSSFReader reader) throws IOException, OpenXML4JException, SAXException {
+        boolean[] date1904 = new boolean[1];
+        try (InputStream workbook = reader.getWorkbookData()) {
+            parse(workbook, new DefaultHandler() {
+                @Override
+                public void startElement(String uri, String localName, String qName, Attributes attributes) {
+                    if ("workbookPr".equals(localName)) {
+                        String value = attributes.getValue("date1904");
+                        date1904[0] = "1".equals(value) || "true".equals(value);
+                    }
+                }
+            });
+        }
+        return date1904[0];
+    }
+
+    private static class SheetHandler extends DefaultHandler {
+        private final ReadOnlySharedStringsTable strings;
+        private final StylesTable styles;
+        private final boolean date1904;
+        private final RowSource.RowHandler handler;
+
+        private final List<String> cells = new ArrayList<>();
+        private final StringBuilder text = new StringBuilder();
+        private int rowIndex = -1;
+        private int rowCount;
+        private int column;
+        private String cellType;
+        private String cellStyle;
+        private boolean hasFormula;
+        private boolean inValue;       // <v> 或行内字符串的 <t>
+        private boolean inPhonetic;    // <rPh>，注音不计入字符串
+
+        SheetHandler(ReadOnlySharedStringsTable strings, StylesTable styles, boolean date1904,
+                RowSource.RowHandler handler) {
+            this.strings = strings;
+            this.styles = styles;
+            this.date1904 = date1904;
+            this.handler = handler;
+        }
+
+        @Override
+        public void startElement(String uri, String localName, String qName, Attributes attributes) {
+            switch (localName) {
+                case "row":
+                    String r = attributes.getValue("r");
+                    rowIndex = r != null ? Integer.parseInt(r) - 1 : rowIndex + 1;
+                    cells.clear();
+                    column = -1;
+                    break;
+                case "c":
+                    String ref = attributes.getValue("r");
+                    column = ref != null ? columnIndex(ref) : column + 1;
+                    cellType = attributes.getValue("t");
+                    cellStyle = attributes.getValue("s");
+                    hasFormula = false;
+                    text.setLength(0);
+                    break;
+                case "f":
+                    hasFormula = true;
+                    break;
+                case "v":
+                    inValue = true;
+                    break;
+                case "t":
+                    inValue = !inPhonetic;
+                    break;
+                case "rPh":
+                    inPhonetic = true;
+                    break;
+                default:
+                    break;
+            }
+        }
+
+        @Override
+        public void endElement(String uri, String localName, String qName) {
+            switch (localName) {
+                case "v":
+                case "t":
+                    inValue = false;
+                    break;
+                case "rPh":
+                    inPhonetic = false;
+                    break;
+                case "c":
+                    String value = cellValue();
+                    if (value != null) {
+                        while (cells.size() <= column) {
+                            cells.add(null);
+                        }
+                        cells.set(column, value);
+                    }
+                    break;
+                case "row":
+                    rowCount++;
+                    handler.row(rowIndex, cells.toArray(new String[0]));
+                    break;
+                default:
+                    break;
+            }
+        }
+
+        @Override
+        public void characters(char[] ch, int start, int length) {
+            if (inValue) {
+                text.append(ch, start, length);
+            }
+        }
+
+        private String cellValue() {
+            if (hasFormula) {
+                return null;
+            }
+            String raw = text.toString();
+            if (cellType == null || "n".equals(cellType)) {
+                return raw.isEmpty() ? null : numericValue(Double.parseDouble(raw));
+            }
+            switch (cellType) {
+                case "s":
+                    return strings.getItemAt(Integer.parseInt(raw)).getString();
+                case "inlineStr":
+                case "str":
+                    return raw;
+                case "b":
+                    return String.valueOf("1".equals(raw));
+                default:
+                    return null;
+            }
+        }
+
+        private String numericValue(double value) {
+            XSSFCellStyle style = cellStyle != null ? styles.getStyleAt(Integer.parseInt(cellStyle))
+                : styles.getNumCellStyles() > 0 ? styles.getStyleAt(0) : null;
+            if (style != null && DateUtil.isValidExcelDate(value)
+                    && DateUtil.isADateFormat(style.getDataFormat(), style.getDataFormatString())) {
+                return DateUtil.getJavaDate(value, date1904).toString();
+            }
+            return String.valueOf((int) value);
+        }
+
+        private static int columnIndex(String cellRef) {
+            int column = 0;
+            for (int i = 0; i < cellRef.length(); i++) {
+                char c = cellRef.charAt(i);
+                if (c < 'A' || c > 'Z') {
+                    break;
+                }
+                column = column * 26 + (c - 'A' + 1);
+            }
+            return column - 1;
+        }
+    }
+}
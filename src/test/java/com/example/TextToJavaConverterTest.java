@@ -0,0 +1,71 @@
+package com.example;
+
+import com.example.config.ConverterConfig;
+import com.example.strategy.Type2TextConverter;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+public class TextToJavaConverterTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    /**
+     * 单元格内换行的规格文件，普通模式、并行模式和流式模式的输出相同
+     */
+    @Test
+    public void testWrappedCellIsJoinedInEveryMode() throws IOException {
+        Path input = folder.getRoot().toPath().resolve("wrapped.txt");
+        Files.write(input, ("》【条件】項目「 D\\AABB 」＝ 項目「 D\\SSKK 」のとき\n"
+            + "　　\"項目「 D\\AABB 」に\n"
+            + "ブランクを代入します。\"\n").getBytes(StandardCharsets.UTF_8));
+        ConverterConfig config = new ConverterConfig("type2");
+        Type2TextConverter converter = newType2Converter();
+
+        String listBased = convert(config, converter, input, "list.java", false, 1);
+        assertTrue(listBased, listBased.contains("this.DAABB = \"\";"));
+        assertFalse(listBased, listBased.contains("//TODO"));
+        assertEquals(listBased, convert(config, converter, input, "parallel.java", false, 4));
+        assertEquals(listBased, convert(config, converter, input, "stream.java", true, 1));
+        assertEquals(listBased, convert(config, converter, input, "stream-parallel.java", true, 4));
+    }
+
+    private String convert(ConverterConfig config, Type2TextConverter converter, Path input, String name,
+            boolean streaming, int parallelism) throws IOException {
+        Path output = folder.getRoot().toPath().resolve(name);
+        if (streaming) {
+            TextToJavaConverter.processStreaming(config, converter, input.toString(), output.toString(),
+                parallelism);
+        } else {
+            TextToJavaConverter.processType1And2(config, converter, input.toString(), output.toString(),
+                parallelism);
+        }
+        List<String> lines = Files.readAllLines(output, StandardCharsets.UTF_8);
+        return String.join("\n", lines);
+    }
+
+    private static Type2TextConverter newType2Converter() {
+        Map<String, String> entityFiles = new HashMap<>();
+        entityFiles.put("手袋(Ｌ０１)", "input/TestTable1BaseEntity.java");
+        Map<String, String> entityInstances = new HashMap<>();
+        entityInstances.put("手袋(Ｌ０１)", "testTable1");
+
+        Type2TextConverter converter = new Type2TextConverter();
+        converter.setEntityFiles(entityFiles);
+        converter.setEntityInstances(entityInstances);
+        converter.setEnableLogicConversion(true);
+        converter.setDefineFile("input/define.txt");
+        return converter;
+    }
+}
@@ -0,0 +1,54 @@
+package com.example.model;
+
+import com.example.util.StringCompareUtil;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class ClassInfoTest {
+
+    private ClassInfo classInfo;
+
+    @Before
+    public void setUp() {
+        classInfo = new ClassInfo();
+        classInfo.setClassName("TestTable1BaseEntity");
+        classInfo.addField(new FieldInfo("test_field_1", "生活／仕事　会社コード"));
+        classInfo.addField(new FieldInfo("test_field_2", "請求 ｺｰﾄﾞ"));
+        classInfo.addField(new FieldInfo("test_field_3", "発行日１２３"));
+        // 与 test_field_2 标准化后相同的注释
+        classInfo.addField(new FieldInfo("test_field_4", "請求コード"));
+    }
+
+    @Test
+    public void testFindFieldByComment() {
+        assertEquals("test_field_1", classInfo.findFieldByComment("生活／仕事会社コード").getTableFieldName());
+        assertEquals("test_field_3", classInfo.findFieldByComment("発行日123").getTableFieldName());
+        assertNull(classInfo.findFieldByComment("不存在的字段"));
+        assertNull(classInfo.findFieldByComment(null));
+    }
+
+    @Test
+    public void testDuplicateCommentKeepsFirstField() {
+        assertEquals("test_field_2", classInfo.findFieldByComment("請求　コード").getTableFieldName());
+    }
+
+    @Test
+    public void testMatchesLinearSearch() {
+        String[] queries = {"生活/仕事 会社コード", "請求ｺｰﾄﾞ", "発行日１２３", "[test_field_1]", "会社コード", ""};
+        for (String query : queries) {
+            FieldInfo expected = classInfo.getFields().stream()
+                .filter(field -> StringCompareUtil.compareJapaneseString(field.getFieldComment(), query))
+                .findFirst()
+                .orElse(null);
+            assertSame(query, expected, classInfo.findFieldByComment(query));
+        }
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testFrozenClassInfoRejectsNewFields() {
+        classInfo.freeze();
+        classInfo.addField(new FieldInfo("test_field_5", "請求情報"));
+    }
+}
@@ -5,11 +5,19 @@ import org.slf4j.LoggerFactory;
 import org.junit.Test;
 import org.junit.Before;
 import org.junit.BeforeClass;
+import org.junit.Rule;
+import org.junit.rules.TemporaryFolder;
 import static org.junit.Assert.*;
 
 import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 
 public class Type1TextConverterTest {
     private static final Logger logger = LoggerFactory.getLogger(Type1TextConverterTest.class);
@@ -17,6 +25,9 @@ public class Type1TextConverterTest {
     private Type1TextConverter converter;
     private List<String> mockEntityLines;
 
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
     @BeforeClass
     public static void setUpClass() {
         // 创建日志目录
@@ -103,4 +114,66 @@ public class Type1TextConverterTest {
         String result = converter.convertLine(input, mockEntityLines);
         assertNull("Should return null when no matching field found", result);
     }
+
+    @Test
+    public void testKeywordHandlersAreReached() throws IOException {
+        Type1TextConverter configured = configuredConverter();
+
+        assertEquals("testTable1.setTestField1(StringUtil.spaces(3));", configured.convertLine(
+            "項目「a(手袋(Ｌ０１)).(会社コード)」に3個の空白を代入します。", null));
+        assertEquals("testTable1.setTestField1(StringUtil.spaces(1));", configured.convertLine(
+            "項目「a(手袋(Ｌ０１)).(会社コード)」にスペースを代入します。", null));
+        assertEquals("testTable1.setTestField1(DateUtil.getSystemDate());", configured.convertLine(
+            "項目「a(手袋(Ｌ０１)).(会社コード)」にシステム日付を代入します。", null));
+        assertEquals("testTable1.setTestField1(StringUtil.padLeft(\"123\", 5));", configured.convertLine(
+            "項目「a(手袋(Ｌ０１)).(会社コード)」に\"123\"を5桁で代入します。", null));
+        assertEquals("testTable1.setTestField1(StringUtil.substring(testTable1.getTestField4(), 0, 3));",
+            configured.convertLine("項目「a(手袋(Ｌ０１)).(会社コード)」に 項目「b(手袋(Ｌ０１)).(常務コード)」の"
+                + "1文字目から3文字を代入します。", null));
+        assertEquals("testTable1.setTestField1(StringUtil.rightAlign(testTable1.getTestField4()));",
+            configured.convertLine("項目「a(手袋(Ｌ０１)).(会社コード)」に 項目「b(手袋(Ｌ０１)).(常務コード)」を"
+                + "右詰で代入します。", null));
+        assertEquals("testTable1.setTestField1(StringUtil.leftAlign(testTable1.getTestField4()));",
+            configured.convertLine("項目「a(手袋(Ｌ０１)).(会社コード)」に 項目「b(手袋(Ｌ０１)).(常務コード)」を"
+                + "左詰で代入します。", null));
+    }
+
+    /**
+     * 字段注释中的关键字（空白、右詰で、左詰）不影响分类
+     */
+    @Test
+    public void testKeywordsInsideItemsAreIgnored() throws IOException {
+        Type1TextConverter configured = configuredConverter();
+
+        assertEquals("testTable1.setTestField2(testTable1.getTestField3());", configured.convertLine(
+            "項目「a(手袋(Ｌ０１)).(空白区分)」に 項目「b(手袋(Ｌ０１)).(右詰で区分)」を代入します。", null));
+        assertEquals("testTable1.setTestField5(testTable1.getTestField1());", configured.convertLine(
+            "項目「a(手袋(Ｌ０１)).(左詰区分)」に 項目「b(手袋(Ｌ０１)).(会社コード)」を代入します。", null));
+        assertEquals("testTable1.setTestField2(\"ABC\");", configured.convertLine(
+            "項目「a(手袋(Ｌ０１)).(空白区分)」に\"ABC\"を代入します。", null));
+        // 注释中的关键字和注释外的关键字同时存在时按注释外的关键字
+        assertEquals("testTable1.setTestField3(StringUtil.spaces(2));", configured.convertLine(
+            "項目「a(手袋(Ｌ０１)).(右詰で区分)」に2個のスペースを代入します。", null));
+    }
+
+    private Type1TextConverter configuredConverter() throws IOException {
+        String[] comments = {"会社コード", "空白区分", "右詰で区分", "常務コード", "左詰区分"};
+        StringBuilder source = new StringBuilder("package com.example.entity;\n\npublic class TestTable1 {\n");
+        for (int i = 0; i < comments.length; i++) {
+            source.append("\n    /**\n     * [test_field_").append(i + 1).append("] ").append(comments[i])
+                .append("\n     */\n    private String testField").append(i + 1).append(";\n");
+        }
+        source.append("}\n");
+        Path entity = folder.getRoot().toPath().resolve("TestTable1.java");
+        Files.write(entity, source.toString().getBytes(StandardCharsets.UTF_8));
+
+        Map<String, String> entityFiles = new HashMap<>();
+        entityFiles.put("手袋(Ｌ０１)", entity.toString());
+        Map<String, String> entityInstances = new HashMap<>();
+        entityInstances.put("手袋(Ｌ０１)", "testTable1");
+        Type1TextConverter configured = new Type1TextConverter();
+        configured.setEntityFiles(entityFiles);
+        configured.setEntityInstances(entityInstances);
+        return configured;
+    }
 } 
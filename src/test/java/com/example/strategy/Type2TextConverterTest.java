@@ -0,0 +1,134 @@
+package com.example.strategy;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.*;
+
+public class Type2TextConverterTest {
+
+    private Type2TextConverter converter;
+    private List<String> lines;
+
+    @Before
+    public void setUp() throws IOException {
+        Map<String, String> entityFiles = new HashMap<>();
+        entityFiles.put("手袋(Ｌ０１)", "input/TestTable1BaseEntity.java");
+        entityFiles.put("Ｌ０２(L00)KKK", "input/TestTable2BaseEntity.java");
+        entityFiles.put("Ｌ０３(L11)TTT", "input/TestTable3BaseEntity.java");
+        Map<String, String> entityInstances = new HashMap<>();
+        entityInstances.put("手袋(Ｌ０１)", "testTable1");
+        entityInstances.put("Ｌ０２(L00)KKK", "test222");
+        entityInstances.put("Ｌ０３(L11)TTT", "testTable333");
+
+        converter = new Type2TextConverter();
+        converter.setEntityFiles(entityFiles);
+        converter.setEntityInstances(entityInstances);
+        converter.setEnableLogicConversion(true);
+        converter.setDefineFile("input/define.txt");
+
+        lines = Files.readAllLines(Paths.get("input/t2.txt"), StandardCharsets.UTF_8);
+    }
+
+    @Test
+    public void testBlocksAreEmittedWhenTheyClose() {
+        int[] consumed = {0};
+        List<Integer> emittedAt = new ArrayList<>();
+        List<String> streamed = new ArrayList<>();
+        Iterable<String> countingLines = () -> new Iterator<String>() {
+            private final Iterator<String> delegate = lines.iterator();
+
+            @Override
+            public boolean hasNext() {
+                return delegate.hasNext();
+            }
+
+            @Override
+            public String next() {
+                consumed[0]++;
+                return delegate.next();
+            }
+        };
+
+        converter.convertFile(countingLines, code -> {
+            emittedAt.add(consumed[0]);
+            streamed.add(code);
+        });
+
+        assertFalse(streamed.isEmpty());
+        // 第一个块在读到第二个 》【条件】 时就已输出，而不是在整个文件读完之后
+        assertTrue(emittedAt.get(0) < lines.size());
+        assertEquals(streamed, converter.convertFile(lines));
+    }
+
+    @Test
+    public void testDefineFileTypesReachPostProcessor() {
+        String code = String.join("\n", converter.convertFile(lines));
+
+        assertTrue(code.contains("NumUtil.eq(this.DCC23, this.DUUHH)"));
+    }
+
+    @Test
+    public void testParallelBlocksMatchSequentialConversion() {
+        List<List<String>> blocks = new ArrayList<>();
+        Type2TextConverter.splitBlocks(lines.iterator()).forEachRemaining(blocks::add);
+
+        List<String> parallel = blocks.parallelStream()
+            .map(converter::convertBlock)
+            .filter(code -> code != null)
+            .collect(Collectors.toList());
+
+        assertEquals(converter.convertFile(lines), parallel);
+    }
+
+    @Test
+    public void testIncrementalConversionReusesUnchangedBlocks() {
+        Map<String, String> blockCache = new HashMap<>();
+        List<String> first = new ArrayList<>();
+        Type2TextConverter.IncrementalResult result = converter.convertIncrementally(lines, blockCache, first::add);
+        assertEquals(0, result.getReused());
+        assertEquals(first.size(), result.getBlocks());
+        assertEquals(converter.convertFile(lines), first);
+
+        List<String> edited = new ArrayList<>(lines);
+        edited.add("》【条件】項目「 D\\AABB 」＝ ブランク のとき");
+        edited.add("　　項目「 D\\ZZZZ 」に ﾌﾞﾗﾝｸ を代入します。");
+        List<String> second = new ArrayList<>();
+        result = converter.convertIncrementally(edited, blockCache, second::add);
+
+        assertEquals(first.size(), result.getReused());
+        assertEquals(first.size() + 1, result.getBlocks());
+        assertEquals(converter.convertFile(edited), second);
+        assertEquals(first.size() + 1, blockCache.size());
+
+        // 重复的块按出现次数计，缓存中只有一份
+        List<String> repeated = new ArrayList<>(edited);
+        repeated.add("》【条件】項目「 D\\AABB 」＝ ブランク のとき");
+        repeated.add("　　項目「 D\\ZZZZ 」に ﾌﾞﾗﾝｸ を代入します。");
+        result = converter.convertIncrementally(repeated, blockCache, code -> { });
+        assertEquals(first.size() + 2, result.getBlocks());
+        assertEquals(first.size() + 2, result.getReused());
+        assertEquals(first.size() + 1, blockCache.size());
+    }
+
+    @Test
+    public void testIsBlockStart() {
+        assertTrue(Type2TextConverter.isBlockStart("》【条件】項目「 D\\AABB 」＝ ブランク のとき"));
+        assertTrue(Type2TextConverter.isBlockStart("\"》【条件】項目「 D\\CC23 」＝ 項目「 D\\UUHH 」のとき"));
+        assertTrue(Type2TextConverter.isBlockStart("　　》【条件】"));
+        // 行首全角空格之后的引号不会被 removeQuotes 去除
+        assertFalse(Type2TextConverter.isBlockStart("　　\"》【条件】"));
+        assertFalse(Type2TextConverter.isBlockStart("　　かつ、項目「F23(Ｌ０３(L11)TTT).(常務コード)」＝　ﾌﾞﾗﾝｸ のとき"));
+    }
+}
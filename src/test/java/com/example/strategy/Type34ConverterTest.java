@@ -0,0 +1,84 @@
+package com.example.strategy;
+
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class Type34ConverterTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testMixedSheetMatchesSeparateConversions() throws IOException {
+        File mixed = createWorkbook("mixed.xlsx", true, true);
+        File arraysOnly = createWorkbook("arrays.xlsx", true, false);
+        File scalarsOnly = createWorkbook("scalars.xlsx", false, true);
+
+        List<String> arrays = new ArrayList<>();
+        List<String> scalars = new ArrayList<>();
+        new Type34Converter(new Type3TextConverter(), new Type4TextConverter())
+            .convert(mixed.getPath(), arrays::add, scalars::add);
+
+        assertEquals(new Type3TextConverter().convertExcelFile(arraysOnly.getPath()), arrays);
+        assertEquals(new Type4TextConverter().convertExcelFile(scalarsOnly.getPath()), scalars);
+        assertEquals(Arrays.asList("    // 配列1\n    private String[] arr1 = new String[] {\"a\", \"b\", \"c\"};",
+            "    private String[] arr3 = new String[] {\"x\"};"), arrays);
+        assertEquals(Arrays.asList("    // 項目2\n    private int flg2;", "    private boolean flg4;"), scalars);
+    }
+
+    /**
+     * 数组 ARR1（有续行）、标量 FLG2、数组 ARR3、标量 FLG4（之后的续行不属于任何数组）
+     */
+    private File createWorkbook(String name, boolean withArrays, boolean withScalars) throws IOException {
+        File file = folder.newFile(name);
+        try (XSSFWorkbook workbook = new XSSFWorkbook()) {
+            Sheet sheet = workbook.createSheet("定義");
+            sheet.createRow(0).createCell(0).setCellValue("変数名");
+            int rowNum = 1;
+            if (withArrays) {
+                Row arr1 = sheet.createRow(rowNum++);
+                arr1.createCell(0).setCellValue("ARR1");
+                arr1.createCell(1).setCellValue("配列1");
+                arr1.createCell(2).setCellValue("A");
+                arr1.createCell(5).setCellValue(3);
+                arr1.createCell(7).setCellValue("a b");
+                sheet.createRow(rowNum++).createCell(7).setCellValue("c");
+            }
+            if (withScalars) {
+                Row flg2 = sheet.createRow(rowNum++);
+                flg2.createCell(0).setCellValue("FLG2");
+                flg2.createCell(1).setCellValue("項目2");
+                flg2.createCell(2).setCellValue("S");
+            }
+            if (withArrays) {
+                Row arr3 = sheet.createRow(rowNum++);
+                arr3.createCell(0).setCellValue("ARR3");
+                arr3.createCell(5).setCellValue(1);
+                arr3.createCell(7).setCellValue("x");
+            }
+            if (withScalars) {
+                Row flg4 = sheet.createRow(rowNum++);
+                flg4.createCell(0).setCellValue("FLG4");
+                flg4.createCell(2).setCellValue("P");
+                sheet.createRow(rowNum++).createCell(7).setCellValue("ignored");
+            }
+            try (FileOutputStream out = new FileOutputStream(file)) {
+                workbook.write(out);
+            }
+        }
+        return file;
+    }
+}
@@ -0,0 +1,172 @@
+package com.example.strategy;
+
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class Type3TextConverterTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testStreamingMatchesWorkbookMode() throws IOException {
+        String file = createWorkbook().getPath();
+
+        List<String> dom = new Type3TextConverter().convertExcelFile(file);
+        Type3TextConverter streamingConverter = new Type3TextConverter();
+        streamingConverter.setStreaming(true);
+        List<String> streamed = streamingConverter.convertExcelFile(file);
+
+        assertEquals(3, dom.size());
+        assertEquals(dom, streamed);
+        assertTrue(dom.get(0).contains("\"a\", \"b\", \"12\", \"true\""));
+    }
+
+    @Test
+    public void testConverterCanBeReused() throws IOException {
+        String file = createWorkbook().getPath();
+        Type3TextConverter converter = new Type3TextConverter();
+        converter.setStreaming(true);
+
+        assertEquals(converter.convertExcelFile(file), converter.convertExcelFile(file));
+    }
+
+    @Test
+    public void testLargeArraysAreChunkedOrExternalized() throws IOException {
+        String file = createArrayWorkbook(3, 12, 30).getPath();
+        File resourceDir = folder.newFolder("resources");
+        Type3TextConverter converter = new Type3TextConverter();
+        converter.setChunkThreshold(10);
+        converter.setExternalThreshold(20, resourceDir.toPath());
+
+        List<String> code = converter.convertExcelFile(file);
+
+        assertEquals(3, code.size());
+        assertTrue(code.get(0).endsWith("new String[] {\"v0_0\", \"v0_1\", \"v0_2\"};"));
+        assertTrue(code.get(1).startsWith("    private String[] arr1 = arr1Values();"));
+        assertTrue(code.get(1).contains("        String[] values = new String[12];\n        arr1Values0(values);\n"));
+        assertTrue(code.get(1).endsWith("        values[11] = \"v1_11\";\n    }"));
+        assertTrue(code.get(2).startsWith("    private String[] arr2 = Arr2Holder.VALUES.clone();"));
+        assertTrue(code.get(2).contains("loadArrayResource(\"arr2.values\", 30);"));
+        assertTrue(code.get(2).contains("private static String[] loadArrayResource(String name, int size)"));
+        List<String> values = Files.readAllLines(new File(resourceDir, "arr2.values").toPath(), StandardCharsets.UTF_8);
+        assertEquals(30, values.size());
+        assertEquals("v2_29", values.get(29));
+    }
+
+    @Test
+    public void testSharedConstants() throws IOException {
+        File file = createArrayWorkbook(3, 12, 30);
+        markMutable(file, 2);
+        Type3TextConverter converter = new Type3TextConverter();
+        converter.setSharedConstants(true);
+        converter.setChunkThreshold(10);
+
+        List<String> code = converter.convertExcelFile(file.getPath());
+
+        assertEquals("    private static final String[] arr0 = new String[] {\"v0_0\", \"v0_1\", \"v0_2\"};",
+            code.get(0));
+        assertTrue(code.get(1).startsWith("    private static final String[] arr1 = arr1Values();"));
+        assertTrue(code.get(2).startsWith("    private static final String[] arr2Defaults = arr2Values();\n"
+            + "    private String[] arr2 = arr2Defaults.clone();"));
+        // 3 个和 12 个元素的数组：(16 + 12 + 4) + (16 + 48)
+        assertEquals(96, converter.getSharedBytesPerInstance());
+    }
+
+    private static void markMutable(File file, int arrayIndex) throws IOException {
+        try (XSSFWorkbook workbook = new XSSFWorkbook(new FileInputStream(file))) {
+            Sheet sheet = workbook.getSheetAt(0);
+            for (Row row : sheet) {
+                if (row.getCell(0) != null && ("ARR" + arrayIndex).equals(row.getCell(0).getStringCellValue())) {
+                    row.createCell(8).setCellValue("○");
+                }
+            }
+            try (FileOutputStream out = new FileOutputStream(file)) {
+                workbook.write(out);
+            }
+        }
+    }
+
+    /**
+     * 每个数组一行变量定义，默认值每行最多 5 个
+     */
+    private File createArrayWorkbook(int... sizes) throws IOException {
+        File file = folder.newFile("large.xlsx");
+        try (XSSFWorkbook workbook = new XSSFWorkbook()) {
+            Sheet sheet = workbook.createSheet("arrays");
+            sheet.createRow(0).createCell(0).setCellValue("変数名");
+            int rowNum = 1;
+            for (int v = 0; v < sizes.length; v++) {
+                Row row = sheet.createRow(rowNum++);
+                row.createCell(0).setCellValue("ARR" + v);
+                row.createCell(2).setCellValue("A");
+                for (int i = 0; i < sizes[v]; i += 5) {
+                    StringBuilder values = new StringBuilder();
+                    for (int k = i; k < Math.min(sizes[v], i + 5); k++) {
+                        values.append("v").append(v).append('_').append(k).append(' ');
+                    }
+                    (i == 0 ? row : sheet.createRow(rowNum++)).createCell(7).setCellValue(values.toString());
+                }
+            }
+            try (FileOutputStream out = new FileOutputStream(file)) {
+                workbook.write(out);
+            }
+        }
+        return file;
+    }
+
+    /**
+     * 包含字符串、小数、日期、布尔值、公式、空行和只有默认值的续行
+     */
+    private File createWorkbook() throws IOException {
+        File file = folder.newFile("arrays.xlsx");
+        try (XSSFWorkbook workbook = new XSSFWorkbook()) {
+            CellStyle dateStyle = workbook.createCellStyle();
+            dateStyle.setDataFormat(workbook.getCreationHelper().createDataFormat().getFormat("yyyy/mm/dd"));
+            Sheet sheet = workbook.createSheet("arrays");
+            sheet.createRow(0).createCell(0).setCellValue("変数名");
+
+            Row first = sheet.createRow(1);
+            first.createCell(0).setCellValue("ARR1");
+            first.createCell(1).setCellValue("配列１");
+            first.createCell(2).setCellValue("A");
+            first.createCell(5).setCellValue(4);
+            first.createCell(7).setCellValue("a b");
+            sheet.createRow(2).createCell(7).setCellValue(12.7);
+            sheet.createRow(3).createCell(7).setCellValue(true);
+            sheet.createRow(4).createCell(7).setCellFormula("1+1");
+            // 第 5 行不存在
+
+            Row second = sheet.createRow(6);
+            second.createCell(0).setCellValue("ARR2");
+            second.createCell(2).setCellValue("A");
+            second.createCell(7).setCellValue(new Date(0));
+            second.getCell(7).setCellStyle(dateStyle);
+
+            Row third = sheet.createRow(7);
+            third.createCell(0).setCellValue("ARR3");
+            third.createCell(1).setCellValue("");
+
+            try (FileOutputStream out = new FileOutputStream(file)) {
+                workbook.write(out);
+            }
+        }
+        return file;
+    }
+}
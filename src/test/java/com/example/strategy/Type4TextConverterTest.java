@@ -0,0 +1,97 @@
+package com.example.strategy;
+
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class Type4TextConverterTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testFirstSheet() throws IOException {
+        File workbook = createWorkbook("a.xlsx", 2, 3);
+
+        List<String> code = new Type4TextConverter().convertExcelFile(workbook.getPath());
+
+        assertEquals(3, code.size());
+        assertEquals("    // 注释0-1\n    private boolean var01;", code.get(0));
+        assertEquals("    private int m2;", code.get(1));
+    }
+
+    @Test
+    public void testAllSheetsInOrder() throws IOException {
+        List<File> workbooks = Arrays.asList(createWorkbook("a.xlsx", 3, 40), createWorkbook("b.xlsx", 2, 40));
+
+        List<String> sequential = convertAll(workbooks, 1);
+        List<String> parallel = convertAll(workbooks, 4);
+
+        assertEquals(Arrays.asList("a.xlsx:0", "a.xlsx:1", "a.xlsx:2", "b.xlsx:0", "b.xlsx:1"),
+            parallel.subList(0, 5));
+        assertEquals(sequential, parallel);
+    }
+
+    @Test
+    public void testBrokenWorkbookIsSkipped() throws IOException {
+        File broken = folder.newFile("broken.xlsx");
+        List<File> workbooks = Arrays.asList(broken, createWorkbook("a.xlsx", 2, 3));
+        List<String> sheets = new ArrayList<>();
+
+        int failed = new Type4TextConverter().convertWorkbooks(workbooks, 2,
+            result -> sheets.add(result.getSheetName()));
+
+        assertEquals(1, failed);
+        assertEquals(Arrays.asList("S0", "S1"), sheets);
+    }
+
+    private static List<String> convertAll(List<File> workbooks, int parallelism) throws IOException {
+        List<String> order = new ArrayList<>();
+        List<String> code = new ArrayList<>();
+        new Type4TextConverter().convertWorkbooks(workbooks, parallelism, result -> {
+            order.add(result.getWorkbook().getName() + ":" + result.getSheetIndex());
+            code.addAll(result.getCode());
+        });
+        order.addAll(code);
+        return order;
+    }
+
+    /**
+     * 每个工作表：表头、字符串变量名、数字变量名，类型 P/S 交替
+     */
+    private File createWorkbook(String name, int sheets, int rows) throws IOException {
+        File file = folder.newFile(name);
+        try (XSSFWorkbook workbook = new XSSFWorkbook()) {
+            for (int s = 0; s < sheets; s++) {
+                Sheet sheet = workbook.createSheet("S" + s);
+                sheet.createRow(0).createCell(0).setCellValue("変数名");
+                for (int i = 1; i <= rows; i++) {
+                    Row row = sheet.createRow(i);
+                    if (i % 2 == 0) {
+                        row.createCell(0).setCellValue(i);
+                    } else {
+                        row.createCell(0).setCellValue("VAR_" + s + i);
+                        row.createCell(1).setCellValue("注释" + s + "-" + i);
+                    }
+                    row.createCell(2).setCellValue(i % 2 == 0 ? "S" : "P");
+                }
+            }
+            try (FileOutputStream out = new FileOutputStream(file)) {
+                workbook.write(out);
+            }
+        }
+        return file;
+    }
+}
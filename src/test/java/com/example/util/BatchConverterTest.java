@@ -0,0 +1,75 @@
+package com.example.util;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.*;
+
+public class BatchConverterTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testFindInputsInDirectoryAndGlob() throws IOException {
+        Path root = folder.getRoot().toPath();
+        write(root.resolve("a.txt"));
+        write(root.resolve("sub/b.txt"));
+        write(root.resolve("sub/notes.md"));
+
+        assertEquals(Arrays.asList("a.txt", "sub/b.txt"), relative(root, BatchConverter.findInputs(root.toString())));
+        assertEquals(Arrays.asList("a.txt"), relative(root, BatchConverter.findInputs(root + "/*.txt")));
+        assertEquals(Arrays.asList("sub/b.txt", "sub/notes.md"),
+            relative(root, BatchConverter.findInputs(root + "/sub/*")));
+    }
+
+    @Test
+    public void testOutputPathKeepsRelativeLayout() {
+        Path output = BatchConverter.outputPathFor(Paths.get("specs"), Paths.get("specs/sales/p001.txt"),
+            Paths.get("out"));
+
+        assertEquals(Paths.get("out/sales/p001.java"), output);
+    }
+
+    @Test
+    public void testFailedFilesAreCountedAndOthersConverted() throws IOException {
+        Path root = folder.newFolder("specs").toPath();
+        for (String name : new String[] {"ok1.txt", "bad.txt", "ok2.txt"}) {
+            write(root.resolve(name));
+        }
+        Path outputRoot = folder.getRoot().toPath().resolve("out");
+
+        int failed = new BatchConverter(2).run(root.toString(), outputRoot, (input, output) -> {
+            if (input.getFileName().toString().startsWith("bad")) {
+                throw new IOException("broken spec");
+            }
+            Files.copy(input, output);
+        });
+
+        assertEquals(1, failed);
+        assertTrue(Files.exists(outputRoot.resolve("ok1.java")));
+        assertTrue(Files.exists(outputRoot.resolve("ok2.java")));
+        assertFalse(Files.exists(outputRoot.resolve("bad.java")));
+    }
+
+    private static void write(Path file) throws IOException {
+        Files.createDirectories(file.getParent());
+        Files.write(file, "項目「 D\\SSKK 」にブランクを代入します。".getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static List<String> relative(Path root, List<Path> files) {
+        return files.stream()
+            .map(file -> root.relativize(file).toString().replace('\\', '/'))
+            .collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,65 @@
+package com.example.util;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class DelimitedRowSourceTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testTsv() throws IOException {
+        List<String> rows = read(write("a.tsv", "名前\t説明\r\nA01\t\tA\r\n\r\n\t\t\t0 1\n", StandardCharsets.UTF_8));
+
+        assertEquals(Arrays.asList("0:[名前, 説明]", "1:[A01, null, A]", "3:[null, null, null, 0 1]"), rows);
+    }
+
+    @Test
+    public void testQuotedCsv() throws IOException {
+        List<String> rows = read(write("a.csv", "\uFEFFA,\"x, \"\"y\"\"\",\"multi\nline\"\nB,\"\",c", StandardCharsets.UTF_8));
+
+        assertEquals(Arrays.asList("0:[A, x, \"y\", multi\nline]", "1:[B, null, c]"), rows);
+    }
+
+    @Test
+    public void testUtf16WithBom() throws IOException {
+        List<String> rows = read(write("a.tsv", "\uFEFF変数\t1\r\n", StandardCharsets.UTF_16LE));
+
+        assertEquals(Arrays.asList("0:[変数, 1]"), rows);
+    }
+
+    @Test
+    public void testFieldsAcrossBufferBoundary() throws IOException {
+        char[] longValue = new char[100_000];
+        Arrays.fill(longValue, 'x');
+        String value = new String(longValue);
+        List<String> rows = read(write("a.csv", "a," + value + ",\"" + value + "\"\r\nb\r", StandardCharsets.UTF_8));
+
+        assertEquals(Arrays.asList("0:[a, " + value + ", " + value + "]", "1:[b]"), rows);
+    }
+
+    private File write(String name, String content, Charset charset) throws IOException {
+        File file = folder.newFile(name);
+        Files.write(file.toPath(), content.getBytes(charset));
+        return file;
+    }
+
+    private static List<String> read(File file) throws IOException {
+        List<String> rows = new ArrayList<>();
+        new DelimitedRowSource(file).read((rowIndex, cells) -> rows.add(rowIndex + ":" + Arrays.toString(cells)));
+        return rows;
+    }
+}
@@ -0,0 +1,101 @@
+package com.example.util;
+
+import com.example.model.ClassInfo;
+import com.example.model.FieldInfo;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class EntityCatalogSnapshotTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testRoundTrip() throws IOException {
+        Path entity = writeEntity("A.java", "会社コード", "請求情報");
+        EntityCatalog catalog = new EntityCatalog();
+        ClassInfo parsed = catalog.get(entity.toString());
+        String snapshot = folder.getRoot().toPath().resolve("cache/catalog.bin").toString();
+        catalog.saveSnapshot(snapshot);
+
+        EntityCatalog restored = new EntityCatalog();
+        assertEquals(1, restored.loadSnapshot(snapshot));
+        assertEquals(describe(parsed), describe(restored.get(entity.toString())));
+    }
+
+    @Test
+    public void testStaleSourceIsReparsed() throws IOException {
+        Path entity = writeEntity("A.java", "会社コード");
+        EntityCatalog catalog = new EntityCatalog();
+        catalog.get(entity.toString());
+        String snapshot = folder.getRoot().toPath().resolve("catalog.bin").toString();
+        catalog.saveSnapshot(snapshot);
+
+        writeEntity("A.java", "会社コード", "請求情報");
+        EntityCatalog restored = new EntityCatalog();
+        restored.loadSnapshot(snapshot);
+
+        assertEquals(2, restored.get(entity.toString()).getFields().size());
+    }
+
+    @Test
+    public void testCorruptedSnapshotIsIgnored() throws IOException {
+        Path entity = writeEntity("A.java", "会社コード");
+        EntityCatalog catalog = new EntityCatalog();
+        catalog.get(entity.toString());
+        Path snapshot = folder.getRoot().toPath().resolve("catalog.bin");
+        catalog.saveSnapshot(snapshot.toString());
+        byte[] valid = Files.readAllBytes(snapshot);
+
+        // 第一个条目的路径长度（magic、version、entryCount 之后）改为巨大值和负值
+        for (int length : new int[] {Integer.MAX_VALUE, -7}) {
+            Files.write(snapshot, valid);
+            try (RandomAccessFile file = new RandomAccessFile(snapshot.toFile(), "rw")) {
+                file.seek(12);
+                file.writeInt(length);
+            }
+            assertEquals(0, new EntityCatalog().loadSnapshot(snapshot.toString()));
+        }
+
+        // 截断
+        Files.write(snapshot, Arrays.copyOf(valid, valid.length - 5));
+        EntityCatalog truncated = new EntityCatalog();
+        assertEquals(0, truncated.loadSnapshot(snapshot.toString()));
+        // 改为解析源文件
+        assertEquals(1, truncated.get(entity.toString()).getFields().size());
+    }
+
+    private Path writeEntity(String name, String... comments) throws IOException {
+        StringBuilder source = new StringBuilder("package com.example.entity;\n\npublic class Entity {\n");
+        for (int i = 0; i < comments.length; i++) {
+            source.append("\n    /**\n     * [test_field_").append(i + 1).append("] ").append(comments[i])
+                .append("\n     */\n    private String testField").append(i + 1).append(";\n");
+        }
+        source.append("}\n");
+        Path file = folder.getRoot().toPath().resolve(name);
+        Files.write(file, source.toString().getBytes(StandardCharsets.UTF_8));
+        return file;
+    }
+
+    private static List<String> describe(ClassInfo classInfo) {
+        List<String> fields = new ArrayList<>();
+        fields.add(classInfo.getClassName());
+        for (FieldInfo field : classInfo.getFields()) {
+            fields.add(field.getTableFieldName() + "|" + field.getFieldName() + "|" + field.getNormalizedComment()
+                + "|" + field.getSetMethod() + "|" + field.getGetMethod() + "|" + field.getFieldType());
+        }
+        return fields;
+    }
+}
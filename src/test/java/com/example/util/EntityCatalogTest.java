@@ -0,0 +1,163 @@
+package com.example.util;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.read.ListAppender;
+import com.example.model.ClassInfo;
+import com.example.model.FieldInfo;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+public class EntityCatalogTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testUnchangedFileIsReused() throws IOException {
+        Path entity = writeEntity("A.java", "会社コード");
+        EntityCatalog catalog = new EntityCatalog();
+        ClassInfo first = catalog.get(entity.toString());
+        assertSame(first, catalog.get(entity.toString()));
+        // 路径写法不同也是同一个条目
+        assertSame(first, catalog.get(folder.getRoot() + "/./A.java"));
+        assertEquals(1, catalog.size());
+    }
+
+    @Test
+    public void testChangesAreCheckedAfterInvalidate() throws IOException {
+        Path entity = writeEntity("A.java", "会社コード");
+        EntityCatalog catalog = new EntityCatalog();
+        ClassInfo first = catalog.get(entity.toString());
+
+        // 只修改时间变化：哈希相同，沿用已解析的结果
+        Files.setLastModifiedTime(entity, FileTime.fromMillis(1_000_000_000L));
+        catalog.invalidate(entity.toString());
+        assertSame(first, catalog.get(entity.toString()));
+
+        // 大小变化：重新解析
+        writeEntity("A.java", "会社コード", "請求情報");
+        // 没有 invalidate 时本次运行中不再检查源文件
+        assertSame(first, catalog.get(entity.toString()));
+        catalog.invalidate(entity.toString());
+        ClassInfo second = catalog.get(entity.toString());
+        assertEquals(2, second.getFields().size());
+
+        // 大小相同、内容不同：修改时间变化时比较哈希，重新解析
+        writeEntity("A.java", "会社コード", "請求番号");
+        Files.setLastModifiedTime(entity, FileTime.fromMillis(2_000_000_000L));
+        catalog.invalidate(entity.toString());
+        ClassInfo third = catalog.get(entity.toString());
+        assertNotSame(second, third);
+        assertEquals("請求番号", third.getFields().get(1).getFieldComment());
+    }
+
+    @Test
+    public void testReturnedClassInfoIsFrozen() throws IOException {
+        Path entity = writeEntity("A.java", "会社コード");
+        ClassInfo classInfo = new EntityCatalog().get(entity.toString());
+        assertTrue(classInfo.isFrozen());
+        try {
+            classInfo.getFields().add(new FieldInfo("test_field_2", "請求情報"));
+            fail();
+        } catch (UnsupportedOperationException expected) {
+        }
+        try {
+            classInfo.getFields().get(0).setFieldType("Integer");
+            fail();
+        } catch (IllegalStateException expected) {
+        }
+        try {
+            classInfo.setClassName("Other");
+            fail();
+        } catch (IllegalStateException expected) {
+        }
+    }
+
+    @Test
+    public void testLoadAllMatchesSequentialLoading() throws IOException {
+        Map<String, String> entityFiles = new LinkedHashMap<>();
+        for (int i = 0; i < 20; i++) {
+            String[] comments = new String[i % 5 + 1];
+            for (int j = 0; j < comments.length; j++) {
+                comments[j] = "項目" + i + "_" + j;
+            }
+            entityFiles.put("entity" + i, writeEntity("E" + i + ".java", comments).toString());
+        }
+
+        Map<String, ClassInfo> parallel = new EntityCatalog().loadAll(entityFiles, 4);
+        EntityCatalog sequential = new EntityCatalog();
+        assertEquals(entityFiles.keySet(), parallel.keySet());
+        for (Map.Entry<String, String> entry : entityFiles.entrySet()) {
+            assertEquals(describe(sequential.get(entry.getValue())), describe(parallel.get(entry.getKey())));
+        }
+    }
+
+    @Test
+    public void testLoadAllReportsFailedEntity() throws IOException {
+        Map<String, String> entityFiles = new LinkedHashMap<>();
+        entityFiles.put("good1", writeEntity("A.java", "会社コード").toString());
+        String missing = folder.getRoot().toPath().resolve("Missing.java").toString();
+        entityFiles.put("bad", missing);
+        entityFiles.put("good2", writeEntity("B.java", "請求情報").toString());
+
+        Logger logger = (Logger) LoggerFactory.getLogger(EntityCatalog.class);
+        ListAppender<ILoggingEvent> appender = new ListAppender<>();
+        appender.start();
+        logger.addAppender(appender);
+        Map<String, ClassInfo> loaded;
+        try {
+            loaded = new EntityCatalog().loadAll(entityFiles, 3);
+        } finally {
+            logger.detachAppender(appender);
+        }
+
+        assertEquals(2, loaded.size());
+        assertEquals("会社コード", loaded.get("good1").getFields().get(0).getFieldComment());
+        assertEquals("請求情報", loaded.get("good2").getFields().get(0).getFieldComment());
+        List<String> errors = new ArrayList<>();
+        for (ILoggingEvent event : appender.list) {
+            if (event.getLevel() == Level.ERROR) {
+                errors.add(event.getFormattedMessage());
+            }
+        }
+        assertEquals(1, errors.size());
+        assertTrue(errors.get(0).contains("bad"));
+        assertTrue(errors.get(0).contains(missing));
+    }
+
+    private Path writeEntity(String name, String... comments) throws IOException {
+        StringBuilder source = new StringBuilder("package com.example.entity;\n\npublic class Entity {\n");
+        for (int i = 0; i < comments.length; i++) {
+            source.append("\n    /**\n     * [test_field_").append(i + 1).append("] ").append(comments[i])
+                .append("\n     */\n    private String testField").append(i + 1).append(";\n");
+        }
+        source.append("}\n");
+        Path file = folder.getRoot().toPath().resolve(name);
+        Files.write(file, source.toString().getBytes(StandardCharsets.UTF_8));
+        return file;
+    }
+
+    private static List<String> describe(ClassInfo classInfo) {
+        List<String> fields = new ArrayList<>();
+        for (FieldInfo field : classInfo.getFields()) {
+            fields.add(field.getTableFieldName() + "|" + field.getFieldName() + "|" + field.getFieldComment());
+        }
+        return fields;
+    }
+}
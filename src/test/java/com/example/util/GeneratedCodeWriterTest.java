@@ -0,0 +1,129 @@
+package com.example.util;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.Assert.*;
+
+public class GeneratedCodeWriterTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testLinesAcrossBufferBoundaries() throws IOException {
+        // 超过 char 缓冲区和字节缓冲区大小的多字节文本，包括代理对
+        StringBuilder longLine = new StringBuilder();
+        while (longLine.length() < 600_000) {
+            longLine.append("項目「手袋」𠮷x");
+        }
+        Path file = folder.getRoot().toPath().resolve("sub/a.java");
+        try (GeneratedCodeWriter writer = GeneratedCodeWriter.open(file)) {
+            writer.println("/**");
+            writer.println(longLine.toString());
+            writer.lines().accept("    private int flg;");
+            writer.println();
+            writer.commit();
+        }
+
+        String expected = "/**" + System.lineSeparator() + longLine + System.lineSeparator()
+            + "    private int flg;" + System.lineSeparator() + System.lineSeparator();
+        assertEquals(expected, new String(Files.readAllBytes(file), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void testGzip() throws IOException {
+        Path file = folder.getRoot().toPath().resolve("a.java.gz");
+        try (GeneratedCodeWriter writer = GeneratedCodeWriter.open(file, true)) {
+            writer.println("testTable1BaseEntity.setTestField1(\"\");");
+            writer.commit();
+        }
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (InputStream in = new GZIPInputStream(Files.newInputStream(file))) {
+            in.transferTo(out);
+        }
+        assertEquals("testTable1BaseEntity.setTestField1(\"\");" + System.lineSeparator(),
+            out.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void testReuseAfterClose() throws IOException {
+        Path first = folder.getRoot().toPath().resolve("1.java");
+        Path second = folder.getRoot().toPath().resolve("2.java");
+        try (GeneratedCodeWriter writer = GeneratedCodeWriter.open(first)) {
+            writer.write("一");
+            writer.commit();
+        }
+        // 上一个输出的缓冲区被复用，不能残留内容
+        try (GeneratedCodeWriter writer = GeneratedCodeWriter.open(second)) {
+            writer.write("二");
+            assertEquals(3, writer.getBytesWritten());
+            writer.commit();
+        }
+
+        assertEquals("一", new String(Files.readAllBytes(first), StandardCharsets.UTF_8));
+        assertEquals("二", new String(Files.readAllBytes(second), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void testUnchangedOutputIsNotRewritten() throws IOException {
+        Path file = folder.getRoot().toPath().resolve("a.java");
+        write(file, "private int flg;");
+        FileTime old = FileTime.fromMillis(1_000_000_000L);
+        Files.setLastModifiedTime(file, old);
+
+        assertFalse(write(file, "private int flg;"));
+        assertEquals(old, Files.getLastModifiedTime(file));
+
+        assertTrue(write(file, "private int flx;"));
+        assertEquals("private int flx;" + System.lineSeparator(),
+            new String(Files.readAllBytes(file), StandardCharsets.UTF_8));
+        // 临时文件都被删除或改名
+        assertArrayEquals(new String[] {"a.java"}, folder.getRoot().list());
+    }
+
+    private static boolean write(Path file, String line) throws IOException {
+        GeneratedCodeWriter writer = GeneratedCodeWriter.open(file);
+        try {
+            writer.println(line);
+            writer.commit();
+        } finally {
+            writer.close();
+        }
+        return writer.isChanged();
+    }
+
+    /**
+     * 生成过程中抛出异常（没有 commit）时，已有的输出不变，临时文件被删除
+     */
+    @Test
+    public void testFailedProducerKeepsPreviousOutput() throws IOException {
+        Path file = folder.getRoot().toPath().resolve("a.java.gz");
+        try (GeneratedCodeWriter writer = GeneratedCodeWriter.open(file)) {
+            writer.println("private int flg;");
+            writer.commit();
+        }
+        byte[] previous = Files.readAllBytes(file);
+
+        try (GeneratedCodeWriter writer = GeneratedCodeWriter.open(file, true)) {
+            writer.lines().accept("private int fl");
+            throw new IllegalStateException("converter failed");
+        } catch (IllegalStateException expected) {
+            // 转换器的异常照常传给调用方
+        }
+
+        assertArrayEquals(previous, Files.readAllBytes(file));
+        assertArrayEquals(new String[] {"a.java.gz"}, folder.getRoot().list());
+    }
+}
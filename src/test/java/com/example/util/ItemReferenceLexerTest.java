@@ -0,0 +1,94 @@
+package com.example.util;
+
+import com.example.util.ItemReferenceLexer.Token;
+import com.example.util.ItemReferenceLexer.TokenType;
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class ItemReferenceLexerTest {
+
+    @Test
+    public void testNestedEntityReference() {
+        List<Token> tokens = ItemReferenceLexer.tokenize(
+            "項目「cde(手袋(Ｌ０１)).(生活／仕事　会社コード)」に 項目「z3333(Ｌ０３(L11)TTT).(常務コード) 」を代入します");
+
+        assertEquals(TokenType.ENTITY_REF, tokens.get(0).getType());
+        assertEquals("手袋(Ｌ０１)", tokens.get(0).getValue());
+        assertEquals(TokenType.FIELD_COMMENT, tokens.get(1).getType());
+        assertEquals("生活／仕事　会社コード", tokens.get(1).getValue());
+        assertTrue(tokens.get(2).is(TokenType.KEYWORD, "に"));
+        assertEquals("Ｌ０３(L11)TTT", tokens.get(3).getValue());
+        assertEquals("常務コード", tokens.get(4).getValue());
+        assertTrue(tokens.get(5).is(TokenType.KEYWORD, "を"));
+        assertTrue(tokens.get(6).is(TokenType.KEYWORD, "代入します"));
+        assertEquals(7, tokens.size());
+    }
+
+    @Test
+    public void testDirectReferenceAndIndicator() {
+        List<Token> tokens = ItemReferenceLexer.tokenize("項目「 D\\SSKK 」にブランクを代入します。項目「*IN20」に'1'");
+
+        assertEquals(TokenType.DIRECT_REF, tokens.get(0).getType());
+        assertEquals("DSSKK", tokens.get(0).getValue());
+        assertEquals(TokenType.LITERAL, tokens.get(2).getType());
+        assertEquals("ブランク", tokens.get(2).getValue());
+        assertEquals(TokenType.TEXT, tokens.get(5).getType());
+        assertEquals(TokenType.INDICATOR, tokens.get(6).getType());
+        assertEquals("IN20", tokens.get(6).getValue());
+        assertEquals("1", tokens.get(8).getValue());
+        assertFalse(tokens.get(8).isNumber());
+    }
+
+    @Test
+    public void testComparisonAndNumbers() {
+        List<Token> tokens = ItemReferenceLexer.tokenize("項目「ABC(Ｌ０２(L00)KKK).(常務コード)」＝ ０１２");
+
+        assertTrue(tokens.get(2).is(TokenType.KEYWORD, "＝"));
+        assertEquals(tokens.get(0).getEnd(), tokens.get(2).getStart());
+        assertTrue(tokens.get(3).isNumber());
+        assertEquals("012", tokens.get(3).getValue());
+    }
+
+    @Test
+    public void testMalformedItemsBecomeText() {
+        List<Token> tokens = ItemReferenceLexer.tokenize("項目「abc(((((((((( .(x」を項目「未完了");
+
+        assertEquals(TokenType.TEXT, tokens.get(0).getType());
+        assertTrue(tokens.get(1).is(TokenType.KEYWORD, "を"));
+        assertEquals(TokenType.TEXT, tokens.get(2).getType());
+        assertEquals(-1, ItemReferenceLexer.indexOf(tokens, TokenType.ENTITY_REF, 0));
+    }
+
+    /**
+     * 没有闭合的 項目「 重复 n 次：每次都扫描到行尾时为 O(n²)（40 万次约需 10 秒以上）
+     */
+    @Test(timeout = 2000)
+    public void testUnclosedItemsAreLinear() {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < 400_000; i++) {
+            sb.append("項目「x");
+        }
+        sb.append("'");
+        List<Token> tokens = ItemReferenceLexer.tokenize(sb.toString());
+
+        assertEquals(1, tokens.size());
+        assertEquals(TokenType.TEXT, tokens.get(0).getType());
+    }
+
+    /**
+     * 項目「…」 内部的查找不越过 」：后面的 ( 和 . 不属于这个引用
+     */
+    @Test
+    public void testItemBodySearchStopsAtClose() {
+        List<Token> tokens = ItemReferenceLexer.tokenize("項目「abc」を項目「x(Ｌ０１).(コード)」");
+
+        assertEquals(TokenType.TEXT, tokens.get(0).getType());
+        assertEquals("項目「abc」", tokens.get(0).getValue());
+        assertTrue(tokens.get(1).is(TokenType.KEYWORD, "を"));
+        assertEquals(TokenType.ENTITY_REF, tokens.get(2).getType());
+        assertEquals("Ｌ０１", tokens.get(2).getValue());
+    }
+}
@@ -0,0 +1,111 @@
+package com.example.util;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class JapaneseNormalizerTest {
+
+    private static final String[] CORPUS = {
+        "生活／仕事　会社コード",
+        "[test_field_1] 生活／仕事　会社コード",
+        "請求 ｺｰﾄﾞ",
+        "請求　事実ｺｰﾄﾞ",
+        "発行日１２３",
+        "性能調査ー区別",
+        "test.コード",
+        "ｶﾞｷﾞｸﾞｹﾞｺﾞ ﾊﾟﾋﾟﾌﾟﾍﾟﾎﾟ ｳﾞ",
+        "ｶ ﾞ",          // 空格在 NFKC 之前去除，仍然合成
+        "ｶ／ﾞ",         // 全角斜杠在 NFKC 之后去除，不合成
+        "か゛き゜",      // 全角浊点展开为空格 + 组合符号
+        "ﾞｶ",
+        "が゙",
+        "ＡＢＣ（ＤＥＦ）！＃",
+        "㈱テスト①",
+        "ﬁle Ⅻ ㌔",
+        "é", "한국어", "😀絵文字",
+        "", "　", " \t\n",
+    };
+
+    @Test
+    public void testCorpusMatchesLegacy() {
+        for (String str : CORPUS) {
+            assertNormalizedAsLegacy(str);
+        }
+    }
+
+    @Test
+    public void testEverySingleCharMatchesLegacy() {
+        for (int c = 0; c <= 0xFFFF; c++) {
+            assertNormalizedAsLegacy(String.valueOf((char) c));
+        }
+    }
+
+    @Test
+    public void testKanaWithVoicedMarksMatchesLegacy() {
+        String marks = "ﾞﾟ゙゚";
+        String[] separators = {"", " ", "　", "／", "*", "-"};
+        for (int c = 0x3040; c <= 0x30FF; c++) {
+            for (int m = 0; m < marks.length(); m++) {
+                for (String separator : separators) {
+                    assertNormalizedAsLegacy("" + (char) c + separator + marks.charAt(m));
+                }
+            }
+        }
+        for (int c = 0xFF61; c <= 0xFF9F; c++) {
+            for (int m = 0; m < marks.length(); m++) {
+                assertNormalizedAsLegacy("" + (char) c + marks.charAt(m) + marks.charAt((m + 1) % marks.length()));
+            }
+        }
+    }
+
+    @Test
+    public void testRandomStringsMatchLegacy() {
+        String pool = "abcXYZ019 \t.*/[]\"!#-_()"
+            + "あかがはぱゔゝ"
+            + "アカガハパヴー・ヽ"
+            + "ｱｶﾊｳｰﾞﾟ｡｢｣､･"
+            + "ＡＺａｚ０９！＊．／（）［］　"
+            + "、。「」【】《》〜゛゜゙゚"
+            + "生活仕事会社請求発行日"
+            + "㈱①ⅫﬁéÅ한";
+        Random random = new Random(20241017L);
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < 20000; i++) {
+            sb.setLength(0);
+            int length = random.nextInt(24);
+            for (int j = 0; j < length; j++) {
+                sb.append(pool.charAt(random.nextInt(pool.length())));
+            }
+            assertNormalizedAsLegacy(sb.toString());
+        }
+    }
+
+    @Test
+    public void testEntityCommentsMatchLegacy() throws IOException {
+        for (String file : new String[] {"input/TestTable1BaseEntity.java", "input/TestTable2BaseEntity.java",
+                "input/TestTable3BaseEntity.java", "input/t1.txt", "input/t2.txt"}) {
+            for (String line : Files.readAllLines(Paths.get(file), StandardCharsets.UTF_8)) {
+                assertNormalizedAsLegacy(line);
+            }
+        }
+    }
+
+    @Test
+    public void testFingerprint() {
+        assertEquals(JapaneseNormalizer.fingerprint("請求 ｺｰﾄﾞ"), JapaneseNormalizer.fingerprint("請求コード"));
+        assertEquals(JapaneseNormalizer.fingerprint("㈱テスト"), JapaneseNormalizer.fingerprint("(株)テスト"));
+        assertNotEquals(JapaneseNormalizer.fingerprint("コード123"), JapaneseNormalizer.fingerprint("コード456"));
+        assertNull(JapaneseNormalizer.normalize(null));
+    }
+
+    private static void assertNormalizedAsLegacy(String str) {
+        assertEquals("[" + str + "]", StringCompareUtil.legacyNormalize(str), JapaneseNormalizer.normalize(str));
+    }
+}
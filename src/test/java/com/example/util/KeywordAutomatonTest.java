@@ -0,0 +1,60 @@
+package com.example.util;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class KeywordAutomatonTest {
+
+    private static final String[] KEYWORDS = {
+        "ブランク", "ﾌﾞﾗﾝｸ", "＝", "'1'", "'0'", "右詰で", "左詰", "桁で", "文字目から",
+        "システム日付", "スペース", "」に", "」を", "代入します", "he", "she", "hers"
+    };
+
+    @Test
+    public void testScan() {
+        KeywordAutomaton automaton = new KeywordAutomaton(KEYWORDS);
+        long mask = automaton.scan("項目「cde(Ｌ０２).(常務コード)」に 項目「z(Ｌ０３).(常務コード) 」を右詰で代入します");
+
+        assertTrue(KeywordAutomaton.contains(mask, 5));
+        assertTrue(KeywordAutomaton.contains(mask, 11));
+        assertTrue(KeywordAutomaton.contains(mask, 12));
+        assertTrue(KeywordAutomaton.contains(mask, 13));
+        assertFalse(KeywordAutomaton.contains(mask, 0));
+        assertFalse(KeywordAutomaton.contains(mask, 6));
+        assertEquals(0L, automaton.scan(""));
+    }
+
+    @Test
+    public void testOverlappingKeywords() {
+        KeywordAutomaton automaton = new KeywordAutomaton(KEYWORDS);
+        long mask = automaton.scan("ushers");
+
+        assertTrue(KeywordAutomaton.contains(mask, 14));
+        assertTrue(KeywordAutomaton.contains(mask, 15));
+        assertTrue(KeywordAutomaton.contains(mask, 16));
+    }
+
+    @Test
+    public void testMatchesContains() {
+        KeywordAutomaton automaton = new KeywordAutomaton(KEYWORDS);
+        String pool = "ブランクﾌﾞﾗﾝｸ＝'10右詰で左桁文字目からシステム日付スペース」にを代入しますhers項目「」 ";
+        Random random = new Random(42L);
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < 5000; i++) {
+            sb.setLength(0);
+            int length = random.nextInt(40);
+            for (int j = 0; j < length; j++) {
+                sb.append(pool.charAt(random.nextInt(pool.length())));
+            }
+            String text = sb.toString();
+            long mask = automaton.scan(text);
+            for (int k = 0; k < KEYWORDS.length; k++) {
+                assertEquals(text + " / " + KEYWORDS[k], text.contains(KEYWORDS[k]),
+                    KeywordAutomaton.contains(mask, k));
+            }
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.example.util;
+
+import org.junit.Test;
+
+import java.util.Random;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.Assert.*;
+
+public class LinePreprocessorTest {
+
+    private final LinePreprocessor preprocessor = LinePreprocessor.get();
+
+    @Test
+    public void testNormalize() {
+        assertEquals("》【条件】項目「D\\AABB」＝ ブランク のとき",
+            preprocessor.normalize("\"》【条件】項目「 D\\AABB 」＝　ブランク　 のとき\""));
+        assertEquals("かつ、項目「F23(Ｌ０３(L11)TTT).(常務コード)」＝ ﾌﾞﾗﾝｸ のとき",
+            preprocessor.normalize("　　かつ、項目「F23(Ｌ０３(L11)TTT).(常務 コード)」＝　ﾌﾞﾗﾝｸ のとき"));
+        // 行首全角空格之后的引号保留
+        assertEquals("\"》【条件】", preprocessor.normalize("　　\"》【条件】"));
+        assertEquals("項目", preprocessor.normalize("\uFEFF項目"));
+    }
+
+    @Test
+    public void testUnchangedLineIsReturnedAsIs() {
+        String line = "項目「D\\SSKK」にブランクを代入します。";
+        assertSame(line, preprocessor.normalize(line));
+        String stripped = preprocessor.stripQuotes(line);
+        assertEquals("項目「D\\SSKK」にブランクを代入します", stripped);
+        assertSame(stripped, preprocessor.stripQuotes(stripped));
+    }
+
+    @Test
+    public void testMatchesRegexImplementation() {
+        char[] alphabet = {' ', '　', '\t', '"', '「', '」', '(', ')', 'a', 'Ｂ', '。', '\u0001'};
+        Random random = new Random(42);
+        for (int n = 0; n < 20000; n++) {
+            StringBuilder line = new StringBuilder();
+            int length = random.nextInt(16);
+            for (int i = 0; i < length; i++) {
+                line.append(alphabet[random.nextInt(alphabet.length)]);
+            }
+            String text = line.toString();
+            assertEquals("[" + text + "]", regexNormalize(text), preprocessor.normalize(text));
+            assertEquals("[" + text + "]", text.replaceAll("^[\"]|[\"。]$", "").trim(),
+                preprocessor.stripQuotes(text));
+        }
+    }
+
+    /**
+     * 原 Type2TextConverter 中 removeQuotes + normalizeSpaces 的实现
+     */
+    private static String regexNormalize(String line) {
+        line = line.trim();
+        if (line.startsWith("\"")) {
+            line = line.substring(1);
+        }
+        if (line.endsWith("\"")) {
+            line = line.substring(0, line.length() - 1);
+        }
+        line = line.replace('　', ' ');
+        line = removeSpacesInside(line, Pattern.compile("「([^」]*)」"), "「", "」");
+        line = removeSpacesInside(line, Pattern.compile("\\(([^)]*)\\)"), "(", ")");
+        return line.replaceAll("\\s+", " ").trim();
+    }
+
+    private static String removeSpacesInside(String line, Pattern pattern, String open, String close) {
+        StringBuilder result = new StringBuilder();
+        int lastPos = 0;
+        Matcher matcher = pattern.matcher(line);
+        while (matcher.find()) {
+            result.append(line, lastPos, matcher.start());
+            result.append(open).append(matcher.group(1).replaceAll("\\s+", "")).append(close);
+            lastPos = matcher.end();
+        }
+        return result.append(line.substring(lastPos)).toString();
+    }
+}
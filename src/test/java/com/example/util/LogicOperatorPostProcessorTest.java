@@ -0,0 +1,99 @@
+package com.example.util;
+
+import com.example.model.FieldInfo;
+import com.example.model.GeneratedType2JavaInfo;
+import com.example.model.GeneratedType2JavaInfo.Assignment;
+import com.example.model.GeneratedType2JavaInfo.ConditionPart;
+import com.example.model.GeneratedType2JavaInfo.Operand;
+import com.example.model.VariableDefinition;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+public class LogicOperatorPostProcessorTest {
+
+    private LogicOperatorPostProcessor processor;
+
+    @Before
+    public void setUp() {
+        Map<String, VariableDefinition> definitions = new HashMap<>();
+        definitions.put("DCC23", new VariableDefinition("DCC23", "Integer", "0"));
+        definitions.put("DUUHH", new VariableDefinition("DUUHH", "String", ""));
+        processor = new LogicOperatorPostProcessor();
+        processor.setVariableDefinitions(definitions);
+    }
+
+    @Test
+    public void testUtilIsChosenByOperandKind() {
+        FieldInfo amount = new FieldInfo("test_field_5", "数量");
+        amount.setFieldType("Integer");
+        FieldInfo day = new FieldInfo("test_field_6", "日付");
+        day.setFieldType("Date");
+
+        assertEquals("!NumUtil.eq(test222.getTestField5(), 0)", emit(
+            Operand.entityGetter("test222", amount), "≠", Operand.of("0")));
+        assertEquals("DateUtil.eq(test222.getTestField6(), this.DUUHH)", emit(
+            Operand.entityGetter("test222", day), "＝", Operand.defineVariable("DUUHH")));
+        assertEquals("NumUtil.eq(this.DCC23, this.DUUHH)", emit(
+            Operand.defineVariable("DCC23"), "＝", Operand.defineVariable("DUUHH")));
+        assertEquals("StrUtil.eq(this.DAABB, this.DSSKK)", emit(
+            Operand.defineVariable("DAABB"), "＝", Operand.defineVariable("DSSKK")));
+        assertEquals("!StrUtil.isEmpty(this.DAABB)", emit(
+            Operand.defineVariable("DAABB"), "≠", Operand.blank()));
+        assertEquals("StrUtil.eq(this.DAABB, \"A B\")", emit(
+            Operand.defineVariable("DAABB"), "＝", Operand.of("\"A B\"")));
+        assertEquals("ABC == ０", emit(Operand.of("ABC"), "＝", Operand.of("０")));
+    }
+
+    /**
+     * getter 名是另一个 getter 名的前缀时（getTestField1 / getTestField10），各自按自己的字段类型转换
+     */
+    @Test
+    public void testGetterPrefixDoesNotMatchLongerGetter() {
+        FieldInfo code = new FieldInfo("test_field_1", "会社コード");
+        code.setFieldType("String");
+        FieldInfo amount = new FieldInfo("test_field_10", "数量");
+        amount.setFieldType("Integer");
+        assertEquals("getTestField1", code.getGetMethod());
+        assertEquals("getTestField10", amount.getGetMethod());
+
+        assertEquals("StrUtil.eq(test222.getTestField1(), \"1\")", emit(
+            Operand.entityGetter("test222", code), "＝", Operand.of("\"1\"")));
+        assertEquals("NumUtil.eq(test222.getTestField10(), 1)", emit(
+            Operand.entityGetter("test222", amount), "＝", Operand.of("1")));
+        // 两侧都是 getter 时按左侧的字段类型
+        assertEquals("StrUtil.eq(test222.getTestField1(), test222.getTestField10())", emit(
+            Operand.entityGetter("test222", code), "＝", Operand.entityGetter("test222", amount)));
+        assertEquals("NumUtil.eq(test222.getTestField10(), test222.getTestField1())", emit(
+            Operand.entityGetter("test222", amount), "＝", Operand.entityGetter("test222", code)));
+    }
+
+    @Test
+    public void testOnlyConditionIsRewritten() {
+        GeneratedType2JavaInfo info = new GeneratedType2JavaInfo();
+        info.getCondition().addPart(new ConditionPart(Operand.defineVariable("DAABB"), "＝", Operand.blank()));
+        info.addAssignment(new Assignment("this.DAABB == \"\"", null, Assignment.AssignmentType.TODO));
+
+        assertEquals("if(StrUtil.isEmpty(this.DAABB)) {\n"
+            + "    //TODO: this.DAABB == \"\"\n"
+            + "}\n", processor.process(info));
+    }
+
+    @Test
+    public void testErrorAndEmptyConditions() {
+        GeneratedType2JavaInfo error = new GeneratedType2JavaInfo();
+        error.getCondition().addPart(ConditionPart.error("項目「X」", "＝", "ﾌﾞﾗﾝｸ"));
+        assertEquals("//TODO: if([項目「X」 ＝ ﾌﾞﾗﾝｸ]) {\n//TODO: }\n", processor.process(error));
+
+        GeneratedType2JavaInfo empty = new GeneratedType2JavaInfo();
+        assertTrue(processor.process(empty).startsWith("//TODO:手動で処理をお願いします\nif() {"));
+    }
+
+    private String emit(Operand left, String operator, Operand right) {
+        return processor.emit(new ConditionPart(left, operator, right));
+    }
+}
@@ -0,0 +1,73 @@
+package com.example.util;
+
+import org.junit.Test;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class LogicalLineReaderTest {
+
+    @Test
+    public void testJoinsWrappedTextInsideQuotedCell() throws IOException {
+        List<String> lines = read(
+            "\"項目「cde(手袋(Ｌ０１)).(請求 情報)」に\n"
+            + "　　ブランクを代入します。\n"
+            + "項目「cde(手袋(Ｌ０１)).(請求　時間)」＝　０。\"\n"
+            + "ブランク");
+
+        assertEquals(Arrays.asList(
+            "\"項目「cde(手袋(Ｌ０１)).(請求 情報)」にブランクを代入します。",
+            "項目「cde(手袋(Ｌ０１)).(請求　時間)」＝　０。\"",
+            "ブランク"), lines);
+    }
+
+    @Test
+    public void testStatementsInsideQuotedCellStaySeparate() throws IOException {
+        List<String> lines = read(
+            "\"》【条件】項目「 D\\CC23 」＝ 項目「 D\\UUHH 」のとき\n"
+            + "　　かつ、項目「F23(Ｌ０３(L11)TTT).(常務コード)」＝　ﾌﾞﾗﾝｸ のとき\"\n"
+            + "　　項目「 D\\MMNN 」に ﾌﾞﾗﾝｸ を代入します。");
+
+        assertEquals(3, lines.size());
+    }
+
+    @Test
+    public void testStripsBom() throws IOException {
+        List<String> lines = read("\uFEFF項目「 D\\SSKK 」にブランクを代入します。\n\n");
+
+        assertEquals(Arrays.asList("項目「 D\\SSKK 」にブランクを代入します。", ""), lines);
+    }
+
+    @Test
+    public void testSampleInputsKeepOneLogicalLinePerPhysicalLine() throws IOException {
+        for (String file : new String[] {"input/t1.txt", "input/t2.txt"}) {
+            List<String> physical = Files.readAllLines(Paths.get(file), StandardCharsets.UTF_8);
+            physical.set(0, physical.get(0).replace("\uFEFF", ""));
+            try (LogicalLineReader reader = new LogicalLineReader(Files.newBufferedReader(Paths.get(file)))) {
+                List<String> logical = new ArrayList<>();
+                reader.forEachRemaining(logical::add);
+                assertEquals(file, physical, logical);
+            }
+        }
+    }
+
+    private static List<String> read(String text) throws IOException {
+        List<String> lines = new ArrayList<>();
+        try (LogicalLineReader reader = new LogicalLineReader(new BufferedReader(new StringReader(text)))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lines.add(line);
+            }
+        }
+        return lines;
+    }
+}
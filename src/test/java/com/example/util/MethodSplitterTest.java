@@ -0,0 +1,76 @@
+package com.example.util;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class MethodSplitterTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testEstimateIsNotBelowJavac() {
+        // javac: aload_0, getfield, ldc, invokevirtual = 9 字节
+        assertEquals(11, MethodSplitter.estimateBytecodeSize("testTable1.setTestField1(\"\");"));
+        // javac: aload_0, ldc, putfield = 6 字节；注释不计
+        assertEquals(8, MethodSplitter.estimateBytecodeSize("this.DMMNN = \"\"; //TODO: 項目「A」"));
+        assertEquals(0, MethodSplitter.estimateBytecodeSize("//TODO: 項目「A」"));
+    }
+
+    @Test
+    public void testBlocksStayIntact() throws IOException {
+        String block = "if(StrUtil.eq(this.DAABB, \"\")) {\n    this.DAABB = \"\";\n}";
+        int blockSize = MethodSplitter.estimateBytecodeSize(block);
+        Path file = folder.getRoot().toPath().resolve("Gen.java");
+        try (GeneratedCodeWriter writer = GeneratedCodeWriter.open(file)) {
+            // 每个方法最多放两个块
+            MethodSplitter splitter = new MethodSplitter(writer, "Gen", "run", blockSize * 2 + 1);
+            for (int i = 0; i < 3; i++) {
+                splitter.add(block);
+                splitter.add("");
+            }
+            splitter.finish();
+            writer.commit();
+            assertEquals(2, splitter.getMethodCount());
+        }
+
+        List<String> lines = Files.readAllLines(file, StandardCharsets.UTF_8);
+        assertEquals(Arrays.asList(
+            "public class Gen {",
+            "",
+            "    private void run1() {",
+            "        if(StrUtil.eq(this.DAABB, \"\")) {",
+            "            this.DAABB = \"\";",
+            "        }",
+            "",
+            "        if(StrUtil.eq(this.DAABB, \"\")) {",
+            "            this.DAABB = \"\";",
+            "        }",
+            "    }",
+            "",
+            "    private void run2() {",
+            "        if(StrUtil.eq(this.DAABB, \"\")) {",
+            "            this.DAABB = \"\";",
+            "        }",
+            "    }",
+            "",
+            "    /**",
+            "     * 按顺序调用分割后的方法",
+            "     */",
+            "    public void run() {",
+            "        run1();",
+            "        run2();",
+            "    }",
+            "}"), lines);
+    }
+}
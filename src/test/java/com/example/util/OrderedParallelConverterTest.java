@@ -0,0 +1,47 @@
+package com.example.util;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.junit.Assert.*;
+
+public class OrderedParallelConverterTest {
+
+    @Test
+    public void testOutputKeepsInputOrder() throws IOException {
+        List<String> lines = new ArrayList<>();
+        List<String> expected = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            lines.add("line" + i);
+            if (i % 7 != 0) {
+                expected.add("code" + i);
+            }
+        }
+
+        List<String> written = new ArrayList<>();
+        int count = new OrderedParallelConverter(4, 16).convert(lines.iterator(), line -> {
+            // 随机延迟，打乱各块的完成顺序
+            LockSupport.parkNanos(ThreadLocalRandom.current().nextInt(50_000));
+            int index = Integer.parseInt(line.substring(4));
+            return index % 7 == 0 ? null : "code" + index;
+        }, written::add);
+
+        assertEquals(lines.size(), count);
+        assertEquals(expected, written);
+    }
+
+    @Test
+    public void testEmptyInput() throws IOException {
+        List<String> written = new ArrayList<>();
+        int count = new OrderedParallelConverter(2).convert(new ArrayList<String>().iterator(),
+            line -> line, written::add);
+
+        assertEquals(0, count);
+        assertTrue(written.isEmpty());
+    }
+}
@@ -0,0 +1,139 @@
+package com.example.util;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class SpecWatcherTest {
+    private static final long SETTLE_MILLIS = 300;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private Path specRoot;
+    private Path entity;
+    private SpecWatcher watcher;
+    private Thread thread;
+    /** 每次通知：依赖文件、规格文件、删除的路径 */
+    private final BlockingQueue<List<Set<Path>>> batches = new LinkedBlockingQueue<>();
+
+    @Before
+    public void setUp() throws IOException {
+        specRoot = folder.newFolder("specs").toPath().toRealPath();
+        entity = folder.newFolder("entity").toPath().toRealPath().resolve("TestTable1.java");
+        write(entity, "class TestTable1 {}");
+        watcher = new SpecWatcher(specRoot, Collections.singletonList(entity.toString()), SETTLE_MILLIS);
+        thread = new Thread(() -> {
+            try {
+                watcher.run((dependencies, specs, deleted) -> batches.add(Arrays.asList(
+                    new HashSet<>(dependencies), new HashSet<>(specs), new HashSet<>(deleted))));
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        thread.interrupt();
+        thread.join(5000);
+        watcher.close();
+    }
+
+    @Test
+    public void testEventsAreCoalesced() throws Exception {
+        Path a = specRoot.resolve("a.txt");
+        Path b = specRoot.resolve("b.txt");
+        write(a, "項目「A」を設定する");
+        write(b, "項目「B」を設定する");
+        write(a, "項目「A」を設定しない");
+
+        List<Set<Path>> batch = next();
+        assertEquals(Collections.emptySet(), batch.get(0));
+        assertEquals(set(a, b), batch.get(1));
+        // 一次保存的多个事件只通知一次
+        assertNull(batches.poll(SETTLE_MILLIS * 2, TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    public void testEntityChangeIsReportedAsDependency() throws Exception {
+        write(entity, "class TestTable1 { private String testField1; }");
+
+        List<Set<Path>> batch = next();
+        assertEquals(set(entity), batch.get(0));
+        assertEquals(Collections.emptySet(), batch.get(1));
+    }
+
+    @Test
+    public void testNewDirectoryIsWatched() throws Exception {
+        Path sub = specRoot.resolve("sub");
+        Path early = sub.resolve("early.txt");
+        Files.createDirectory(sub);
+        // 注册之前写入的文件由目录扫描发现
+        write(early, "項目「A」を設定する");
+        assertTrue(next().get(1).contains(early));
+
+        Path later = sub.resolve("later.txt");
+        write(later, "項目「B」を設定する");
+        assertEquals(set(later), next().get(1));
+    }
+
+    @Test
+    public void testDeletedSpecsAreReported() throws Exception {
+        Path sub = Files.createDirectory(specRoot.resolve("sub"));
+        Path a = specRoot.resolve("a.txt");
+        write(a, "項目「A」を設定する");
+        write(sub.resolve("b.txt"), "項目「B」を設定する");
+        next();
+        drain();
+
+        Files.delete(a);
+        List<Set<Path>> batch = next();
+        assertEquals(Collections.emptySet(), batch.get(1));
+        assertEquals(set(a), batch.get(2));
+
+        // 目录被移出
+        Path moved = folder.getRoot().toPath().toRealPath().resolve("moved");
+        Files.move(sub, moved);
+        assertTrue(next().get(2).contains(sub));
+    }
+
+    private List<Set<Path>> next() throws InterruptedException {
+        List<Set<Path>> batch = batches.poll(10, TimeUnit.SECONDS);
+        assertNotNull("no change reported", batch);
+        return batch;
+    }
+
+    private void drain() throws InterruptedException {
+        while (batches.poll(SETTLE_MILLIS * 2, TimeUnit.MILLISECONDS) != null) {
+            // 丢弃准备阶段的通知
+        }
+    }
+
+    private static Set<Path> set(Path... paths) {
+        return new HashSet<>(Arrays.asList(paths));
+    }
+
+    private static void write(Path file, String content) throws IOException {
+        Files.write(file, content.getBytes(StandardCharsets.UTF_8));
+    }
+}